@@ -0,0 +1,90 @@
+package com.rest.playlist.config;
+
+import com.rest.playlist.repository.SongPlayCountRepository;
+import com.rest.playlist.service.ISongService;
+import com.rest.playlist.service.SongServiceImpl;
+import com.rest.playlist.service.cache.CacheWarmer;
+import com.rest.playlist.service.cache.StaleWhileRevalidateCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachingConfigurerSupport;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.CacheResolver;
+import org.springframework.cache.interceptor.SimpleCacheResolver;
+import org.springframework.cache.support.NoOpCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * CacheConfig class enables the "songs" entity cache of SongServiceImpl (Caffeine, see spring.cache.*).
+ * The cache advice runs before the transaction advice : a hit opens no transaction nor connection.
+ * The "songPages" cache of the listings is resolved by songPageCacheResolver, outside the auto-configured
+ * CacheManager : it serves stale pages while reloading them (playlist.songs.cache.pages.*).
+ * The puts and evictions of the cache annotations run after the commit when a transaction is active
+ * (a song created in the transaction of a write-behind group) : a reader never gets an uncommitted song,
+ * and a page reloaded before the commit is evicted again. Without a transaction they run at once.
+ */
+
+@Configuration
+@Profile("!reactive")
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 20)
+@EnableConfigurationProperties({SongLookupProperties.class, SongCacheProperties.class})
+public class CacheConfig extends CachingConfigurerSupport {
+
+    private final ObjectProvider<CacheManager> cacheManager;
+
+    public CacheConfig(ObjectProvider<CacheManager> cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public CacheResolver cacheResolver() {
+        return new SimpleCacheResolver(new TransactionAwareCacheManagerProxy(cacheManager.getObject()));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "playlist.songs.cache.pages.enabled", matchIfMissing = true)
+    public StaleWhileRevalidateCache songPageCache(SongCacheProperties properties, MeterRegistry meterRegistry) {
+        SongCacheProperties.Pages pages = properties.getPages();
+        StaleWhileRevalidateCache cache = new StaleWhileRevalidateCache(SongServiceImpl.SONG_PAGE_CACHE,
+                pages.getMaximumSize(), pages.getRefreshAfter(), pages.getStaleTimeToLive(), pages.getRefreshThreads(),
+                meterRegistry);
+        FunctionCounter.builder("playlist.songs.pages.stale", cache, StaleWhileRevalidateCache::getStaleHits)
+                .description("Stale pages served while they were reloaded")
+                .register(meterRegistry);
+        FunctionCounter.builder("playlist.songs.pages.refresh.failures", cache, StaleWhileRevalidateCache::getRefreshFailures)
+                .description("Failed background reloads, the stale pages were kept")
+                .register(meterRegistry);
+        return cache;
+    }
+
+    @Bean(SongServiceImpl.SONG_PAGE_CACHE_RESOLVER)
+    public CacheResolver songPageCacheResolver(ObjectProvider<StaleWhileRevalidateCache> songPageCache) {
+        Cache cache = songPageCache.getIfAvailable();
+        Collection<Cache> caches = Collections.singleton(cache != null ? new TransactionAwareCacheDecorator(cache)
+                : new NoOpCache(SongServiceImpl.SONG_PAGE_CACHE));
+        return context -> caches;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "playlist.songs.cache.warm-up.enabled", matchIfMissing = true)
+    public CacheWarmer cacheWarmer(ISongService songService, SongPlayCountRepository songPlayCountRepository,
+                                   SongCacheProperties properties, SongLookupProperties lookupProperties,
+                                   MeterRegistry meterRegistry) {
+        SongCacheProperties.WarmUp warmUp = properties.getWarmUp();
+        return new CacheWarmer(songService, songPlayCountRepository, warmUp.getSongs(), warmUp.getPageSize(),
+                lookupProperties.getChunkSize(), warmUp.getParallelism(), warmUp.getTimeout(), meterRegistry);
+    }
+}
@@ -0,0 +1,43 @@
+package com.rest.playlist.config;
+
+import com.rest.playlist.web.compression.CompressedResponseCache;
+import com.rest.playlist.web.compression.ResponseCompressionFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+
+/**
+ * CompressionConfig class registers the ResponseCompressionFilter on the api endpoints.
+ * HTTP/2 (h2c without TLS) is enabled on the embedded Tomcat by server.http2.enabled.
+ */
+
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "playlist.compression.enabled", matchIfMissing = true)
+@EnableConfigurationProperties(CompressionProperties.class)
+public class CompressionConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "playlist.compression.response-cache.enabled", havingValue = "true")
+    public CompressedResponseCache compressedResponseCache(CompressionProperties properties, MeterRegistry meterRegistry) {
+        CompressionProperties.ResponseCache cacheProperties = properties.getResponseCache();
+        return new CompressedResponseCache(cacheProperties.getMaximumSize(), cacheProperties.getTimeToLive(), meterRegistry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ResponseCompressionFilter> responseCompressionFilter(CompressionProperties properties,
+                                                                                      ObjectProvider<CompressedResponseCache> cache) {
+        FilterRegistrationBean<ResponseCompressionFilter> registration =
+                new FilterRegistrationBean<>(new ResponseCompressionFilter(properties, cache.getIfAvailable()));
+        registration.addUrlPatterns("/api/*");
+        // after the http.server.requests metrics filter : the cache hits are measured as well
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
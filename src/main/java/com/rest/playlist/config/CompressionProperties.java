@@ -0,0 +1,77 @@
+package com.rest.playlist.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compression of the api responses by ResponseCompressionFilter.
+ */
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "playlist.compression")
+public class CompressionProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Smaller responses are sent as is : below about one TCP segment compression costs CPU for no gain.
+     */
+    private DataSize minResponseSize = DataSize.ofKilobytes(1);
+
+    private List<String> mimeTypes = new ArrayList<>(Arrays.asList(
+            "application/json", "application/x-jackson-smile", "application/cbor", "application/x-protobuf"));
+
+    /**
+     * Deflate level of gzip, from 1 (fastest) to 9 (smallest).
+     */
+    private int gzipLevel = 6;
+
+    /**
+     * Brotli is preferred over gzip when the client accepts it and the native library is available.
+     */
+    private boolean brotliEnabled = true;
+
+    /**
+     * Brotli quality, from 0 (fastest) to 11 (smallest).
+     */
+    private int brotliQuality = 5;
+
+    /**
+     * Ant patterns of the streamed endpoints (Server-Sent Events) : never buffered, whatever the Accept header.
+     */
+    private List<String> streamingPaths = new ArrayList<>(Arrays.asList("/api/songs/changes/stream"));
+
+    private ResponseCache responseCache = new ResponseCache();
+
+    @Getter
+    @Setter
+    public static class ResponseCache {
+
+        private boolean enabled;
+
+        /**
+         * Ant patterns of the GET endpoints cached, none by default : their responses must be the same for every client.
+         */
+        private List<String> paths = new ArrayList<>();
+
+        private long maximumSize = 1000;
+
+        /**
+         * Upper bound of the staleness of a cached page, the writes of this node clear the cache immediately.
+         */
+        private Duration timeToLive = Duration.ofSeconds(10);
+
+        /**
+         * Ant patterns of the POST endpoints which do not change the songs (multi-get, plays), they keep the cache.
+         */
+        private List<String> readOnlyPaths = new ArrayList<>(Arrays.asList("/api/songs/lookup", "/api/songs/*/plays"));
+    }
+}
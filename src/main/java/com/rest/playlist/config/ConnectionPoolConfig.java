@@ -0,0 +1,114 @@
+package com.rest.playlist.config;
+
+import com.rest.playlist.jdbc.ConnectionPoolEndpoint;
+import com.rest.playlist.jdbc.ConnectionPoolInterceptor;
+import com.rest.playlist.jdbc.ConnectionPoolMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * ConnectionPoolConfig class observes the HikariCP pool of the application ("dataSource" bean, or the primary pool
+ * of DataSourceRoutingConfig) with a ConnectionPoolMonitor : acquire wait and hold time per endpoint,
+ * top holders when the pool saturates, recommended pool size, applied when playlist.db.pool.adaptive=true.
+ */
+
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "playlist.db.pool.enabled", matchIfMissing = true)
+@EnableConfigurationProperties(ConnectionPoolProperties.class)
+public class ConnectionPoolConfig {
+
+    @Bean
+    public static ConnectionPoolMonitor connectionPoolMonitor(ConnectionPoolProperties properties,
+                                                              ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ConnectionPoolMonitor(meterRegistry::getIfAvailable, properties.getSizingWindow(),
+                Duration.ofMillis(properties.getSampleIntervalMs()), properties.getHeadroom(),
+                properties.getMinimumSize(), properties.getMaximumSize(), properties.getTopHolders(),
+                properties.getSaturationLogInterval());
+    }
+
+    /**
+     * Sets the metrics tracker before the pool starts, Spring Boot then does not bind its own.
+     */
+    @Bean
+    public static BeanPostProcessor connectionPoolMonitorPostProcessor(ConnectionPoolMonitor connectionPoolMonitor) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource && "dataSource".equals(beanName)) {
+                    connectionPoolMonitor.monitor((HikariDataSource) bean);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public ConnectionPoolSampler connectionPoolSampler(ConnectionPoolMonitor connectionPoolMonitor,
+                                                       ConnectionPoolProperties properties,
+                                                       MeterRegistry meterRegistry) {
+        Gauge.builder("playlist.db.pool.recommended.size", connectionPoolMonitor,
+                        ConnectionPoolMonitor::getRecommendedPoolSize)
+                .description("Pool size recommended from the observed demand and hold times")
+                .register(meterRegistry);
+        FunctionCounter.builder("playlist.db.pool.saturations", connectionPoolMonitor,
+                        ConnectionPoolMonitor::getSaturations)
+                .description("Samples with threads waiting for a connection, and acquire timeouts")
+                .register(meterRegistry);
+        return new ConnectionPoolSampler(connectionPoolMonitor, properties.isAdaptive());
+    }
+
+    @Bean
+    public ConnectionPoolEndpoint connectionPoolEndpoint(ConnectionPoolMonitor connectionPoolMonitor) {
+        return new ConnectionPoolEndpoint(connectionPoolMonitor);
+    }
+
+    @Bean
+    public WebMvcConfigurer connectionPoolInterceptorConfigurer() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new ConnectionPoolInterceptor())
+                        .addPathPatterns("/api/**");
+            }
+        };
+    }
+
+    static class ConnectionPoolSampler {
+
+        private final ConnectionPoolMonitor monitor;
+        private final boolean adaptive;
+
+        ConnectionPoolSampler(ConnectionPoolMonitor monitor, boolean adaptive) {
+            this.monitor = monitor;
+            this.adaptive = adaptive;
+        }
+
+        @Scheduled(fixedDelayString = "${playlist.db.pool.sample-interval-ms:1000}")
+        public void sample() {
+            monitor.sample();
+        }
+
+        @Scheduled(initialDelayString = "${playlist.db.pool.adjust-interval-ms:60000}",
+                fixedDelayString = "${playlist.db.pool.adjust-interval-ms:60000}")
+        public void adjust() {
+            if (adaptive) {
+                monitor.adjust();
+            }
+        }
+    }
+}
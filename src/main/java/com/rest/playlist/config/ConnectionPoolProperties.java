@@ -0,0 +1,52 @@
+package com.rest.playlist.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Monitoring and sizing of the connection pool (spring.datasource.hikari.*).
+ */
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "playlist.db.pool")
+public class ConnectionPoolProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Interval between two samples of the pool (demand, waiting threads).
+     */
+    private long sampleIntervalMs = 1000;
+
+    /**
+     * Samples of the recommended size : the 95th percentile of the demand over this window.
+     */
+    private Duration sizingWindow = Duration.ofMinutes(5);
+
+    /**
+     * Connections added to the observed concurrency, as a fraction of it.
+     */
+    private double headroom = 0.2;
+
+    private int minimumSize = 2;
+
+    private int maximumSize = 50;
+
+    /**
+     * Connection holders logged when the pool saturates, and reported by /actuator/connectionpool.
+     */
+    private int topHolders = 5;
+
+    private Duration saturationLogInterval = Duration.ofSeconds(10);
+
+    /**
+     * The maximum pool size follows the recommended size.
+     */
+    private boolean adaptive = false;
+
+    private long adjustIntervalMs = 60_000;
+}
@@ -0,0 +1,54 @@
+package com.rest.playlist.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.rest.playlist.web.converter.SongProtobufHttpMessageConverter;
+import com.rest.playlist.web.exception.ErrorMessageHttpMessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * ContentNegotiationConfig class adds compact binary representations to the song api,
+ * for reads (Accept header) and writes (Content-Type header), next to JSON :
+ * application/x-jackson-smile, application/cbor and application/x-protobuf (src/main/proto/song.proto).
+ * The Jackson based converters replace the Spring MVC defaults to share the configuration of the JSON ObjectMapper.
+ */
+
+@Configuration
+@Profile("!reactive")
+public class ContentNegotiationConfig {
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.createXmlMapper(false).factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.createXmlMapper(false).factory(new CBORFactory()).build());
+    }
+
+    /**
+     * The protobuf converter is appended after the default converters : clients without Accept header keep getting JSON.
+     * The error converter comes first, it handles the JSON error responses only.
+     */
+    @Bean
+    public WebMvcConfigurer messageConvertersConfigurer(ObjectMapper objectMapper) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+                converters.add(0, new ErrorMessageHttpMessageConverter(objectMapper));
+                converters.add(new SongProtobufHttpMessageConverter());
+            }
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package com.rest.playlist.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rest.playlist.repository.IdempotencyRecordRepository;
+import com.rest.playlist.web.exception.ErrorResponseWriter;
+import com.rest.playlist.web.idempotency.IdempotencyFilter;
+import com.rest.playlist.web.idempotency.IdempotencyStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+
+/**
+ * IdempotencyConfig class registers the IdempotencyFilter on the api endpoints (playlist.idempotency.*).
+ * It runs after the rate limits and the compression, before the bulkheads : a replay takes no bulkhead permit.
+ */
+
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "playlist.idempotency.enabled", matchIfMissing = true)
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotencyConfig {
+
+    @Bean
+    public IdempotencyStore idempotencyStore(IdempotencyRecordRepository repository, IdempotencyProperties properties,
+                                             MeterRegistry meterRegistry) {
+        return new IdempotencyStore(repository, properties.getCacheMaximumSize(), properties.getTimeToLive(),
+                properties.getAbandonedAfter(), meterRegistry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyStore idempotencyStore,
+                                                                       IdempotencyProperties properties,
+                                                                       ObjectMapper objectMapper,
+                                                                       MeterRegistry meterRegistry) {
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(new IdempotencyFilter(
+                properties.getEndpoints(), idempotencyStore, new ErrorResponseWriter(objectMapper),
+                properties.getWaitTimeout(), properties.getPollInterval(),
+                (int) properties.getMaxRequestSize().toBytes(), (int) properties.getMaxResponseSize().toBytes(),
+                meterRegistry));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 15);
+        return registration;
+    }
+}
@@ -0,0 +1,62 @@
+package com.rest.playlist.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Idempotent endpoints : the requests sent with an Idempotency-Key header are executed once.
+ */
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "playlist.idempotency")
+public class IdempotencyProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Endpoints as "METHOD /ant/path".
+     */
+    private List<String> endpoints = new ArrayList<>(List.of("POST /api/songs"));
+
+    /**
+     * How long a response is replayed to the retries.
+     */
+    private Duration timeToLive = Duration.ofHours(24);
+
+    /**
+     * How long a duplicate waits for the response of the request in progress before the 409.
+     */
+    private Duration waitTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Polling of the response of a request in progress on another node.
+     */
+    private Duration pollInterval = Duration.ofMillis(100);
+
+    /**
+     * A request in progress for longer is considered abandoned (node stopped), a retry executes it.
+     */
+    private Duration abandonedAfter = Duration.ofMinutes(1);
+
+    /**
+     * Larger requests are answered 413 : the body is held in memory to be hashed.
+     */
+    private DataSize maxRequestSize = DataSize.ofMegabytes(1);
+
+    /**
+     * Larger responses are not stored.
+     */
+    private DataSize maxResponseSize = DataSize.ofKilobytes(64);
+
+    /**
+     * Responses kept in memory in front of the idempotency_keys table.
+     */
+    private long cacheMaximumSize = 10_000;
+}
@@ -0,0 +1,58 @@
+package com.rest.playlist.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rest.playlist.service.SongIdFilter;
+import com.rest.playlist.service.cache.StaleWhileRevalidateCache;
+import com.rest.playlist.service.invalidation.InvalidationBus;
+import com.rest.playlist.service.invalidation.InvalidationTransport;
+import com.rest.playlist.service.invalidation.LoopbackInvalidationTransport;
+import com.rest.playlist.service.invalidation.PostgresInvalidationTransport;
+import com.rest.playlist.web.compression.CompressedResponseCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * InvalidationConfig class provides the cross-node cache invalidation bus, enabled by playlist.invalidation.enabled=true.
+ * The bus is eager (even with spring.main.lazy-initialization=true) : it must listen before the first write.
+ */
+
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "playlist.invalidation.enabled", havingValue = "true")
+@EnableConfigurationProperties(InvalidationProperties.class)
+public class InvalidationConfig {
+
+    @Bean
+    public InvalidationTransport invalidationTransport(InvalidationProperties properties, DataSource dataSource,
+                                                       DataSourceProperties dataSourceProperties) {
+        if (properties.getTransport() == InvalidationProperties.Transport.LOOPBACK) {
+            return new LoopbackInvalidationTransport();
+        }
+        return new PostgresInvalidationTransport(new JdbcTemplate(dataSource), dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword(),
+                properties.getChannel(), properties.getReconnectDelay());
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @Lazy(false)
+    public InvalidationBus invalidationBus(InvalidationTransport invalidationTransport, ObjectMapper objectMapper,
+                                           CacheManager cacheManager, SongIdFilter songIdFilter,
+                                           ObjectProvider<StaleWhileRevalidateCache> songPageCache,
+                                           ObjectProvider<CompressedResponseCache> compressedResponseCache,
+                                           InvalidationProperties properties, MeterRegistry meterRegistry) {
+        return new InvalidationBus(invalidationTransport, objectMapper, cacheManager, songIdFilter,
+                songPageCache.getIfAvailable(), compressedResponseCache.getIfAvailable(), properties.getBatchDelay(),
+                properties.getMaxBatchSize(), properties.getTrackedVersions(), meterRegistry);
+    }
+}
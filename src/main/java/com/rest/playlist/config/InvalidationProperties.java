@@ -0,0 +1,58 @@
+package com.rest.playlist.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Cross-node invalidation of the caches (songs cache, SongIdFilter, compressed responses)
+ * when several instances of the application share the database.
+ */
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "playlist.invalidation")
+public class InvalidationProperties {
+
+    public enum Transport {
+        /**
+         * PostgreSQL LISTEN/NOTIFY on the application database.
+         */
+        POSTGRES,
+        /**
+         * In-process delivery, for a single node and the tests.
+         */
+        LOOPBACK
+    }
+
+    private boolean enabled = false;
+
+    private Transport transport = Transport.POSTGRES;
+
+    /**
+     * Notification channel (lower case identifier).
+     */
+    private String channel = "playlist_invalidations";
+
+    /**
+     * Invalidations committed during this delay are sent as one message.
+     */
+    private Duration batchDelay = Duration.ofMillis(10);
+
+    /**
+     * Invalidations per message, a NOTIFY payload is limited to 8000 bytes (about 90 bytes per invalidation).
+     */
+    private int maxBatchSize = 80;
+
+    /**
+     * Songs whose last version is kept to ignore the invalidations received out of order.
+     */
+    private long trackedVersions = 100_000;
+
+    /**
+     * Delay before listening again after the loss of the listening connection.
+     */
+    private Duration reconnectDelay = Duration.ofSeconds(5);
+}
@@ -0,0 +1,28 @@
+package com.rest.playlist.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.metrics.MeterRegistryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * MetricsConfig class enables the @Timed annotation on the service layer
+ * and tags every meter with the application name so that the Prometheus
+ * scrape endpoint (/actuator/prometheus) can be shared between services.
+ */
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    @Bean
+    public MeterRegistryCustomizer<MeterRegistry> commonTags(@Value("${spring.application.name:playlist}") String application) {
+        return registry -> registry.config().commonTags("application", application);
+    }
+}
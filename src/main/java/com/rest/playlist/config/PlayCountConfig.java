@@ -0,0 +1,51 @@
+package com.rest.playlist.config;
+
+import com.rest.playlist.service.plays.PlayCountWriteAheadLog;
+import com.rest.playlist.service.plays.PlayCounters;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.util.StringUtils;
+
+import java.nio.file.Paths;
+
+/**
+ * PlayCountConfig class provides the in-memory play counters of PlayCountServiceImpl
+ * and their write-ahead log when playlist.plays.wal.enabled=true.
+ */
+
+@Configuration
+@Profile("!reactive")
+@EnableConfigurationProperties({PlayCountProperties.class, TrendingProperties.class})
+public class PlayCountConfig {
+
+    @Bean
+    public PlayCounters playCounters(MeterRegistry meterRegistry) {
+        PlayCounters playCounters = new PlayCounters();
+        FunctionCounter.builder("playlist.plays.recorded", playCounters, PlayCounters::getRecorded)
+                .description("Plays recorded by this node")
+                .register(meterRegistry);
+        Gauge.builder("playlist.plays.pending", playCounters, PlayCounters::getPending)
+                .description("Plays counted in memory, not flushed to song_play_counts yet")
+                .register(meterRegistry);
+        Gauge.builder("playlist.plays.songs", playCounters, PlayCounters::getSongs)
+                .description("Songs with play counters in memory")
+                .register(meterRegistry);
+        return playCounters;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "playlist.plays.wal.enabled", havingValue = "true")
+    public PlayCountWriteAheadLog playCountWriteAheadLog(PlayCountProperties properties) {
+        PlayCountProperties.Wal wal = properties.getWal();
+        if (!StringUtils.hasText(wal.getDirectory())) {
+            throw new IllegalStateException("playlist.plays.wal.directory is required with playlist.plays.wal.enabled=true");
+        }
+        return new PlayCountWriteAheadLog(Paths.get(wal.getDirectory()), (int) wal.getBufferSize().toBytes());
+    }
+}
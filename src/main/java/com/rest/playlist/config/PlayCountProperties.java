@@ -0,0 +1,41 @@
+package com.rest.playlist.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Play counts (POST /api/songs/{id}/plays) : counted in memory, flushed every playlist.plays.flush-interval-ms.
+ */
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "playlist.plays")
+public class PlayCountProperties {
+
+    /**
+     * Upserts per JDBC batch of a flush.
+     */
+    private int batchSize = 500;
+
+    private Wal wal = new Wal();
+
+    @Getter
+    @Setter
+    public static class Wal {
+
+        /**
+         * Without the write-ahead log, a crash loses the plays of the last flush interval.
+         * With it, the plays of the last playlist.plays.wal.sync-interval-ms.
+         */
+        private boolean enabled;
+
+        /**
+         * Required with the write-ahead log, one directory per instance : open() locks it.
+         */
+        private String directory;
+
+        private DataSize bufferSize = DataSize.ofKilobytes(64);
+    }
+}
@@ -0,0 +1,60 @@
+package com.rest.playlist.config;
+
+import com.rest.playlist.jdbc.QueryDeadline;
+import com.rest.playlist.jdbc.QueryDeadlineInterceptor;
+import com.rest.playlist.jdbc.QueryDeadlineListener;
+import com.rest.playlist.jdbc.QueryTimeoutAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * QueryTimeoutConfig class opens the QueryDeadline scopes of the http requests and of the SongServiceImpl methods,
+ * the statements past their deadline are cancelled by the QueryDeadlineListener of the DataSource proxy.
+ */
+
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "playlist.sql.timeouts.enabled", matchIfMissing = true)
+@EnableConfigurationProperties(QueryTimeoutProperties.class)
+public class QueryTimeoutConfig {
+
+    @Bean
+    public QueryTimeoutAspect queryTimeoutAspect(QueryTimeoutProperties properties) {
+        return new QueryTimeoutAspect(properties.getMethods(), properties.getDefaultMethodTimeout());
+    }
+
+    @Bean
+    public WebMvcConfigurer queryDeadlineInterceptorConfigurer(QueryTimeoutProperties properties,
+                                                               QueryDeadlineListener queryDeadlineListener,
+                                                               MeterRegistry meterRegistry) {
+        FunctionCounter.builder("playlist.sql.queries.cancelled", queryDeadlineListener,
+                        QueryDeadlineListener::getRequestCancellations)
+                .description("Statements cancelled at their deadline")
+                .tag("deadline", QueryDeadline.REQUEST)
+                .register(meterRegistry);
+        FunctionCounter.builder("playlist.sql.queries.cancelled", queryDeadlineListener,
+                        QueryDeadlineListener::getMethodCancellations)
+                .description("Statements cancelled at their deadline")
+                .tag("deadline", QueryDeadline.METHOD)
+                .register(meterRegistry);
+        FunctionCounter.builder("playlist.sql.queries.rejected", queryDeadlineListener,
+                        QueryDeadlineListener::getRejections)
+                .description("Statements not sent, their deadline had passed")
+                .register(meterRegistry);
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new QueryDeadlineInterceptor(properties.getRequestTimeoutHeader(),
+                                properties.getRequestTimeout()))
+                        .addPathPatterns("/api/**");
+            }
+        };
+    }
+}
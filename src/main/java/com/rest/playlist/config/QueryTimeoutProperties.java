@@ -0,0 +1,41 @@
+package com.rest.playlist.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Deadlines of the SQL statements : per http request and per SongServiceImpl method.
+ */
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "playlist.sql.timeouts")
+public class QueryTimeoutProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Deadline of the statements of a request, and maximum of the deadline declared by the client.
+     */
+    private Duration requestTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Header of the client declaring how long it waits, in milliseconds.
+     */
+    private String requestTimeoutHeader = "X-Request-Timeout-Ms";
+
+    /**
+     * Timeout of the SongServiceImpl methods without their own, zero for none.
+     */
+    private Duration defaultMethodTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Timeout by method name of SongServiceImpl.
+     */
+    private Map<String, Duration> methods = new HashMap<>();
+}
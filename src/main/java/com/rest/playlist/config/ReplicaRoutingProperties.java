@@ -0,0 +1,44 @@
+package com.rest.playlist.config;
+
+import com.rest.playlist.jdbc.ReplicaRoutingDataSource;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas used by ReplicaRoutingDataSource, the primary is configured by spring.datasource.*
+ */
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "playlist.datasource.routing")
+public class ReplicaRoutingProperties {
+
+    private boolean enabled;
+
+    private ReplicaRoutingDataSource.Strategy strategy = ReplicaRoutingDataSource.Strategy.ROUND_ROBIN;
+
+    /**
+     * How long a client keeps reading from the primary after a write, should cover the replication lag.
+     */
+    private Duration stickiness = Duration.ofSeconds(5);
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Replica {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private int maximumPoolSize = 10;
+    }
+}
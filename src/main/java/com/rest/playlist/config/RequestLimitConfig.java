@@ -0,0 +1,64 @@
+package com.rest.playlist.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rest.playlist.web.exception.ErrorResponseWriter;
+import com.rest.playlist.web.limit.BulkheadFilter;
+import com.rest.playlist.web.limit.RateLimitFilter;
+import com.rest.playlist.web.limit.RequestLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RequestLimitConfig class registers the rate limits and the bulkheads of the api (playlist.limits.*).
+ * The rate limit runs first, before the response cache : a client over its rate costs nothing.
+ * The bulkhead runs after the response cache : a cached page takes no database work, it is not capped.
+ * With the write-behind of the songs, POST /api/songs is exempted from the bulkhead : the callers wait in the bounded
+ * write buffer to be committed together, a bulkhead of a few permits would answer 503 to the group instead.
+ */
+
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "playlist.limits.enabled", havingValue = "true")
+@EnableConfigurationProperties(RequestLimitProperties.class)
+public class RequestLimitConfig {
+
+    static final String CREATE_SONG = "POST /api/songs";
+
+    @Bean
+    public RequestLimiter requestLimiter(RequestLimitProperties properties, MeterRegistry meterRegistry,
+                                         @Value("${playlist.songs.write-behind.enabled:false}") boolean writeBehind) {
+        List<String> bulkheadExemptions = new ArrayList<>(properties.getBulkheadExemptions());
+        if (writeBehind) {
+            bulkheadExemptions.add(CREATE_SONG);
+        }
+        return new RequestLimiter(properties, bulkheadExemptions, meterRegistry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(RequestLimiter requestLimiter, ObjectMapper objectMapper) {
+        FilterRegistrationBean<RateLimitFilter> registration =
+                new FilterRegistrationBean<>(new RateLimitFilter(requestLimiter, new ErrorResponseWriter(objectMapper)));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<BulkheadFilter> bulkheadFilter(RequestLimiter requestLimiter, ObjectMapper objectMapper) {
+        FilterRegistrationBean<BulkheadFilter> registration =
+                new FilterRegistrationBean<>(new BulkheadFilter(requestLimiter, new ErrorResponseWriter(objectMapper)));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+}
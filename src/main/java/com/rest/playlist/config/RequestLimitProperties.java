@@ -0,0 +1,80 @@
+package com.rest.playlist.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rate limits and bulkheads of the api, by endpoint group (see RequestLimiter).
+ */
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "playlist.limits")
+public class RequestLimitProperties {
+
+    private boolean enabled;
+
+    /**
+     * Header identifying the client, only read on the requests of the trusted proxies.
+     */
+    private String clientHeader = "X-Client-Id";
+
+    /**
+     * Addresses or CIDR blocks of the proxies setting the client header, none by default :
+     * the clients are then their principal or their remote address.
+     */
+    private List<String> trustedProxies = new ArrayList<>();
+
+    /**
+     * The token bucket of a client is dropped after this idle time.
+     */
+    private Duration idleClientExpiry = Duration.ofMinutes(10);
+
+    /**
+     * Groups matched in order, a request belongs to the first group with a matching endpoint.
+     */
+    private List<Group> groups = new ArrayList<>();
+
+    /**
+     * Endpoints served without the bulkhead of their group, its rate limit still applies ("METHOD /ant/path").
+     * POST /api/songs is added with playlist.songs.write-behind.enabled=true : the write buffer bounds the creations.
+     */
+    private List<String> bulkheadExemptions = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Group {
+
+        private String name;
+
+        /**
+         * "METHOD /ant/path/**" or "/ant/path/**" for every method.
+         */
+        private List<String> endpoints = new ArrayList<>();
+
+        /**
+         * Sustained requests per second per client, 0 for no rate limit.
+         */
+        private double ratePerSecond;
+
+        /**
+         * Requests a client can send at once above the sustained rate.
+         */
+        private int burst = 1;
+
+        /**
+         * Requests of the group served at the same time by this node, 0 for no bulkhead.
+         */
+        private int maxConcurrent;
+
+        /**
+         * How long a request waits for the bulkhead before the 503, zero to fail fast.
+         */
+        private Duration maxWait = Duration.ZERO;
+    }
+}
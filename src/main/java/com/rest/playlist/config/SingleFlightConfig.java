@@ -0,0 +1,32 @@
+package com.rest.playlist.config;
+
+import com.rest.playlist.jdbc.ReplicaRoutingDataSource;
+import com.rest.playlist.service.singleflight.SingleFlightAspect;
+import com.rest.playlist.service.singleflight.SingleFlightGroup;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * SingleFlightConfig class enables the request coalescing of the @SingleFlight read methods of SongServiceImpl.
+ */
+
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "playlist.single-flight.enabled", matchIfMissing = true)
+public class SingleFlightConfig {
+
+    @Bean
+    public SingleFlightGroup singleFlightGroup(MeterRegistry meterRegistry) {
+        return new SingleFlightGroup(meterRegistry);
+    }
+
+    @Bean
+    public SingleFlightAspect singleFlightAspect(SingleFlightGroup singleFlightGroup,
+                                                 ObjectProvider<ReplicaRoutingDataSource> routingDataSource) {
+        return new SingleFlightAspect(singleFlightGroup, routingDataSource.getIfAvailable());
+    }
+}
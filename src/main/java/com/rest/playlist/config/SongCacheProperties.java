@@ -0,0 +1,66 @@
+package com.rest.playlist.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Page cache of the song listings (stale-while-revalidate) and warm-up of the caches at startup.
+ */
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "playlist.songs.cache")
+public class SongCacheProperties {
+
+    private Pages pages = new Pages();
+
+    private WarmUp warmUp = new WarmUp();
+
+    @Getter
+    @Setter
+    public static class Pages {
+
+        private boolean enabled = true;
+
+        private long maximumSize = 1000;
+
+        /**
+         * A page older than this is served stale while it is reloaded in the background.
+         */
+        private Duration refreshAfter = Duration.ofSeconds(30);
+
+        /**
+         * A page is no more served this long after its last successful load (database unavailable).
+         */
+        private Duration staleTimeToLive = Duration.ofMinutes(30);
+
+        private int refreshThreads = 2;
+    }
+
+    @Getter
+    @Setter
+    public static class WarmUp {
+
+        private boolean enabled = true;
+
+        /**
+         * Most played songs read into the "songs" cache.
+         */
+        private int songs = 1000;
+
+        /**
+         * Size of the first page of each category.
+         */
+        private int pageSize = 20;
+
+        private int parallelism = 4;
+
+        /**
+         * The application starts after this delay even if the warm-up is not completed.
+         */
+        private Duration timeout = Duration.ofSeconds(30);
+    }
+}
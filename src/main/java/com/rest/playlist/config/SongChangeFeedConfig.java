@@ -0,0 +1,50 @@
+package com.rest.playlist.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rest.playlist.repository.SongChangeRepository;
+import com.rest.playlist.service.changes.SongChangeFeed;
+import com.rest.playlist.service.changes.SongChangeOutbox;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * SongChangeFeedConfig class provides the song_changes outbox, written by every node,
+ * and the change feed of the SSE subscribers, disabled by playlist.songs.changes.enabled=false.
+ */
+
+@Configuration
+@Profile("!reactive")
+@EnableConfigurationProperties(SongChangeFeedProperties.class)
+public class SongChangeFeedConfig {
+
+    @Bean
+    public SongChangeOutbox songChangeOutbox(SongChangeRepository songChangeRepository, ObjectMapper objectMapper) {
+        return new SongChangeOutbox(songChangeRepository, objectMapper);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "playlist.songs.changes.enabled", havingValue = "true", matchIfMissing = true)
+    public SongChangeFeed songChangeFeed(SongChangeRepository songChangeRepository, SongChangeFeedProperties properties,
+                                         ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        SongChangeFeed songChangeFeed = new SongChangeFeed(songChangeRepository, properties, objectMapper);
+        Gauge.builder("playlist.songs.changes.subscribers", songChangeFeed, SongChangeFeed::getSubscribers)
+                .description("Subscribers of the song change stream on this node")
+                .register(meterRegistry);
+        Gauge.builder("playlist.songs.changes.last.id", songChangeFeed, SongChangeFeed::getLastId)
+                .description("Id of the last song change fed")
+                .register(meterRegistry);
+        FunctionCounter.builder("playlist.songs.changes.evictions", songChangeFeed, SongChangeFeed::getEvictions)
+                .description("Slow subscribers disconnected because their queue was full")
+                .register(meterRegistry);
+        FunctionCounter.builder("playlist.songs.changes.late", songChangeFeed, SongChangeFeed::getLateChanges)
+                .description("Changes committed after their id was skipped, the subscribers were reset")
+                .register(meterRegistry);
+        return songChangeFeed;
+    }
+}
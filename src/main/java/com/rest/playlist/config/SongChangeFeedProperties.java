@@ -0,0 +1,60 @@
+package com.rest.playlist.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Change feed of the songs (GET /api/songs/changes/stream), read from the song_changes outbox
+ * every playlist.songs.changes.poll-interval-ms.
+ */
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "playlist.songs.changes")
+public class SongChangeFeedProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Outbox rows read per poll.
+     */
+    private int pollBatchSize = 500;
+
+    /**
+     * Last changes kept in memory : a subscriber reconnecting with an older Last-Event-ID receives a reset event.
+     */
+    private int replaySize = 10_000;
+
+    /**
+     * Changes queued per subscriber, a subscriber which falls further behind is disconnected.
+     */
+    private int subscriberBufferSize = 1000;
+
+    /**
+     * How long a missing outbox id is waited for (a transaction committed after a later one) before it is skipped.
+     */
+    private Duration gapTimeout = Duration.ofSeconds(5);
+
+    /**
+     * How long a skipped id is checked again : when its transaction commits meanwhile, the subscribers are reset.
+     */
+    private Duration lateChangeTimeout = Duration.ofMinutes(1);
+
+    /**
+     * Outbox rows older than this are deleted.
+     */
+    private Duration retention = Duration.ofHours(24);
+
+    /**
+     * The stream is closed after this time, the client reconnects with its Last-Event-ID.
+     */
+    private Duration streamTimeout = Duration.ofMinutes(30);
+
+    /**
+     * Threads writing the changes to the subscribers.
+     */
+    private int senderThreads = 8;
+}
@@ -0,0 +1,53 @@
+package com.rest.playlist.config;
+
+import com.rest.playlist.service.SongIdFilter;
+import com.rest.playlist.service.SongIdFilterLoader;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * SongIdFilterConfig class provides the SongIdFilter of SongServiceImpl.
+ * It is loaded only when playlist.songs.id-filter.enabled=true, otherwise every id may exist.
+ */
+
+@Configuration
+@Profile("!reactive")
+public class SongIdFilterConfig {
+
+    @Bean
+    public SongIdFilter songIdFilter(MeterRegistry meterRegistry) {
+        SongIdFilter songIdFilter = new SongIdFilter();
+        Gauge.builder("playlist.songs.id.filter.ids", songIdFilter, SongIdFilter::getCardinality)
+                .description("Song ids held by the negative lookup filter")
+                .register(meterRegistry);
+        Gauge.builder("playlist.songs.id.filter.size", songIdFilter, SongIdFilter::getSizeInBytes)
+                .description("Memory footprint of the negative lookup filter")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        FunctionCounter.builder("playlist.songs.id.filter.rejections", songIdFilter, SongIdFilter::getRejections)
+                .description("Lookups of nonexistent songs answered without the database")
+                .register(meterRegistry);
+        return songIdFilter;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "playlist.songs.id-filter.enabled", havingValue = "true")
+    public SongIdFilterLoader songIdFilterLoader(SongIdFilter songIdFilter, DataSource dataSource,
+                                                 PlatformTransactionManager transactionManager) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(10_000);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return new SongIdFilterLoader(songIdFilter, jdbcTemplate, transactionTemplate);
+    }
+}
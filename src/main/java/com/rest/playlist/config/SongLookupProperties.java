@@ -0,0 +1,26 @@
+package com.rest.playlist.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Limits of the multi-get endpoints (GET /api/songs?ids=, POST /api/songs/lookup).
+ */
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "playlist.songs.lookup")
+public class SongLookupProperties {
+
+    /**
+     * Distinct ids accepted per request, larger requests are rejected with Http 400.
+     */
+    private int maxIds = 100;
+
+    /**
+     * Ids per WHERE id IN (...) query. Hibernate pads each list to the next power of two
+     * (hibernate.query.in_clause_parameter_padding) so the statements are reused from the statement cache.
+     */
+    private int chunkSize = 64;
+}
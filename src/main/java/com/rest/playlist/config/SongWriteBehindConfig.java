@@ -0,0 +1,49 @@
+package com.rest.playlist.config;
+
+import com.rest.playlist.service.ISongService;
+import com.rest.playlist.service.groupcommit.GroupCommitSongService;
+import com.rest.playlist.service.groupcommit.SongWriteBuffer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * SongWriteBehindConfig class enables the group commit of the created songs (playlist.songs.write-behind.enabled=true) :
+ * the GroupCommitSongService is the primary ISongService, SongServiceImpl creates the songs of each group.
+ * POST /api/songs is then exempted from the bulkhead of its limit group (RequestLimitConfig).
+ */
+
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "playlist.songs.write-behind.enabled", havingValue = "true")
+@EnableConfigurationProperties(SongWriteBehindProperties.class)
+public class SongWriteBehindConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public SongWriteBuffer songWriteBuffer(@Qualifier("songServiceImpl") ISongService songService,
+                                           PlatformTransactionManager transactionManager,
+                                           SongWriteBehindProperties properties, MeterRegistry meterRegistry) {
+        SongWriteBuffer songWriteBuffer = new SongWriteBuffer(songService, new TransactionTemplate(transactionManager),
+                properties.getCapacity(), properties.getBatchSize(), properties.getMaxDelay(), properties.getEnqueueTimeout(),
+                properties.getWriteTimeout(), meterRegistry);
+        Gauge.builder("playlist.songs.write.behind.buffered", songWriteBuffer, SongWriteBuffer::getBuffered)
+                .description("Songs waiting for the writer")
+                .register(meterRegistry);
+        return songWriteBuffer;
+    }
+
+    @Bean
+    @Primary
+    public ISongService groupCommitSongService(@Qualifier("songServiceImpl") ISongService songService,
+                                               SongWriteBuffer songWriteBuffer) {
+        return new GroupCommitSongService(songService, songWriteBuffer);
+    }
+}
@@ -0,0 +1,41 @@
+package com.rest.playlist.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Write-behind mode of the song creation : the songs created at the same time are committed together.
+ */
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "playlist.songs.write-behind")
+public class SongWriteBehindProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Songs waiting for the writer, a creation which cannot be buffered within enqueue-timeout is answered 503.
+     */
+    private int capacity = 10_000;
+
+    private Duration enqueueTimeout = Duration.ofMillis(100);
+
+    /**
+     * Songs per transaction.
+     */
+    private int batchSize = 100;
+
+    /**
+     * How long the writer waits for more songs before committing a group.
+     */
+    private Duration maxDelay = Duration.ofMillis(5);
+
+    /**
+     * How long a caller waits for the commit of its song before the 503.
+     */
+    private Duration writeTimeout = Duration.ofSeconds(30);
+}
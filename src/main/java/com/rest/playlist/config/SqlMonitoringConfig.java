@@ -0,0 +1,64 @@
+package com.rest.playlist.config;
+
+import com.rest.playlist.jdbc.QueryDeadlineListener;
+import com.rest.playlist.jdbc.SqlStatementInterceptor;
+import com.rest.playlist.jdbc.SqlStatementListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * SqlMonitoringConfig class wraps the application DataSource with datasource-proxy
+ * to count the SQL statements of each request, log the slow ones and cancel those past their deadline
+ * (see QueryTimeoutConfig).
+ * Only the DataSource used by JPA ("dataSource" bean) is wrapped, not the pools it may route to.
+ */
+
+@Configuration
+@Profile("!reactive")
+public class SqlMonitoringConfig {
+
+    @Bean
+    public static QueryDeadlineListener queryDeadlineListener() {
+        return new QueryDeadlineListener();
+    }
+
+    @Bean
+    public static BeanPostProcessor dataSourceProxyPostProcessor(
+            @Value("${playlist.sql.slow-query-threshold-ms:500}") long slowQueryThresholdMs,
+            QueryDeadlineListener queryDeadlineListener) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource && !(bean instanceof ProxyDataSource) && "dataSource".equals(beanName)) {
+                    return ProxyDataSourceBuilder.create(beanName, (DataSource) bean)
+                            .listener(queryDeadlineListener)
+                            .listener(new SqlStatementListener(slowQueryThresholdMs))
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public WebMvcConfigurer sqlStatementInterceptorConfigurer(MeterRegistry meterRegistry,
+                                                              @Value("${playlist.sql.statement-budget-per-request:10}") int statementBudget) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new SqlStatementInterceptor(meterRegistry, statementBudget))
+                        .addPathPatterns("/api/**");
+            }
+        };
+    }
+}
@@ -1,21 +1,34 @@
 package com.rest.playlist.config;
 
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfoHandlerMapping;
 import springfox.documentation.builders.ApiInfoBuilder;
 import springfox.documentation.builders.RequestHandlerSelectors;
 import springfox.documentation.service.ApiInfo;
 import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
+import springfox.documentation.spring.web.plugins.WebMvcRequestHandlerProvider;
 import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
+import java.lang.reflect.Field;
+import java.util.List;
 import java.util.function.Predicate;
 
 import static springfox.documentation.builders.PathSelectors.regex;
 
+/**
+ * SwaggerConfig class documents the handlers of the web.resource package with springfox.
+ * The fast-start profile skips this handler scanning at boot and serves instead the document
+ * exported at build time by ApiDocumentationExportTest (/api-docs/playlist-api.json).
+ */
 
 @Configuration
 @EnableSwagger2
+@Profile("!reactive & !fast-start")
 public class SwaggerConfig {
 
     @Bean
@@ -24,12 +37,38 @@ public class SwaggerConfig {
         return new Docket(DocumentationType.SWAGGER_2)
                 .apiInfo(apiInfo())
                 .select()
-                .apis(RequestHandlerSelectors.any())
+                .apis(RequestHandlerSelectors.basePackage("com.rest.playlist.web.resource"))
                 .paths(paths()::test)
                 .build();
 
     }
 
+    /**
+     * Actuator endpoints are mapped with a PathPatternParser since Spring Boot 2.6,
+     * springfox 2.9.2 only understands ant path matching and fails at startup on them :
+     * keep only the handler mappings without pattern parser.
+     */
+    @Bean
+    public static BeanPostProcessor springfoxHandlerProviderBeanPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof WebMvcRequestHandlerProvider) {
+                    List<RequestMappingInfoHandlerMapping> mappings = getHandlerMappings(bean);
+                    mappings.removeIf(mapping -> mapping.getPatternParser() != null);
+                }
+                return bean;
+            }
+
+            @SuppressWarnings("unchecked")
+            private List<RequestMappingInfoHandlerMapping> getHandlerMappings(Object bean) {
+                Field field = ReflectionUtils.findField(bean.getClass(), "handlerMappings");
+                ReflectionUtils.makeAccessible(field);
+                return (List<RequestMappingInfoHandlerMapping>) ReflectionUtils.getField(field, bean);
+            }
+        };
+    }
+
     private ApiInfo apiInfo() {
         return new ApiInfoBuilder()
                 .title("Swagger Playlists APIs")
@@ -0,0 +1,31 @@
+package com.rest.playlist.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Trending songs (GET /api/songs/trending) : ranked in memory from the flushed plays,
+ * saved to snapshotFile every playlist.songs.trending.persist-interval-ms and at shutdown.
+ */
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "playlist.songs.trending")
+public class TrendingProperties {
+
+    /**
+     * Songs ranked per window and category. The top of the ranking is exact as long as the songs below
+     * the capacity are played less than the songs of the top.
+     */
+    private int capacity = 1000;
+
+    private int defaultLimit = 10;
+
+    /**
+     * Songs accepted per request, larger limits are rejected with Http 400.
+     */
+    private int maxLimit = 100;
+
+    private String snapshotFile = "data/trending.bin";
+}
@@ -0,0 +1,7 @@
+package com.rest.playlist.enums;
+
+public enum SongChangeType {
+    CREATED,
+    UPDATED,
+    DELETED,
+}
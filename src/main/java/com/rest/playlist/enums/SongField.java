@@ -0,0 +1,42 @@
+package com.rest.playlist.enums;
+
+import com.rest.playlist.model.Song;
+
+import java.util.function.BiConsumer;
+
+/**
+ * SongField enum lists the Song attributes a client can select with a sparse fieldset (?fields=id,title).
+ */
+public enum SongField {
+    ID("id", (song, value) -> song.setId((Long) value)),
+    TITLE("title", (song, value) -> song.setTitle((String) value)),
+    DESCRIPTION("description", (song, value) -> song.setDescription((String) value)),
+    DURATION("duration", (song, value) -> song.setDuration((String) value)),
+    ARTIST_NAME("artistName", (song, value) -> song.setArtistName((String) value)),
+    CATEGORY("category", (song, value) -> song.setCategory((SongCategory) value));
+
+    private final String attribute;
+    private final BiConsumer<Song, Object> setter;
+
+    SongField(String attribute, BiConsumer<Song, Object> setter) {
+        this.attribute = attribute;
+        this.setter = setter;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public void set(Song song, Object value) {
+        setter.accept(song, value);
+    }
+
+    public static SongField fromAttribute(String attribute) {
+        for (SongField field : values()) {
+            if (field.attribute.equals(attribute)) {
+                return field;
+            }
+        }
+        return null;
+    }
+}
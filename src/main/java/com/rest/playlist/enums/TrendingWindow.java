@@ -0,0 +1,40 @@
+package com.rest.playlist.enums;
+
+import java.time.Duration;
+
+/**
+ * TrendingWindow enum lists the windows of GET /api/songs/trending?window=.
+ * A play weighs exp(-age / meanLife) in the score : a smooth window instead of buckets dropping at once.
+ * ALL does not decay, its score is the number of plays.
+ */
+public enum TrendingWindow {
+    HOUR("hour", Duration.ofHours(1)),
+    DAY("day", Duration.ofDays(1)),
+    WEEK("week", Duration.ofDays(7)),
+    ALL("all", Duration.ZERO);
+
+    private final String value;
+    private final Duration meanLife;
+
+    TrendingWindow(String value, Duration meanLife) {
+        this.value = value;
+        this.meanLife = meanLife;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public Duration getMeanLife() {
+        return meanLife;
+    }
+
+    public static TrendingWindow fromValue(String value) {
+        for (TrendingWindow window : values()) {
+            if (window.value.equalsIgnoreCase(value)) {
+                return window;
+            }
+        }
+        return null;
+    }
+}
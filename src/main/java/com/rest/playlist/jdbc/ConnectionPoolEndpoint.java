@@ -0,0 +1,26 @@
+package com.rest.playlist.jdbc;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.Map;
+
+/**
+ * ConnectionPoolEndpoint class exposes the state of the connection pool at /actuator/connectionpool :
+ * active, idle and waiting, the observed concurrency, the recommended pool size and the top connection holders.
+ */
+
+@Endpoint(id = "connectionpool")
+public class ConnectionPoolEndpoint {
+
+    private final ConnectionPoolMonitor monitor;
+
+    public ConnectionPoolEndpoint(ConnectionPoolMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    @ReadOperation
+    public Map<String, Object> connectionPool() {
+        return monitor.report();
+    }
+}
@@ -0,0 +1,33 @@
+package com.rest.playlist.jdbc;
+
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * ConnectionPoolInterceptor class accounts the pool connections taken while handling a request
+ * to its endpoint (method and uri pattern), see ConnectionPoolMonitor. The endpoint of an asynchronous request
+ * (SseEmitter) is cleared when the request leaves the thread.
+ */
+
+public class ConnectionPoolInterceptor implements AsyncHandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ConnectionPoolMonitor.enter(request.getMethod(),
+                String.valueOf(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE)));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ConnectionPoolMonitor.exit();
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ConnectionPoolMonitor.exit();
+    }
+}
@@ -0,0 +1,375 @@
+package com.rest.playlist.jdbc;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * ConnectionPoolMonitor class observes the HikariCP pool of the application through its metrics tracker,
+ * which HikariCP calls on the thread borrowing and on the thread returning a connection :
+ * - the acquire wait and the hold time of the connections are timed per endpoint
+ *   (playlist.db.connection.acquire and playlist.db.connection.hold, uri tag), the standard hikaricp.* metrics
+ *   are still recorded,
+ * - the threads holding connections are known : when threads wait for a connection, the oldest holders are logged
+ *   (at most once per saturationLogInterval),
+ * - the demand (active connections + waiting threads) sampled over the sizing window and the concurrency given by
+ *   Little's law (acquire rate x mean hold time) give the recommended pool size, applied when adaptive.
+ */
+
+public class ConnectionPoolMonitor implements MetricsTrackerFactory {
+
+    private static final Logger log = LoggerFactory.getLogger(ConnectionPoolMonitor.class);
+    private static final ThreadLocal<Endpoint> ENDPOINT = new ThreadLocal<>();
+    private static final Endpoint BACKGROUND = new Endpoint("none", "background");
+
+    private final Supplier<MeterRegistry> meterRegistry;
+    private final double headroom;
+    private final int minimumSize;
+    private final int maximumSize;
+    private final int topHolders;
+    private final Duration saturationLogInterval;
+    private final Map<Thread, Holder> holders = new ConcurrentHashMap<>();
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder holdNanos = new LongAdder();
+    private final AtomicLong lastSaturationLog = new AtomicLong();
+    private final LongAdder saturations = new LongAdder();
+    private final int[] demandSamples;
+    private final long[] acquisitionSamples;
+    private final long[] holdNanosSamples;
+    private final long[] intervalNanosSamples;
+    private int samples;
+    private int nextSample;
+    private long lastSampleAt;
+    private long lastAcquisitions;
+    private long lastHoldNanos;
+    private volatile String poolName;
+    private volatile PoolStats poolStats;
+    private volatile HikariDataSource dataSource;
+    private volatile int initialMinimumIdle;
+
+    public ConnectionPoolMonitor(Supplier<MeterRegistry> meterRegistry, Duration sizingWindow, Duration sampleInterval,
+                                 double headroom, int minimumSize, int maximumSize, int topHolders,
+                                 Duration saturationLogInterval) {
+        this.meterRegistry = meterRegistry;
+        this.headroom = headroom;
+        this.minimumSize = minimumSize;
+        this.maximumSize = maximumSize;
+        this.topHolders = topHolders;
+        this.saturationLogInterval = saturationLogInterval;
+        int window = (int) Math.max(1, sizingWindow.toMillis() / Math.max(1, sampleInterval.toMillis()));
+        this.demandSamples = new int[window];
+        this.acquisitionSamples = new long[window];
+        this.holdNanosSamples = new long[window];
+        this.intervalNanosSamples = new long[window];
+    }
+
+    /**
+     * Requests the connections of the current thread to be accounted to the endpoint, until exit().
+     */
+    public static void enter(String method, String uri) {
+        ENDPOINT.set(new Endpoint(method, uri));
+    }
+
+    public static void exit() {
+        ENDPOINT.remove();
+    }
+
+    /**
+     * Observes the pool, before it is started.
+     */
+    public void monitor(HikariDataSource dataSource) {
+        this.dataSource = dataSource;
+        dataSource.setMetricsTrackerFactory(this);
+    }
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.poolName = poolName;
+        this.poolStats = poolStats;
+        if (dataSource != null) {
+            HikariConfigMXBean config = dataSource.getHikariConfigMXBean();
+            initialMinimumIdle = config.getMinimumIdle() >= 0 ? config.getMinimumIdle() : config.getMaximumPoolSize();
+        }
+        MeterRegistry registry = meterRegistry.get();
+        IMetricsTracker hikariMetrics = registry != null
+                ? new MicrometerMetricsTrackerFactory(registry).create(poolName, poolStats)
+                : new IMetricsTracker() {
+                };
+        return new Tracker(hikariMetrics, registry);
+    }
+
+    /**
+     * Samples the pool : demand for the sizing, and report of the top holders when threads wait for a connection.
+     */
+    public void sample() {
+        PoolStats stats = poolStats;
+        if (stats == null) {
+            return;
+        }
+        int active = stats.getActiveConnections();
+        int pending = stats.getPendingThreads();
+        synchronized (this) {
+            long now = System.nanoTime();
+            long acquired = acquisitions.sum();
+            long held = holdNanos.sum();
+            if (lastSampleAt != 0) {
+                demandSamples[nextSample] = active + pending;
+                acquisitionSamples[nextSample] = acquired - lastAcquisitions;
+                holdNanosSamples[nextSample] = held - lastHoldNanos;
+                intervalNanosSamples[nextSample] = now - lastSampleAt;
+                nextSample = (nextSample + 1) % demandSamples.length;
+                samples = Math.min(samples + 1, demandSamples.length);
+            }
+            lastSampleAt = now;
+            lastAcquisitions = acquired;
+            lastHoldNanos = held;
+        }
+        if (pending > 0) {
+            saturated("{} threads waiting for a connection, {}/{} active", pending, active, stats.getMaxConnections());
+        }
+    }
+
+    /**
+     * Sets the maximum pool size to the recommended one : at once when it grows, one connection per call when it
+     * shrinks. The connections above the new size are closed once idle (idle-timeout) or at their max-lifetime.
+     */
+    public void adjust() {
+        HikariDataSource pool = dataSource;
+        if (pool == null || poolStats == null) {
+            return;
+        }
+        HikariConfigMXBean config = pool.getHikariConfigMXBean();
+        int current = config.getMaximumPoolSize();
+        int recommended = getRecommendedPoolSize();
+        int size = recommended > current ? recommended : Math.max(recommended, current - 1);
+        if (size != current) {
+            config.setMinimumIdle(Math.min(initialMinimumIdle, size));
+            config.setMaximumPoolSize(size);
+            log.info("Connection pool {} resized from {} to {} connections (recommended {})", poolName, current, size,
+                    recommended);
+        }
+    }
+
+    /**
+     * @return the 95th percentile of the demand, or the concurrency given by Little's law when higher, over the
+     * sizing window, plus the headroom, between minimumSize and maximumSize. The current size before any sample.
+     */
+    public int getRecommendedPoolSize() {
+        PoolStats stats = poolStats;
+        double concurrency;
+        synchronized (this) {
+            if (samples == 0) {
+                return stats != null ? stats.getMaxConnections() : minimumSize;
+            }
+            concurrency = Math.max(demandPercentile(0.95), littleConcurrency());
+        }
+        int size = (int) Math.ceil(concurrency * (1 + headroom));
+        return Math.max(minimumSize, Math.min(maximumSize, size));
+    }
+
+    /**
+     * @return the connection holders, longest held first
+     */
+    public List<Map<String, Object>> getTopHolders() {
+        long now = System.nanoTime();
+        return holders.entrySet().stream()
+                .sorted(Comparator.comparingLong(entry -> entry.getValue().since))
+                .limit(topHolders)
+                .map(entry -> {
+                    Map<String, Object> holder = new LinkedHashMap<>();
+                    holder.put("endpoint", entry.getValue().endpoint.toString());
+                    holder.put("thread", entry.getKey().getName());
+                    holder.put("connections", entry.getValue().connections);
+                    holder.put("heldMs", TimeUnit.NANOSECONDS.toMillis(now - entry.getValue().since));
+                    return holder;
+                })
+                .collect(Collectors.toList());
+    }
+
+    public Map<String, Object> report() {
+        PoolStats stats = poolStats;
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("pool", poolName);
+        if (stats != null) {
+            report.put("active", stats.getActiveConnections());
+            report.put("idle", stats.getIdleConnections());
+            report.put("pending", stats.getPendingThreads());
+            report.put("total", stats.getTotalConnections());
+            report.put("maximumPoolSize", stats.getMaxConnections());
+        }
+        synchronized (this) {
+            long acquired = Arrays.stream(acquisitionSamples).sum();
+            double seconds = Arrays.stream(intervalNanosSamples).sum() / 1e9;
+            report.put("acquiresPerSecond", seconds > 0 ? acquired / seconds : 0);
+            report.put("meanHoldMs", acquired > 0 ? Arrays.stream(holdNanosSamples).sum() / 1e6 / acquired : 0);
+            report.put("littleConcurrency", samples > 0 ? littleConcurrency() : 0);
+            report.put("demandP95", samples > 0 ? demandPercentile(0.95) : 0);
+        }
+        report.put("recommendedPoolSize", getRecommendedPoolSize());
+        report.put("saturations", saturations.sum());
+        report.put("topHolders", getTopHolders());
+        return report;
+    }
+
+    public long getSaturations() {
+        return saturations.sum();
+    }
+
+    private double demandPercentile(double percentile) {
+        int[] sorted = Arrays.copyOf(demandSamples, samples);
+        Arrays.sort(sorted);
+        return sorted[Math.max(0, (int) Math.ceil(percentile * samples) - 1)];
+    }
+
+    /**
+     * Mean number of connections in use : total hold time over elapsed time.
+     */
+    private double littleConcurrency() {
+        long elapsed = Arrays.stream(intervalNanosSamples).sum();
+        return elapsed > 0 ? (double) Arrays.stream(holdNanosSamples).sum() / elapsed : 0;
+    }
+
+    private void saturated(String format, Object... arguments) {
+        saturations.increment();
+        long now = System.nanoTime();
+        long last = lastSaturationLog.get();
+        if (last != 0 && now - last < saturationLogInterval.toNanos() || !lastSaturationLog.compareAndSet(last, now)) {
+            return;
+        }
+        List<String> top = new ArrayList<>();
+        for (Map<String, Object> holder : getTopHolders()) {
+            top.add(holder.get("endpoint") + " on " + holder.get("thread") + " for " + holder.get("heldMs") + " ms ("
+                    + holder.get("connections") + " connections)");
+        }
+        log.warn("Connection pool {} saturated, " + format + ", top holders: {}", concat(poolName, arguments, top));
+    }
+
+    private static Object[] concat(String poolName, Object[] arguments, List<String> top) {
+        Object[] all = new Object[arguments.length + 2];
+        all[0] = poolName;
+        System.arraycopy(arguments, 0, all, 1, arguments.length);
+        all[all.length - 1] = top;
+        return all;
+    }
+
+    private final class Tracker implements IMetricsTracker {
+
+        private final IMetricsTracker hikariMetrics;
+        private final MeterRegistry registry;
+
+        private Tracker(IMetricsTracker hikariMetrics, MeterRegistry registry) {
+            this.hikariMetrics = hikariMetrics;
+            this.registry = registry;
+        }
+
+        @Override
+        public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+            hikariMetrics.recordConnectionCreatedMillis(connectionCreatedMillis);
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            hikariMetrics.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+            Endpoint endpoint = currentEndpoint();
+            acquisitions.increment();
+            holders.compute(Thread.currentThread(), (thread, holder) -> {
+                if (holder == null) {
+                    return new Holder(endpoint);
+                }
+                holder.connections++;
+                return holder;
+            });
+            if (registry != null) {
+                timer("playlist.db.connection.acquire", "Wait for a pool connection, per endpoint", endpoint)
+                        .record(elapsedAcquiredNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            hikariMetrics.recordConnectionUsageMillis(elapsedBorrowedMillis);
+            holdNanos.add(TimeUnit.MILLISECONDS.toNanos(elapsedBorrowedMillis));
+            Holder released = holders.get(Thread.currentThread());
+            holders.computeIfPresent(Thread.currentThread(), (thread, holder) -> --holder.connections > 0 ? holder : null);
+            if (registry != null) {
+                Endpoint endpoint = released != null ? released.endpoint : currentEndpoint();
+                timer("playlist.db.connection.hold", "Time a pool connection is held, per endpoint", endpoint)
+                        .record(elapsedBorrowedMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            hikariMetrics.recordConnectionTimeout();
+            PoolStats stats = poolStats;
+            saturated("connection not acquired within connection-timeout, {}/{} active",
+                    stats.getActiveConnections(), stats.getMaxConnections());
+        }
+
+        @Override
+        public void close() {
+            hikariMetrics.close();
+        }
+
+        private Timer timer(String name, String description, Endpoint endpoint) {
+            return Timer.builder(name)
+                    .description(description)
+                    .tag("method", endpoint.method)
+                    .tag("uri", endpoint.uri)
+                    .register(registry);
+        }
+
+        private Endpoint currentEndpoint() {
+            Endpoint endpoint = ENDPOINT.get();
+            return endpoint != null ? endpoint : BACKGROUND;
+        }
+    }
+
+    private static final class Holder {
+
+        private final Endpoint endpoint;
+        private final long since = System.nanoTime();
+        private volatile int connections = 1;
+
+        private Holder(Endpoint endpoint) {
+            this.endpoint = endpoint;
+        }
+    }
+
+    private static final class Endpoint {
+
+        private final String method;
+        private final String uri;
+
+        private Endpoint(String method, String uri) {
+            this.method = method;
+            this.uri = uri;
+        }
+
+        @Override
+        public String toString() {
+            return this == BACKGROUND ? uri : method + " " + uri;
+        }
+    }
+}
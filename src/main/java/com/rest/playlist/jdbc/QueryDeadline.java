@@ -0,0 +1,77 @@
+package com.rest.playlist.jdbc;
+
+import java.time.Duration;
+
+/**
+ * QueryDeadline class holds the deadline of the SQL statements executed by the current thread.
+ * A scope is opened per http request (see QueryDeadlineInterceptor) and per service method (see QueryTimeoutAspect),
+ * scopes can be nested : the earliest deadline applies. QueryDeadlineListener cancels the statements still running
+ * at the deadline. A call shared by several requests (SingleFlightAspect) suspends the scope of the request running it.
+ */
+
+public final class QueryDeadline {
+
+    public static final String REQUEST = "request";
+    public static final String METHOD = "method";
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private QueryDeadline() {
+    }
+
+    /**
+     * @param source REQUEST or METHOD, tags the cancellations caused by this deadline
+     */
+    public static Scope open(Duration timeout, String source) {
+        Scope parent = CURRENT.get();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Scope scope = parent != null && parent.deadline - deadline <= 0
+                ? new Scope(parent, parent.deadline, parent.source)
+                : new Scope(parent, deadline, source);
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * Runs the thread without deadline until the returned scope is closed, which restores the current one.
+     */
+    public static Scope suspend() {
+        Scope suspended = CURRENT.get();
+        CURRENT.remove();
+        return new Scope(suspended, 0, null);
+    }
+
+    public static Scope current() {
+        return CURRENT.get();
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Scope parent;
+        private final long deadline;
+        private final String source;
+
+        private Scope(Scope parent, long deadline, String source) {
+            this.parent = parent;
+            this.deadline = deadline;
+            this.source = source;
+        }
+
+        public long remainingNanos() {
+            return deadline - System.nanoTime();
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        @Override
+        public void close() {
+            if (parent != null) {
+                CURRENT.set(parent);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.rest.playlist.jdbc;
+
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+
+/**
+ * QueryDeadlineInterceptor class opens a QueryDeadline scope for each http request : the statements still running
+ * when the client gives up are cancelled. The client declares how long it waits in the timeout header
+ * (milliseconds), capped by the request timeout, which applies when the header is missing.
+ * The scope is closed on the thread which opened it : at the end of the request, or when an asynchronous request
+ * (SseEmitter) leaves the thread, its async dispatch opening a scope of its own.
+ */
+
+public class QueryDeadlineInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String SCOPE_ATTRIBUTE = QueryDeadlineInterceptor.class.getName() + ".scope";
+
+    private final String timeoutHeader;
+    private final Duration requestTimeout;
+
+    public QueryDeadlineInterceptor(String timeoutHeader, Duration requestTimeout) {
+        this.timeoutHeader = timeoutHeader;
+        this.requestTimeout = requestTimeout;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        request.setAttribute(SCOPE_ATTRIBUTE, QueryDeadline.open(timeout(request), QueryDeadline.REQUEST));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        close(request);
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        close(request);
+    }
+
+    private void close(HttpServletRequest request) {
+        QueryDeadline.Scope scope = (QueryDeadline.Scope) request.getAttribute(SCOPE_ATTRIBUTE);
+        if (scope != null) {
+            request.removeAttribute(SCOPE_ATTRIBUTE);
+            scope.close();
+        }
+    }
+
+    private Duration timeout(HttpServletRequest request) {
+        String header = request.getHeader(timeoutHeader);
+        if (header != null) {
+            try {
+                long millis = Long.parseLong(header.trim());
+                if (millis > 0 && millis < requestTimeout.toMillis()) {
+                    return Duration.ofMillis(millis);
+                }
+            } catch (NumberFormatException e) {
+                // an invalid header is ignored
+            }
+        }
+        return requestTimeout;
+    }
+}
@@ -0,0 +1,121 @@
+package com.rest.playlist.jdbc;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * QueryDeadlineListener class is notified by datasource-proxy around each statement execution :
+ * a statement executed within a QueryDeadline scope is cancelled (Statement.cancel, a cancel request
+ * on PostgreSQL) if it still runs at the deadline, the connection is released to the pool at once.
+ * A statement whose deadline already passed is not sent, a QueryTimeoutException is thrown.
+ */
+
+public class QueryDeadlineListener implements QueryExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryDeadlineListener.class);
+
+    private final ScheduledExecutorService canceller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "query-canceller");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ThreadLocal<Cancellation> running = new ThreadLocal<>();
+    private final LongAdder requestCancellations = new LongAdder();
+    private final LongAdder methodCancellations = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        QueryDeadline.Scope scope = QueryDeadline.current();
+        if (scope == null) {
+            return;
+        }
+        long remainingNanos = scope.remainingNanos();
+        if (remainingNanos <= 0) {
+            rejections.increment();
+            throw new QueryTimeoutException("Query deadline of the " + scope.getSource() + " passed, statement not sent");
+        }
+        Cancellation cancellation = new Cancellation(execInfo.getStatement(), scope.getSource());
+        cancellation.future = canceller.schedule(cancellation::cancel, remainingNanos, TimeUnit.NANOSECONDS);
+        running.set(cancellation);
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Cancellation cancellation = running.get();
+        if (cancellation == null) {
+            return;
+        }
+        running.remove();
+        if (cancellation.finish() && execInfo.getThrowable() != null) {
+            if (QueryDeadline.REQUEST.equals(cancellation.source)) {
+                requestCancellations.increment();
+            } else {
+                methodCancellations.increment();
+            }
+        }
+    }
+
+    public long getRequestCancellations() {
+        return requestCancellations.sum();
+    }
+
+    public long getMethodCancellations() {
+        return methodCancellations.sum();
+    }
+
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    private static final class Cancellation {
+
+        private final Statement statement;
+        private final String source;
+        private ScheduledFuture<?> future;
+        private boolean finished;
+        private boolean cancelled;
+
+        private Cancellation(Statement statement, String source) {
+            this.statement = statement;
+            this.source = source;
+        }
+
+        /**
+         * Runs on the canceller thread, never after finish : the next statement of the connection is not cancelled.
+         */
+        private synchronized void cancel() {
+            if (finished) {
+                return;
+            }
+            cancelled = true;
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                log.warn("Statement past its {} deadline not cancelled: {}", source, e.toString());
+            }
+        }
+
+        /**
+         * @return true when the statement was cancelled
+         */
+        private synchronized boolean finish() {
+            finished = true;
+            future.cancel(false);
+            return cancelled;
+        }
+    }
+}
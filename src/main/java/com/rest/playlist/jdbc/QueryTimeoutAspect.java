@@ -0,0 +1,42 @@
+package com.rest.playlist.jdbc;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * QueryTimeoutAspect class opens a QueryDeadline scope around the methods of SongServiceImpl, with the timeout
+ * configured for the method (playlist.sql.timeouts.methods.getSongsByCategory=2s) or the default one.
+ * It runs inside the cache and single-flight advices and outside the transaction advice : the timeout covers every
+ * statement of the method. A call shared by collapsed callers runs under this method timeout only, not under the
+ * request deadline of the caller which happens to run it ; the other callers wait until their own deadline.
+ */
+
+@Aspect
+@Order(Ordered.LOWEST_PRECEDENCE - 5)
+public class QueryTimeoutAspect {
+
+    private final Map<String, Duration> methodTimeouts;
+    private final Duration defaultTimeout;
+
+    public QueryTimeoutAspect(Map<String, Duration> methodTimeouts, Duration defaultTimeout) {
+        this.methodTimeouts = methodTimeouts;
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    @Around("execution(public * com.rest.playlist.service.SongServiceImpl.*(..))")
+    public Object withDeadline(ProceedingJoinPoint joinPoint) throws Throwable {
+        Duration timeout = methodTimeouts.getOrDefault(joinPoint.getSignature().getName(), defaultTimeout);
+        if (timeout == null || timeout.isZero() || timeout.isNegative()) {
+            return joinPoint.proceed();
+        }
+        try (QueryDeadline.Scope ignored = QueryDeadline.open(timeout, QueryDeadline.METHOD)) {
+            return joinPoint.proceed();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.rest.playlist.jdbc;
+
+/**
+ * ReadYourWritesContext class holds the key of the client served by the current thread
+ * (set by ReadYourWritesFilter), so that ReplicaRoutingDataSource can keep routing
+ * its reads to the primary for a while after it wrote.
+ */
+
+public final class ReadYourWritesContext {
+
+    private static final ThreadLocal<String> CLIENT = new ThreadLocal<>();
+
+    private ReadYourWritesContext() {
+    }
+
+    public static void setClient(String clientKey) {
+        CLIENT.set(clientKey);
+    }
+
+    public static String getClient() {
+        return CLIENT.get();
+    }
+
+    public static void clear() {
+        CLIENT.remove();
+    }
+}
@@ -0,0 +1,171 @@
+package com.rest.playlist.jdbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ReplicaRoutingDataSource class sends the connections of read-only transactions to a healthy replica
+ * and everything else to the primary :
+ * - replicas are picked round-robin or by least active connections,
+ * - replicas failing the periodic health check are skipped, the primary is used when none is left,
+ * - a client that just wrote keeps reading from the primary during the stickiness window (read-your-writes).
+ * It must be wrapped in a LazyConnectionDataSourceProxy : the read-only flag of a transaction
+ * is only known after the transaction manager asked for its connection.
+ */
+
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    public enum Strategy {
+        ROUND_ROBIN,
+        LEAST_LOADED
+    }
+
+    static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicas = new LinkedHashMap<>();
+    private final Set<String> healthyReplicas = ConcurrentHashMap.newKeySet();
+    private final Map<String, Long> stickyClients = new ConcurrentHashMap<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Strategy strategy;
+    private final long stickinessNanos;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<? extends DataSource> replicas, Strategy strategy, Duration stickiness) {
+        this.primary = primary;
+        this.strategy = strategy;
+        this.stickinessNanos = stickiness.toNanos();
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica-" + i;
+            this.replicas.put(key, replicas.get(i));
+            targets.put(key, replicas.get(i));
+        }
+        healthyReplicas.addAll(this.replicas.keySet());
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String client = ReadYourWritesContext.getClient();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (client != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                stickyClients.put(client, System.nanoTime() + stickinessNanos);
+            }
+            return PRIMARY;
+        }
+        if (client != null && isSticky(client)) {
+            return PRIMARY;
+        }
+        String replica = selectReplica();
+        return replica != null ? replica : PRIMARY;
+    }
+
+    /**
+     * @return true when the reads of the current client are served by the primary (it wrote recently)
+     */
+    public boolean readsFromPrimary() {
+        String client = ReadYourWritesContext.getClient();
+        return client != null && isSticky(client);
+    }
+
+    private boolean isSticky(String client) {
+        Long until = stickyClients.get(client);
+        if (until == null) {
+            return false;
+        }
+        if (until - System.nanoTime() > 0) {
+            return true;
+        }
+        stickyClients.remove(client, until);
+        return false;
+    }
+
+    private String selectReplica() {
+        List<String> candidates = new ArrayList<>(replicas.size());
+        for (String key : replicas.keySet()) {
+            if (healthyReplicas.contains(key)) {
+                candidates.add(key);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        if (strategy == Strategy.LEAST_LOADED) {
+            return candidates.stream()
+                    .min(Comparator.comparingInt(key -> activeConnections(replicas.get(key))))
+                    .orElse(null);
+        }
+        return candidates.get(Math.floorMod(nextReplica.getAndIncrement(), candidates.size()));
+    }
+
+    private static int activeConnections(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource && ((HikariDataSource) dataSource).getHikariPoolMXBean() != null) {
+            return ((HikariDataSource) dataSource).getHikariPoolMXBean().getActiveConnections();
+        }
+        return 0;
+    }
+
+    /**
+     * Validates a connection of every replica, and forgets the expired read-your-writes windows.
+     */
+    public void checkReplicas() {
+        replicas.forEach((key, dataSource) -> {
+            boolean healthy;
+            try (Connection connection = dataSource.getConnection()) {
+                healthy = connection.isValid(2);
+            } catch (Exception e) {
+                healthy = false;
+            }
+            if (healthy && healthyReplicas.add(key)) {
+                log.info("Replica {} is back, read-only transactions are routed to it again", key);
+            } else if (!healthy && healthyReplicas.remove(key)) {
+                log.warn("Replica {} failed its health check, read-only transactions are routed elsewhere", key);
+            }
+        });
+
+        long now = System.nanoTime();
+        stickyClients.values().removeIf(until -> until - now <= 0);
+    }
+
+    public Set<String> getHealthyReplicas() {
+        return healthyReplicas;
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        for (DataSource dataSource : replicas.values()) {
+            close(dataSource);
+        }
+        close(primary);
+    }
+
+    private static void close(DataSource dataSource) throws IOException {
+        if (dataSource instanceof Closeable) {
+            ((Closeable) dataSource).close();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.rest.playlist.jdbc;
+
+import net.ttddyy.dsproxy.QueryType;
+
+/**
+ * SqlStatementCounter class counts the SQL statements executed by the current thread.
+ * A counting scope is opened per http request (see SqlStatementInterceptor) or by tests,
+ * scopes can be nested : a statement is counted in every open scope of the thread.
+ */
+
+public final class SqlStatementCounter {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private SqlStatementCounter() {
+    }
+
+    public static Scope open() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    public static Scope current() {
+        return CURRENT.get();
+    }
+
+    static void record(QueryType type) {
+        for (Scope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.increment(type);
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Scope parent;
+        private int select;
+        private int insert;
+        private int update;
+        private int delete;
+        private int other;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        private void increment(QueryType type) {
+            switch (type) {
+                case SELECT:
+                    select++;
+                    break;
+                case INSERT:
+                    insert++;
+                    break;
+                case UPDATE:
+                    update++;
+                    break;
+                case DELETE:
+                    delete++;
+                    break;
+                default:
+                    other++;
+            }
+        }
+
+        public int getSelect() {
+            return select;
+        }
+
+        public int getInsert() {
+            return insert;
+        }
+
+        public int getUpdate() {
+            return update;
+        }
+
+        public int getDelete() {
+            return delete;
+        }
+
+        public int getOther() {
+            return other;
+        }
+
+        public int getTotal() {
+            return select + insert + update + delete + other;
+        }
+
+        @Override
+        public void close() {
+            if (CURRENT.get() == this) {
+                if (parent == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(parent);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "total=" + getTotal() + " (select=" + select + ", insert=" + insert + ", update=" + update
+                    + ", delete=" + delete + ", other=" + other + ")";
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.rest.playlist.jdbc;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * SqlStatementListener class is notified by datasource-proxy after each statement execution :
+ * it feeds the per-request SqlStatementCounter and logs, with their bind parameters,
+ * the statements running longer than the configured threshold.
+ */
+
+public class SqlStatementListener implements QueryExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementListener.class);
+
+    private final long slowQueryThresholdMs;
+
+    public SqlStatementListener(long slowQueryThresholdMs) {
+        this.slowQueryThresholdMs = slowQueryThresholdMs;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        // nothing to do before execution
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        for (QueryInfo queryInfo : queryInfoList) {
+            SqlStatementCounter.record(QueryUtils.getQueryType(queryInfo.getQuery()));
+        }
+
+        if (execInfo.getElapsedTime() >= slowQueryThresholdMs) {
+            for (QueryInfo queryInfo : queryInfoList) {
+                log.warn("Slow query ({} ms, batch={}): {} params={}", execInfo.getElapsedTime(), execInfo.isBatch(),
+                        queryInfo.getQuery(), formatParameters(queryInfo));
+            }
+        }
+    }
+
+    private static String formatParameters(QueryInfo queryInfo) {
+        return queryInfo.getParametersList().stream()
+                .map(SqlStatementListener::formatParameterSet)
+                .collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private static String formatParameterSet(List<ParameterSetOperation> parameters) {
+        return parameters.stream()
+                .map(operation -> {
+                    Object[] args = operation.getArgs();
+                    return args.length > 1 ? String.valueOf(args[1]) : "?";
+                })
+                .collect(Collectors.joining(",", "(", ")"));
+    }
+}
@@ -0,0 +1,46 @@
+package com.rest.playlist.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * Response of a request sent with an Idempotency-Key header, replayed to the retries of the request until it expires.
+ * The row is inserted before the request is executed (status 0) : the primary key elects the node executing it.
+ */
+
+@Entity
+@Getter
+@Setter
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at"))
+public class IdempotencyRecord {
+
+    public static final int IN_PROGRESS = 0;
+
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String idempotencyKey;
+
+    /**
+     * SHA-256 of the method, path and body : the key of a different request is rejected.
+     */
+    @Column(name = "request_hash", nullable = false, length = 32)
+    private byte[] requestHash;
+
+    @Column(name = "status", nullable = false)
+    private int status;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Column(name = "response_body", length = 65536)
+    private byte[] responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
@@ -0,0 +1,34 @@
+package com.rest.playlist.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Size;
+
+/**
+ * The tracks are not mapped as a collection : a playlist of 10k tracks is never loaded at once,
+ * its tracks are read by pages (PlaylistTrackRepository.findTracks).
+ */
+
+@Entity
+@Getter
+@Setter
+@Table(name = "playlists")
+public class Playlist extends AbstractAuditModel {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "PLAYLIST_SEQ")
+    @SequenceGenerator(name = "PLAYLIST_SEQ", sequenceName = "playlist_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(name = "name")
+    @NotBlank(message = "nom ne doit pas être null ou vide")
+    @Size(min = 3, max = 50, message = "nom doit être compris entre 3 et 50 caractères")
+    private String name;
+
+    @Column(name = "description")
+    @Size(max = 255, message = "description ne doit pas dépasser 255 caractères")
+    private String description;
+}
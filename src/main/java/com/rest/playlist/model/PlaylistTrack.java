@@ -0,0 +1,46 @@
+package com.rest.playlist.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * A song in a playlist, ordered by position. The positions are sparse (PlaylistServiceImpl.POSITION_GAP apart) :
+ * a track is inserted or moved between two others by giving it the middle position, the other rows are not updated.
+ * Deleting a playlist or a song deletes its tracks (on delete cascade).
+ */
+
+@Entity
+@Getter
+@Setter
+@Table(name = "playlist_tracks",
+        indexes = @Index(name = "playlist_tracks_position_idx", columnList = "playlist_id, position_key"))
+public class PlaylistTrack {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "PLAYLIST_TRACK_SEQ")
+    @SequenceGenerator(name = "PLAYLIST_TRACK_SEQ", sequenceName = "playlist_track_seq", allocationSize = 50)
+    private Long id;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "playlist_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Playlist playlist;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "song_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Song song;
+
+    @Column(name = "position_key", nullable = false)
+    private long position;
+
+    @Column(name = "added_at", nullable = false, updatable = false)
+    private Instant addedAt = Instant.now();
+}
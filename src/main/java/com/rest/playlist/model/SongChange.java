@@ -0,0 +1,40 @@
+package com.rest.playlist.model;
+
+import com.rest.playlist.enums.SongChangeType;
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * Outbox of the song changes : a row is written in the transaction of the change, the id orders the change feed.
+ */
+
+@Entity
+@Getter
+@Setter
+@Table(name = "song_changes")
+public class SongChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "SONG_CHANGE_SEQ")
+    @SequenceGenerator(name = "SONG_CHANGE_SEQ", sequenceName = "song_change_seq", allocationSize = 1)
+    private Long id;
+
+    @Column(name = "change_type", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private SongChangeType type;
+
+    @Column(name = "song_id", nullable = false)
+    private Long songId;
+
+    /**
+     * The song in JSON, null for DELETED.
+     */
+    @Column(name = "payload", length = 2000)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt = Instant.now();
+}
@@ -0,0 +1,32 @@
+package com.rest.playlist.model;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.Instant;
+
+/**
+ * Plays of a song, one row per played song. The rows are written by batched upserts only
+ * (SongPlayCountRepositoryCustomImpl), never by a per-play update of the songs table.
+ */
+
+@Entity
+@Getter
+@Setter
+@Table(name = "song_play_counts")
+public class SongPlayCount {
+
+    @Id
+    @Column(name = "song_id")
+    private Long songId;
+
+    @Column(name = "play_count", nullable = false)
+    private long playCount;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+}
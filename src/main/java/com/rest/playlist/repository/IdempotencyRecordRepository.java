@@ -0,0 +1,54 @@
+package com.rest.playlist.repository;
+
+import com.rest.playlist.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Fails with a DataIntegrityViolationException when the key is taken.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "insert into idempotency_keys (idempotency_key, request_hash, status, created_at, expires_at) "
+            + "values (:key, :requestHash, 0, :createdAt, :expiresAt)", nativeQuery = true)
+    void insertInProgress(@Param("key") String key, @Param("requestHash") byte[] requestHash,
+                          @Param("createdAt") Instant createdAt, @Param("expiresAt") Instant expiresAt);
+
+    /**
+     * Takes over an expired key, or a request left in progress by a node which stopped before storing its response.
+     */
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyRecord r set r.requestHash = :requestHash, r.status = 0, r.contentType = null, "
+            + "r.responseBody = null, r.createdAt = :createdAt, r.expiresAt = :expiresAt where r.idempotencyKey = :key "
+            + "and (r.expiresAt < :createdAt or (r.status = 0 and r.createdAt < :abandonedBefore))")
+    int takeOver(@Param("key") String key, @Param("requestHash") byte[] requestHash,
+                 @Param("createdAt") Instant createdAt, @Param("expiresAt") Instant expiresAt,
+                 @Param("abandonedBefore") Instant abandonedBefore);
+
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyRecord r set r.status = :status, r.contentType = :contentType, r.responseBody = :body "
+            + "where r.idempotencyKey = :key")
+    int complete(@Param("key") String key, @Param("status") int status, @Param("contentType") String contentType,
+                 @Param("body") byte[] body);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.idempotencyKey = :key and r.status = 0")
+    int deleteInProgress(@Param("key") String key);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
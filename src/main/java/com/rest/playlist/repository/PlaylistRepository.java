@@ -0,0 +1,23 @@
+package com.rest.playlist.repository;
+
+import com.rest.playlist.model.Playlist;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.util.Optional;
+
+@Repository
+public interface PlaylistRepository extends JpaRepository<Playlist, Long> {
+
+    /**
+     * Locks the playlist row : the writes of the tracks of a playlist are serialized, two tracks never get
+     * the same position.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Playlist p where p.id = :id")
+    Optional<Playlist> findByIdForUpdate(@Param("id") Long id);
+}
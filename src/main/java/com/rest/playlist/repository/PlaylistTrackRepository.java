@@ -0,0 +1,50 @@
+package com.rest.playlist.repository;
+
+import com.rest.playlist.model.PlaylistTrack;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PlaylistTrackRepository extends JpaRepository<PlaylistTrack, Long>, PlaylistTrackRepositoryCustom {
+
+    /**
+     * One query per page : the songs are fetched with their tracks (no N+1), by the (playlist_id, position_key) index.
+     */
+    @Query(value = "select t from PlaylistTrack t join fetch t.song where t.playlist.id = :playlistId order by t.position, t.id",
+            countQuery = "select count(t) from PlaylistTrack t where t.playlist.id = :playlistId")
+    Page<PlaylistTrack> findTracks(@Param("playlistId") Long playlistId, Pageable pageable);
+
+    @Query("select t from PlaylistTrack t join fetch t.song where t.id = :id and t.playlist.id = :playlistId")
+    Optional<PlaylistTrack> findTrack(@Param("playlistId") Long playlistId, @Param("id") Long id);
+
+    @Query("select t.position from PlaylistTrack t where t.id = :id and t.playlist.id = :playlistId")
+    Optional<Long> findPosition(@Param("playlistId") Long playlistId, @Param("id") Long id);
+
+    @Query("select max(t.position) from PlaylistTrack t where t.playlist.id = :playlistId")
+    Long findLastPosition(@Param("playlistId") Long playlistId);
+
+    @Query("select max(t.position) from PlaylistTrack t where t.playlist.id = :playlistId and t.position < :position")
+    Long findPositionBefore(@Param("playlistId") Long playlistId, @Param("position") long position);
+
+    @Query("select t.id from PlaylistTrack t where t.playlist.id = :playlistId order by t.position, t.id")
+    List<Long> findTrackIds(@Param("playlistId") Long playlistId);
+
+    /**
+     * Clears the persistence context : a track loaded before is not written again by the dirty checking.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update PlaylistTrack t set t.position = :position where t.id = :id")
+    int updatePosition(@Param("id") Long id, @Param("position") long position);
+
+    @Modifying
+    @Query("delete from PlaylistTrack t where t.id = :id and t.playlist.id = :playlistId")
+    int deleteTrack(@Param("playlistId") Long playlistId, @Param("id") Long id);
+}
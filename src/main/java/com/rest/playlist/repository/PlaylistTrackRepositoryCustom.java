@@ -0,0 +1,13 @@
+package com.rest.playlist.repository;
+
+import java.util.List;
+
+public interface PlaylistTrackRepositoryCustom {
+
+    /**
+     * Spreads the tracks gap apart again, in their order, by JDBC batches.
+     *
+     * @param trackIds the tracks of a playlist ordered by position
+     */
+    void renumberTracks(List<Long> trackIds, long gap);
+}
@@ -0,0 +1,34 @@
+package com.rest.playlist.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PlaylistTrackRepositoryCustomImpl class renumbers the tracks with plain JDBC batches :
+ * no PlaylistTrack entity is loaded, the caller reads the positions again by query.
+ */
+public class PlaylistTrackRepositoryCustomImpl implements PlaylistTrackRepositoryCustom {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PlaylistTrackRepositoryCustomImpl(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void renumberTracks(List<Long> trackIds, long gap) {
+        List<Object[]> rows = new ArrayList<>(trackIds.size());
+        for (int i = 0; i < trackIds.size(); i++) {
+            rows.add(new Object[]{i * gap, trackIds.get(i)});
+        }
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate("update playlist_tracks set position_key = ? where id = ?",
+                    rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.rest.playlist.repository;
+
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Song;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Row;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * ReactiveSongRepository class reads and writes the "songs" table through R2DBC for the reactive stack.
+ * Ids come from the same "song_seq" sequence as the JPA mapping of Song, so both stacks can share the table.
+ * Writes done here bypass Hibernate Envers : no revision is recorded in the audit tables.
+ */
+
+@Repository
+@Profile("reactive")
+public class ReactiveSongRepository {
+
+    private static final String SELECT_SONGS = "SELECT id, title, description, duration, artist_name, category, created_at, updated_at FROM songs";
+    private static final String PAGE = " ORDER BY id DESC LIMIT :limit OFFSET :offset";
+
+    private final DatabaseClient databaseClient;
+    private final String nextIdQuery;
+
+    public ReactiveSongRepository(DatabaseClient databaseClient, ConnectionFactory connectionFactory) {
+        this.databaseClient = databaseClient;
+        this.nextIdQuery = connectionFactory.getMetadata().getName().contains("PostgreSQL")
+                ? "SELECT nextval('song_seq')"
+                : "SELECT NEXT VALUE FOR song_seq";
+    }
+
+    public Flux<Song> findAll(int page, int size) {
+        return databaseClient.sql(SELECT_SONGS + PAGE)
+                .bind("limit", size)
+                .bind("offset", (long) page * size)
+                .map(this::toSong)
+                .all();
+    }
+
+    public Mono<Long> count() {
+        return databaseClient.sql("SELECT COUNT(*) FROM songs")
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    public Flux<Song> findSongsByCategory(SongCategory category, int page, int size) {
+        return databaseClient.sql(SELECT_SONGS + " WHERE category = :category" + PAGE)
+                .bind("category", category.name())
+                .bind("limit", size)
+                .bind("offset", (long) page * size)
+                .map(this::toSong)
+                .all();
+    }
+
+    public Mono<Long> countSongsByCategory(SongCategory category) {
+        return databaseClient.sql("SELECT COUNT(*) FROM songs WHERE category = :category")
+                .bind("category", category.name())
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    public Flux<Song> findSongsByArtistName(String artistName, int page, int size) {
+        return databaseClient.sql(SELECT_SONGS + " WHERE artist_name = :artistName" + PAGE)
+                .bind("artistName", artistName)
+                .bind("limit", size)
+                .bind("offset", (long) page * size)
+                .map(this::toSong)
+                .all();
+    }
+
+    public Mono<Long> countSongsByArtistName(String artistName) {
+        return databaseClient.sql("SELECT COUNT(*) FROM songs WHERE artist_name = :artistName")
+                .bind("artistName", artistName)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    public Mono<Song> findById(Long id) {
+        return databaseClient.sql(SELECT_SONGS + " WHERE id = :id")
+                .bind("id", id)
+                .map(this::toSong)
+                .one();
+    }
+
+    public Mono<Song> insert(Song song) {
+        return databaseClient.sql(nextIdQuery)
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .flatMap(id -> {
+                    song.setId(id);
+                    return databaseClient.sql("INSERT INTO songs (id, title, description, duration, artist_name, category, created_at)"
+                            + " VALUES (:id, :title, :description, :duration, :artistName, :category, :createdAt)")
+                            .bind("id", id)
+                            .bind("title", song.getTitle())
+                            .bind("description", song.getDescription())
+                            .bind("duration", song.getDuration())
+                            .bind("artistName", song.getArtistName())
+                            .bind("category", song.getCategory().name())
+                            .bind("createdAt", toDateTime(song.getCreateAt()))
+                            .fetch()
+                            .rowsUpdated()
+                            .thenReturn(song);
+                });
+    }
+
+    /**
+     * @return the number of updated rows, 0 when the song does not exist
+     */
+    public Mono<Integer> update(Song song) {
+        song.setUpdatedAt(Instant.now());
+        return databaseClient.sql("UPDATE songs SET title = :title, description = :description, duration = :duration,"
+                + " artist_name = :artistName, category = :category, updated_at = :updatedAt WHERE id = :id")
+                .bind("title", song.getTitle())
+                .bind("description", song.getDescription())
+                .bind("duration", song.getDuration())
+                .bind("artistName", song.getArtistName())
+                .bind("category", song.getCategory().name())
+                .bind("updatedAt", toDateTime(song.getUpdatedAt()))
+                .bind("id", song.getId())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * @return the number of deleted rows, 0 when the song does not exist
+     */
+    public Mono<Integer> deleteById(Long id) {
+        return databaseClient.sql("DELETE FROM songs WHERE id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private Song toSong(Row row) {
+        Song song = new Song();
+        song.setId(row.get("id", Long.class));
+        song.setTitle(row.get("title", String.class));
+        song.setDescription(row.get("description", String.class));
+        song.setDuration(row.get("duration", String.class));
+        song.setArtistName(row.get("artist_name", String.class));
+        song.setCategory(SongCategory.valueOf(row.get("category", String.class)));
+        song.setCreateAt(toInstant(row.get("created_at", LocalDateTime.class)));
+        song.setUpdatedAt(toInstant(row.get("updated_at", LocalDateTime.class)));
+        return song;
+    }
+
+    // Hibernate maps Instant attributes on "timestamp" columns in the JVM time zone
+    private static LocalDateTime toDateTime(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    private static Instant toInstant(LocalDateTime dateTime) {
+        return dateTime == null ? null : dateTime.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
@@ -0,0 +1,32 @@
+package com.rest.playlist.repository;
+
+import com.rest.playlist.model.SongChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SongChangeRepository extends JpaRepository<SongChange, Long> {
+
+    @Query("select c from SongChange c where c.id > :id order by c.id")
+    List<SongChange> findChangesAfter(@Param("id") long id, Pageable pageable);
+
+    @Query("select c.id from SongChange c where c.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select max(c.id) from SongChange c")
+    Long findLastId();
+
+    @Transactional
+    @Modifying
+    @Query("delete from SongChange c where c.createdAt < :createdAt")
+    int deleteChangesBefore(@Param("createdAt") Instant createdAt);
+}
@@ -0,0 +1,16 @@
+package com.rest.playlist.repository;
+
+import com.rest.playlist.model.SongPlayCount;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SongPlayCountRepository extends JpaRepository<SongPlayCount, Long>, SongPlayCountRepositoryCustom {
+
+    @Query("select p.songId from SongPlayCount p order by p.playCount desc")
+    List<Long> findMostPlayedSongIds(Pageable pageable);
+}
@@ -0,0 +1,16 @@
+package com.rest.playlist.repository;
+
+import java.util.Map;
+import java.util.Set;
+
+public interface SongPlayCountRepositoryCustom {
+
+    /**
+     * Adds the plays to the play counts of the songs, in batched upserts of batchSize rows.
+     * The plays of a song which does not exist (anymore) are dropped.
+     *
+     * @param plays plays by song id
+     * @return the ids whose upsert matched no song
+     */
+    Set<Long> addPlayCounts(Map<Long, Long> plays, int batchSize);
+}
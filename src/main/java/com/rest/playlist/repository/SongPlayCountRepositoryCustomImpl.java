@@ -0,0 +1,71 @@
+package com.rest.playlist.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * SongPlayCountRepositoryCustomImpl class adds the plays with one upsert statement per song, sent by JDBC batches :
+ * INSERT ... ON CONFLICT on PostgreSQL, the standard MERGE elsewhere (H2).
+ * The rows are upserted by ascending song id, so the flushes of two nodes cannot deadlock on the same rows.
+ * The upsert of a song which does not exist selects no row : its update count is 0 (a driver answering
+ * SUCCESS_NO_INFO reports no missing song).
+ */
+public class SongPlayCountRepositoryCustomImpl implements SongPlayCountRepositoryCustom {
+
+    static final String POSTGRESQL_UPSERT =
+            "insert into song_play_counts (song_id, play_count, updated_at) "
+                    + "select id, ?, current_timestamp from songs where id = ? "
+                    + "on conflict (song_id) do update set play_count = song_play_counts.play_count + excluded.play_count, "
+                    + "updated_at = excluded.updated_at";
+
+    static final String MERGE_UPSERT =
+            "merge into song_play_counts t "
+                    + "using (select id as song_id, cast(? as bigint) as plays from songs where id = ?) s "
+                    + "on t.song_id = s.song_id "
+                    + "when matched then update set play_count = t.play_count + s.plays, updated_at = current_timestamp "
+                    + "when not matched then insert (song_id, play_count, updated_at) values (s.song_id, s.plays, current_timestamp)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile String upsert;
+
+    public SongPlayCountRepositoryCustomImpl(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public Set<Long> addPlayCounts(Map<Long, Long> plays, int batchSize) {
+        Set<Long> missing = new HashSet<>();
+        if (plays.isEmpty()) {
+            return missing;
+        }
+        List<Object[]> rows = new ArrayList<>(plays.size());
+        new TreeMap<>(plays).forEach((songId, count) -> rows.add(new Object[]{count, songId}));
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            List<Object[]> batch = rows.subList(from, Math.min(from + batchSize, rows.size()));
+            int[] counts = jdbcTemplate.batchUpdate(upsert(), batch);
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    missing.add((Long) batch.get(i)[1]);
+                }
+            }
+        }
+        return missing;
+    }
+
+    private String upsert() {
+        if (upsert == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            upsert = "PostgreSQL".equalsIgnoreCase(product) ? POSTGRESQL_UPSERT : MERGE_UPSERT;
+        }
+        return upsert;
+    }
+}
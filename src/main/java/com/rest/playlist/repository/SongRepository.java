@@ -5,14 +5,24 @@ import com.rest.playlist.model.Song;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 @EnableJpaAuditing
-public interface SongRepository extends JpaRepository<Song, Long> {
+public interface SongRepository extends JpaRepository<Song, Long>, SongRepositoryCustom {
     Page<Song> findAll(Pageable pageable);
     Page<Song> findSongsByCategory(SongCategory category, Pageable pageable);
     Page<Song> findSongsByArtistName(String artistName, Pageable pageable);
+
+    /**
+     * @return [id, category] of the found songs
+     */
+    @Query("select s.id, s.category from Song s where s.id in :ids")
+    List<Object[]> findCategoriesByIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,20 @@
+package com.rest.playlist.repository;
+
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.enums.SongField;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Queries of SongRepository selecting only some columns of the songs.
+ */
+public interface SongRepositoryCustom {
+
+    /**
+     * @return one map per song, with the selected attributes in the order of fields
+     */
+    Page<Map<String, Object>> findSongFieldsByCategory(SongCategory category, Collection<SongField> fields, Pageable pageable);
+}
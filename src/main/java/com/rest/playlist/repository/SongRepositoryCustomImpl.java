@@ -0,0 +1,75 @@
+package com.rest.playlist.repository;
+
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.enums.SongField;
+import com.rest.playlist.model.Song;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * SongRepositoryCustomImpl class runs tuple queries : only the selected columns are read,
+ * no Song entity is loaded nor kept in the persistence context.
+ */
+public class SongRepositoryCustomImpl implements SongRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Map<String, Object>> findSongFieldsByCategory(SongCategory category, Collection<SongField> fields,
+                                                               Pageable pageable) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Song> song = query.from(Song.class);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        for (SongField field : fields) {
+            selections.add(song.get(field.getAttribute()).alias(field.getAttribute()));
+        }
+        query.multiselect(selections)
+                .where(builder.equal(song.get("category"), category))
+                .orderBy(QueryUtils.toOrders(pageable.getSort(), song, builder));
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<Map<String, Object>> content = typedQuery.getResultList().stream()
+                .map(tuple -> {
+                    Map<String, Object> values = new LinkedHashMap<>();
+                    for (SongField field : fields) {
+                        values.put(field.getAttribute(), tuple.get(field.getAttribute()));
+                    }
+                    return values;
+                })
+                .collect(Collectors.toList());
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> countByCategory(category));
+    }
+
+    private long countByCategory(SongCategory category) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<Song> song = query.from(Song.class);
+        query.select(builder.count(song)).where(builder.equal(song.get("category"), category));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -0,0 +1,14 @@
+package com.rest.playlist.service;
+
+public interface IPlayCountService {
+
+    /**
+     * Counts a play of the song, written to song_play_counts by the next flush.
+     */
+    void recordPlay(Long songId);
+
+    /**
+     * @return the flushed plays of the song plus the plays of this node not flushed yet
+     */
+    long getPlayCount(Long songId);
+}
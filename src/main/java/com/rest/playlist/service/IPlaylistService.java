@@ -0,0 +1,28 @@
+package com.rest.playlist.service;
+
+import com.rest.playlist.model.Playlist;
+import com.rest.playlist.model.PlaylistTrack;
+import org.springframework.data.domain.Page;
+
+public interface IPlaylistService {
+
+    Playlist createPlaylist(Playlist playlist);
+
+    Playlist getPlaylistById(Long id);
+
+    void deletePlaylistById(Long id);
+
+    Page<PlaylistTrack> getPlaylistTracks(Long playlistId, int page, int size);
+
+    /**
+     * @param beforeTrackId the track which follows the new one, null to append it
+     */
+    PlaylistTrack addTrack(Long playlistId, Long songId, Long beforeTrackId);
+
+    /**
+     * @param beforeTrackId the track which follows the moved one, null to move it to the end
+     */
+    PlaylistTrack moveTrack(Long playlistId, Long trackId, Long beforeTrackId);
+
+    void removeTrack(Long playlistId, Long trackId);
+}
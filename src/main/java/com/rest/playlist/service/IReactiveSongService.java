@@ -0,0 +1,28 @@
+package com.rest.playlist.service;
+
+import com.rest.playlist.model.Song;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface IReactiveSongService {
+
+    Flux<Song> getAllSongs(int page, int size);
+
+    Mono<Long> countAllSongs();
+
+    Flux<Song> getSongsByCategory(String category, int page, int size);
+
+    Mono<Long> countSongsByCategory(String category);
+
+    Flux<Song> getSongsByArtistName(String artistName, int page, int size);
+
+    Mono<Long> countSongsByArtistName(String artistName);
+
+    Mono<Song> getSongById(Long id);
+
+    Mono<Song> createSong(Song song);
+
+    Mono<Song> updateSong(Song song);
+
+    Mono<Void> deleteSongById(Long id);
+}
@@ -1,10 +1,14 @@
 package com.rest.playlist.service;
 
+import com.rest.playlist.enums.SongField;
 import com.rest.playlist.model.Song;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public interface ISongService {
 
@@ -12,10 +16,17 @@ public interface ISongService {
 
     Page<Song> getSongsByCategory(String category,int page,int size);
 
+    Page<Map<String, Object>> getSongFieldsByCategory(String category, Set<SongField> fields, int page, int size);
+
     Page<Song> getSongsByArtistName(String artistName,int page,int size);
 
     Song getSongById(Long id);
 
+    /**
+     * @return the found songs by id, in the order of the first occurrence of each id
+     */
+    Map<Long, Song> getSongsByIds(Collection<Long> ids);
+
     Song createSong(Song song);
 
     Song updateSong(Song song);
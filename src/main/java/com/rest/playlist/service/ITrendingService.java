@@ -0,0 +1,23 @@
+package com.rest.playlist.service;
+
+import com.rest.playlist.service.trending.TrendingSong;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ITrendingService {
+
+    /**
+     * Adds flushed plays to the rankings.
+     *
+     * @param plays plays by song id
+     */
+    void recordPlays(Map<Long, Long> plays);
+
+    /**
+     * @param category null for all the categories
+     * @param window   hour, day, week or all
+     * @param limit    null for the default limit
+     */
+    List<TrendingSong> getTrendingSongs(String category, String window, Integer limit);
+}
@@ -0,0 +1,167 @@
+package com.rest.playlist.service;
+
+import com.rest.playlist.config.PlayCountProperties;
+import com.rest.playlist.model.SongPlayCount;
+import com.rest.playlist.repository.SongPlayCountRepository;
+import com.rest.playlist.enums.SongChangeType;
+import com.rest.playlist.service.changes.SongChangedEvent;
+import com.rest.playlist.service.plays.PlayCountWriteAheadLog;
+import com.rest.playlist.service.plays.PlayCounters;
+import com.rest.playlist.web.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * PlayCountServiceImpl class counts the plays in memory (PlayCounters) : a play costs no query.
+ * The counts are flushed every playlist.plays.flush-interval-ms in one transaction of batched upserts,
+ * a failed flush gives the plays back to the counters for the next one.
+ * Each node flushes the deltas of its own plays, the upserts add them up in song_play_counts.
+ * The committed plays then update the trending songs (ITrendingService).
+ * The id filter lets through the ids above the largest loaded one : the counters of an id whose upsert matched
+ * no song are removed after the flush, the counters of a deleted song after its commit.
+ */
+
+@Service
+@Profile("!reactive")
+public class PlayCountServiceImpl implements IPlayCountService {
+    private static final Logger log = LoggerFactory.getLogger(PlayCountServiceImpl.class);
+    static final String FLUSH_TIMER = "playlist.plays.flush";
+
+    private final SongPlayCountRepository playCountRepository;
+    private final SongIdFilter songIdFilter;
+    private final ITrendingService trendingService;
+    private final PlayCounters counters;
+    private final PlayCountWriteAheadLog writeAheadLog;
+    private final PlayCountProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer flushTimer;
+
+    public PlayCountServiceImpl(SongPlayCountRepository playCountRepository, SongIdFilter songIdFilter,
+                                ITrendingService trendingService, PlayCounters counters, ObjectProvider<PlayCountWriteAheadLog> writeAheadLog,
+                                PlayCountProperties properties, PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry) {
+        this.playCountRepository = playCountRepository;
+        this.songIdFilter = songIdFilter;
+        this.trendingService = trendingService;
+        this.counters = counters;
+        this.writeAheadLog = writeAheadLog.getIfAvailable();
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushTimer = Timer.builder(FLUSH_TIMER)
+                .description("Flushes of the play counts to song_play_counts")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The plays of the segments left by a crash are counted again, the first flush writes them.
+     */
+    @PostConstruct
+    public void replayWriteAheadLog() throws IOException {
+        if (writeAheadLog != null) {
+            Map<Long, Long> plays = writeAheadLog.open();
+            plays.forEach(counters::add);
+            if (!plays.isEmpty()) {
+                log.info("Play count log replayed: {} plays of {} songs", plays.values().stream().mapToLong(Long::longValue).sum(),
+                        plays.size());
+            }
+        }
+    }
+
+    @Override
+    public void recordPlay(Long songId) {
+        if (songIdFilter.isAbsent(songId)) {
+            throw new ResourceNotFoundException("Not found song with id = " + songId);
+        }
+        if (writeAheadLog == null) {
+            counters.add(songId, 1);
+        } else {
+            writeAheadLog.append(songId, () -> counters.add(songId, 1));
+        }
+    }
+
+    @Override
+    public long getPlayCount(Long songId) {
+        if (songIdFilter.isAbsent(songId)) {
+            throw new ResourceNotFoundException("Not found song with id = " + songId);
+        }
+        long flushed = playCountRepository.findById(songId).map(SongPlayCount::getPlayCount).orElse(0L);
+        return flushed + counters.getPending(songId);
+    }
+
+    @Scheduled(fixedDelayString = "${playlist.plays.flush-interval-ms:1000}")
+    public void flush() {
+        if (counters.getPending() == 0) {
+            return;
+        }
+        flushTimer.record(() -> {
+            Map<Long, Long> plays;
+            try {
+                plays = writeAheadLog == null ? counters.drain() : writeAheadLog.rotate(counters::drain, counters::restore);
+            } catch (IOException e) {
+                log.warn("Play count log not rotated, the plays are flushed later: {}", e.getMessage());
+                return;
+            }
+            Set<Long> missing;
+            try {
+                missing = transactionTemplate.execute(status ->
+                        playCountRepository.addPlayCounts(plays, properties.getBatchSize()));
+            } catch (RuntimeException e) {
+                counters.restore(plays);
+                log.warn("Play counts of {} songs not flushed, retried at the next flush: {}", plays.size(), e.getMessage());
+                return;
+            }
+            if (missing != null && !missing.isEmpty()) {
+                missing.forEach(counters::removeFlushed);
+                plays.keySet().removeAll(missing);
+                log.debug("Plays of {} unknown songs dropped", missing.size());
+            }
+            if (writeAheadLog != null) {
+                try {
+                    writeAheadLog.commit();
+                } catch (IOException e) {
+                    log.warn("Committed play count log not deleted, a restart counts its plays again: {}", e.getMessage());
+                }
+            }
+            try {
+                trendingService.recordPlays(plays);
+            } catch (RuntimeException e) {
+                log.warn("Trending songs not updated with the plays of {} songs: {}", plays.size(), e.getMessage());
+            }
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onSongChanged(SongChangedEvent event) {
+        if (event.getType() == SongChangeType.DELETED) {
+            counters.remove(event.getSongId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${playlist.plays.wal.sync-interval-ms:100}")
+    public void syncWriteAheadLog() throws IOException {
+        if (writeAheadLog != null) {
+            writeAheadLog.sync();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,175 @@
+package com.rest.playlist.service;
+
+import com.rest.playlist.model.Playlist;
+import com.rest.playlist.model.PlaylistTrack;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.repository.PlaylistRepository;
+import com.rest.playlist.repository.PlaylistTrackRepository;
+import com.rest.playlist.repository.SongRepository;
+import com.rest.playlist.web.exception.BadRequestException;
+import com.rest.playlist.web.exception.ResourceNotFoundException;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * PlaylistServiceImpl class keeps the tracks ordered by sparse positions : a track is appended POSITION_GAP after
+ * the last one, inserted or moved at the middle of its neighbours. Adding or moving a track writes one row,
+ * until 32 tracks were put at the same place : the gap is gone, the playlist is renumbered once.
+ * The writes of a playlist are serialized by a lock on its row.
+ */
+
+@Service
+@Transactional
+@Profile("!reactive")
+public class PlaylistServiceImpl implements IPlaylistService {
+    private static final Logger log = LoggerFactory.getLogger(PlaylistServiceImpl.class);
+    static final String SERVICE_TIMER = "playlist.playlists.service";
+
+    /**
+     * 2^32 : 32 halvings between two neighbours, 2^31 appends before the positions overflow.
+     */
+    public static final long POSITION_GAP = 1L << 32;
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final PlaylistRepository playlistRepository;
+    private final PlaylistTrackRepository trackRepository;
+    private final SongRepository songRepository;
+
+    public PlaylistServiceImpl(PlaylistRepository playlistRepository, PlaylistTrackRepository trackRepository,
+                               SongRepository songRepository) {
+        this.playlistRepository = playlistRepository;
+        this.trackRepository = trackRepository;
+        this.songRepository = songRepository;
+    }
+
+    @Override
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    public Playlist createPlaylist(Playlist playlist) {
+        playlist.setId(null);
+        return playlistRepository.save(playlist);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    public Playlist getPlaylistById(Long id) {
+        return playlistRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Not found playlist with id = " + id));
+    }
+
+    @Override
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    public void deletePlaylistById(Long id) {
+        if (!playlistRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Not found playlist with id = " + id);
+        }
+        playlistRepository.deleteById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    public Page<PlaylistTrack> getPlaylistTracks(Long playlistId, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("page must be positive and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (!playlistRepository.existsById(playlistId)) {
+            throw new ResourceNotFoundException("Not found playlist with id = " + playlistId);
+        }
+        return trackRepository.findTracks(playlistId, PageRequest.of(page, size));
+    }
+
+    @Override
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    public PlaylistTrack addTrack(Long playlistId, Long songId, Long beforeTrackId) {
+        Playlist playlist = lockPlaylist(playlistId);
+        Song song = songRepository.findById(songId)
+                .orElseThrow(() -> new ResourceNotFoundException("Not found song with id = " + songId));
+
+        PlaylistTrack track = new PlaylistTrack();
+        track.setPlaylist(playlist);
+        track.setSong(song);
+        track.setPosition(positionBefore(playlistId, beforeTrackId));
+        return trackRepository.save(track);
+    }
+
+    @Override
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    public PlaylistTrack moveTrack(Long playlistId, Long trackId, Long beforeTrackId) {
+        lockPlaylist(playlistId);
+        if (trackId.equals(beforeTrackId)) {
+            throw new BadRequestException("A track cannot be moved before itself");
+        }
+        PlaylistTrack track = trackRepository.findTrack(playlistId, trackId)
+                .orElseThrow(() -> new ResourceNotFoundException("Not found track with id = " + trackId));
+
+        long position = positionBefore(playlistId, beforeTrackId);
+        trackRepository.updatePosition(trackId, position);
+        // detached by the update, its song is loaded
+        track.setPosition(position);
+        return track;
+    }
+
+    @Override
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    public void removeTrack(Long playlistId, Long trackId) {
+        lockPlaylist(playlistId);
+        if (trackRepository.deleteTrack(playlistId, trackId) == 0) {
+            throw new ResourceNotFoundException("Not found track with id = " + trackId);
+        }
+    }
+
+    private Playlist lockPlaylist(Long playlistId) {
+        return playlistRepository.findByIdForUpdate(playlistId)
+                .orElseThrow(() -> new ResourceNotFoundException("Not found playlist with id = " + playlistId));
+    }
+
+    /**
+     * The positions are read by query (not from the entities) : they may have been renumbered by JDBC.
+     */
+    private long positionBefore(Long playlistId, Long beforeTrackId) {
+        Long position = freePositionBefore(playlistId, beforeTrackId);
+        if (position == null) {
+            renumber(playlistId);
+            position = freePositionBefore(playlistId, beforeTrackId);
+        }
+        return position;
+    }
+
+    /**
+     * @return null when there is no free position left at this place
+     */
+    private Long freePositionBefore(Long playlistId, Long beforeTrackId) {
+        if (beforeTrackId == null) {
+            Long last = trackRepository.findLastPosition(playlistId);
+            if (last == null) {
+                return 0L;
+            }
+            return last <= Long.MAX_VALUE - POSITION_GAP ? last + POSITION_GAP : null;
+        }
+        long next = trackRepository.findPosition(playlistId, beforeTrackId)
+                .orElseThrow(() -> new ResourceNotFoundException("Not found track with id = " + beforeTrackId));
+        Long previous = trackRepository.findPositionBefore(playlistId, next);
+        if (previous == null) {
+            return next >= Long.MIN_VALUE + POSITION_GAP ? next - POSITION_GAP : null;
+        }
+        // previous < next : their difference fits in an unsigned long
+        long distance = next - previous;
+        return Long.compareUnsigned(distance, 1) > 0 ? previous + (distance >>> 1) : null;
+    }
+
+    private void renumber(Long playlistId) {
+        List<Long> trackIds = trackRepository.findTrackIds(playlistId);
+        trackRepository.renumberTracks(trackIds, POSITION_GAP);
+        log.info("Playlist {} renumbered: {} tracks", playlistId, trackIds.size());
+    }
+}
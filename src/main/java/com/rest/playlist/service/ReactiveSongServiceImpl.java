@@ -0,0 +1,98 @@
+package com.rest.playlist.service;
+
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.repository.ReactiveSongRepository;
+import com.rest.playlist.web.exception.ResourceNotFoundException;
+import org.apache.commons.lang3.EnumUtils;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@Transactional
+@Profile("reactive")
+public class ReactiveSongServiceImpl implements IReactiveSongService {
+
+    private final ReactiveSongRepository songRepository;
+
+    public ReactiveSongServiceImpl(ReactiveSongRepository songRepository) {
+        this.songRepository = songRepository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<Song> getAllSongs(int page, int size) {
+        return songRepository.findAll(page, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<Long> countAllSongs() {
+        return songRepository.count();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<Song> getSongsByCategory(String category, int page, int size) {
+        return Mono.fromSupplier(() -> toCategory(category))
+                .flatMapMany(searchedCategory -> songRepository.findSongsByCategory(searchedCategory, page, size));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<Long> countSongsByCategory(String category) {
+        return Mono.fromSupplier(() -> toCategory(category))
+                .flatMap(songRepository::countSongsByCategory);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<Song> getSongsByArtistName(String artistName, int page, int size) {
+        return songRepository.findSongsByArtistName(artistName, page, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<Long> countSongsByArtistName(String artistName) {
+        return songRepository.countSongsByArtistName(artistName);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<Song> getSongById(Long id) {
+        return songRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Not found song with id = " + id)));
+    }
+
+    @Override
+    public Mono<Song> createSong(Song song) {
+        return songRepository.insert(song);
+    }
+
+    @Override
+    public Mono<Song> updateSong(Song song) {
+        return songRepository.update(song)
+                .flatMap(updated -> updated == 0
+                        ? Mono.error(new ResourceNotFoundException("Not found song with id = " + song.getId()))
+                        : Mono.just(song));
+    }
+
+    @Override
+    public Mono<Void> deleteSongById(Long id) {
+        return songRepository.deleteById(id)
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.error(new ResourceNotFoundException("Not found song with id = " + id))
+                        : Mono.empty());
+    }
+
+    private static SongCategory toCategory(String category) {
+        SongCategory searchedCategory = EnumUtils.getEnumIgnoreCase(SongCategory.class, category);
+        if (searchedCategory == null) {
+            throw new ResourceNotFoundException("Not found Category with value = " + category);
+        }
+        return searchedCategory;
+    }
+}
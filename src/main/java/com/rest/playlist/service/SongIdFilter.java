@@ -0,0 +1,153 @@
+package com.rest.playlist.service;
+
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * SongIdFilter class holds the ids of the songs table in a compressed bitmap (RoaringBitmap),
+ * so that getSongById answers 404 for a nonexistent id without a database round trip.
+ * Only "definitely absent" answers are trusted : an id not yet loaded, or greater than the greatest id loaded
+ * (a song created by another node since the last load), goes to the database as before.
+ * A deleted id stays in the bitmap until the commit, a created id is added before it :
+ * the bitmap is a superset of the table, it never hides an existing song.
+ * A load may miss the ids added since the beginning of the previous load, their transactions committing after its
+ * snapshot : they are added to the loaded ids.
+ */
+
+public class SongIdFilter {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongAdder rejections = new LongAdder();
+
+    private Roaring64Bitmap ids;
+    private long maxLoadedId;
+    private Roaring64Bitmap addedSinceLoadStart = new Roaring64Bitmap();
+    private Roaring64Bitmap addedBeforeLoad;
+
+    /**
+     * @return true when the song does not exist, false when it may exist
+     */
+    public boolean isAbsent(long id) {
+        lock.readLock().lock();
+        try {
+            boolean absent = ids != null && id <= maxLoadedId && !ids.contains(id);
+            if (absent) {
+                rejections.increment();
+            }
+            return absent;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void add(Long id) {
+        if (id == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (ids != null) {
+                ids.addLong(id);
+            }
+            addedSinceLoadStart.addLong(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the id once the current transaction commits, a rolled back delete keeps it.
+     */
+    public void removeAfterCommit(long id) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remove(id);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remove(id);
+            }
+        });
+    }
+
+    private void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            if (ids != null) {
+                ids.removeLong(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Starts recording the ids added during a load, the loaded snapshot may miss them as well as
+     * those added since the previous load started.
+     */
+    public void beginLoad() {
+        lock.writeLock().lock();
+        try {
+            addedBeforeLoad = addedSinceLoadStart;
+            addedSinceLoadStart = new Roaring64Bitmap();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void completeLoad(Roaring64Bitmap loadedIds, long maxId) {
+        lock.writeLock().lock();
+        try {
+            if (addedBeforeLoad != null) {
+                loadedIds.or(addedBeforeLoad);
+            }
+            loadedIds.or(addedSinceLoadStart);
+            loadedIds.runOptimize();
+            ids = loadedIds;
+            maxLoadedId = maxId;
+            addedBeforeLoad = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void abortLoad() {
+        lock.writeLock().lock();
+        try {
+            if (addedBeforeLoad != null) {
+                addedSinceLoadStart.or(addedBeforeLoad);
+            }
+            addedBeforeLoad = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long getCardinality() {
+        lock.readLock().lock();
+        try {
+            return ids != null ? ids.getLongCardinality() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getSizeInBytes() {
+        lock.readLock().lock();
+        try {
+            return ids != null ? ids.getLongSizeInBytes() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getRejections() {
+        return rejections.sum();
+    }
+}
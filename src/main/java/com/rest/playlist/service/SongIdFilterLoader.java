@@ -0,0 +1,50 @@
+package com.rest.playlist.service;
+
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * SongIdFilterLoader class (re)builds the SongIdFilter from songs.id at startup, then periodically
+ * to catch up with the songs created or deleted by the other nodes.
+ * The ids are streamed (fetch size) in a read-only transaction, the rows are never held in memory.
+ */
+
+public class SongIdFilterLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(SongIdFilterLoader.class);
+
+    private final SongIdFilter songIdFilter;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public SongIdFilterLoader(SongIdFilter songIdFilter, JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.songIdFilter = songIdFilter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Scheduled(fixedDelayString = "${playlist.songs.id-filter.refresh-interval-ms:600000}")
+    public void load() {
+        long start = System.nanoTime();
+        songIdFilter.beginLoad();
+        try {
+            Roaring64Bitmap ids = new Roaring64Bitmap();
+            long[] maxId = {0};
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query("select id from songs", rs -> {
+                long id = rs.getLong(1);
+                ids.addLong(id);
+                maxId[0] = Math.max(maxId[0], id);
+            }));
+            songIdFilter.completeLoad(ids, maxId[0]);
+            log.info("Song id filter loaded: {} ids, {} bytes in {} ms", songIdFilter.getCardinality(),
+                    songIdFilter.getSizeInBytes(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            songIdFilter.abortLoad();
+            log.warn("Song id filter not loaded, nonexistent ids go to the database: {}", e.getMessage());
+        }
+    }
+}
@@ -1,70 +1,183 @@
 package com.rest.playlist.service;
 
+import com.rest.playlist.config.SongLookupProperties;
 import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.enums.SongChangeType;
+import com.rest.playlist.enums.SongField;
 import com.rest.playlist.model.Song;
 import com.rest.playlist.repository.SongRepository;
+import com.rest.playlist.service.changes.SongChangedEvent;
+import com.rest.playlist.service.singleflight.SingleFlight;
+import com.rest.playlist.web.exception.BadRequestException;
 import com.rest.playlist.web.exception.ResourceNotFoundException;
+import io.micrometer.core.annotation.Timed;
 import org.apache.commons.lang3.EnumUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 @Service
 @Transactional
+@Profile("!reactive")
 public class SongServiceImpl implements ISongService {
     private static final Logger log = LoggerFactory.getLogger(SongServiceImpl.class);
+    static final String SERVICE_TIMER = "playlist.songs.service";
+    public static final String SONG_CACHE = "songs";
+    public static final String SONG_PAGE_CACHE = "songPages";
+    public static final String SONG_PAGE_CACHE_RESOLVER = "songPageCacheResolver";
 
     private final SongRepository songRepository;
+    private final CacheManager cacheManager;
+    private final SongLookupProperties lookupProperties;
+    private final SongIdFilter songIdFilter;
+    private final ApplicationEventPublisher eventPublisher;
 
     private Pageable paging = PageRequest.of(0, 3, Sort.by(new Sort.Order(Sort.Direction.DESC, "id")));
 
-    public SongServiceImpl(SongRepository songRepository) {
+    public SongServiceImpl(SongRepository songRepository, CacheManager cacheManager, SongLookupProperties lookupProperties,
+                           SongIdFilter songIdFilter, ApplicationEventPublisher eventPublisher) {
         this.songRepository = songRepository;
+        this.cacheManager = cacheManager;
+        this.lookupProperties = lookupProperties;
+        this.songIdFilter = songIdFilter;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
+    @Timed(value = SERVICE_TIMER, histogram = true)
     @Transactional(readOnly = true)
+    @SingleFlight
+    @Cacheable(cacheResolver = SONG_PAGE_CACHE_RESOLVER, key = "'all:' + #page + ':' + #size", sync = true)
     public Page<Song> getAllSongs(int page,int size) {
         return songRepository.findAll(paging);
     }
 
     @Override
+    @Timed(value = SERVICE_TIMER, histogram = true)
     @Transactional(readOnly = true)
+    @SingleFlight
+    @Cacheable(cacheResolver = SONG_PAGE_CACHE_RESOLVER, key = "'category:' + #category.toUpperCase() + ':' + #page + ':' + #size", sync = true)
     public Page<Song> getSongsByCategory(String category,int page,int size) {
+        return songRepository.findSongsByCategory(toCategory(category), paging);
+    }
 
-        SongCategory searchedCategory = EnumUtils.getEnumIgnoreCase(SongCategory.class, category);
-        if (searchedCategory == null) {
-            throw new ResourceNotFoundException("Not found Category with value = " + category);
-        }
-
-        return songRepository.findSongsByCategory(searchedCategory, paging);
+    @Override
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    @Transactional(readOnly = true)
+    @SingleFlight
+    public Page<Map<String, Object>> getSongFieldsByCategory(String category, Set<SongField> fields, int page, int size) {
+        return songRepository.findSongFieldsByCategory(toCategory(category), fields, paging);
     }
 
     @Override
+    @Timed(value = SERVICE_TIMER, histogram = true)
     @Transactional(readOnly = true)
+    @SingleFlight
     public Page<Song> getSongsByArtistName(String artistName,int page,int size) {
         return songRepository.findSongsByArtistName(artistName, paging);
     }
 
     @Override
+    @Timed(value = SERVICE_TIMER, histogram = true)
     @Transactional(readOnly = true)
+    @SingleFlight(key = "#id")
+    @Cacheable(cacheNames = SONG_CACHE, key = "#id")
     public Song getSongById(Long id) {
+        if (songIdFilter.isAbsent(id)) {
+            throw new ResourceNotFoundException("Not found song with id = " + id);
+        }
 
         return songRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Not found song with id = " + id));
     }
 
+    /**
+     * The ids rejected by the SongIdFilter are skipped, the cached songs are served,
+     * the others are read by chunks of WHERE id IN (...) queries.
+     */
     @Override
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    @Transactional(readOnly = true)
+    public Map<Long, Song> getSongsByIds(Collection<Long> ids) {
+        Set<Long> requestedIds = new LinkedHashSet<>(ids);
+        requestedIds.remove(null);
+        if (requestedIds.size() > lookupProperties.getMaxIds()) {
+            throw new BadRequestException("Too many song ids = " + requestedIds.size()
+                    + ", at most " + lookupProperties.getMaxIds() + " per request");
+        }
+
+        Cache cache = cacheManager.getCache(SONG_CACHE);
+        Map<Long, Song> foundSongs = new HashMap<>();
+        List<Long> missedIds = new ArrayList<>();
+        for (Long id : requestedIds) {
+            if (songIdFilter.isAbsent(id)) {
+                continue;
+            }
+            Song song = cache != null ? cache.get(id, Song.class) : null;
+            if (song != null) {
+                foundSongs.put(id, song);
+            } else {
+                missedIds.add(id);
+            }
+        }
+
+        for (int from = 0; from < missedIds.size(); from += lookupProperties.getChunkSize()) {
+            List<Long> chunk = missedIds.subList(from, Math.min(from + lookupProperties.getChunkSize(), missedIds.size()));
+            for (Song song : songRepository.findAllById(chunk)) {
+                foundSongs.put(song.getId(), song);
+                if (cache != null) {
+                    cache.put(song.getId(), song);
+                }
+            }
+        }
+
+        Map<Long, Song> songs = new LinkedHashMap<>();
+        for (Long id : requestedIds) {
+            Song song = foundSongs.get(id);
+            if (song != null) {
+                songs.put(id, song);
+            }
+        }
+        return songs;
+    }
+
+    @Override
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    @Caching(put = @CachePut(cacheNames = SONG_CACHE, key = "#result.id"),
+            evict = @CacheEvict(cacheResolver = SONG_PAGE_CACHE_RESOLVER, allEntries = true))
     public Song createSong(Song song) {
-        return songRepository.save(song);
+        Song createdSong = songRepository.save(song);
+        songIdFilter.add(createdSong.getId());
+        eventPublisher.publishEvent(new SongChangedEvent(SongChangeType.CREATED, createdSong.getId(), createdSong));
+        return createdSong;
     }
 
     @Override
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    @Caching(put = @CachePut(cacheNames = SONG_CACHE, key = "#result.id"),
+            evict = @CacheEvict(cacheResolver = SONG_PAGE_CACHE_RESOLVER, allEntries = true))
     public Song updateSong(Song song) {
 
         Song searchedSong = songRepository.findById(song.getId())
@@ -76,14 +189,29 @@ public class SongServiceImpl implements ISongService {
         searchedSong.setCategory(song.getCategory());
         searchedSong.setDuration(song.getDuration());
 
-        return songRepository.saveAndFlush(song);
+        Song updatedSong = songRepository.saveAndFlush(song);
+        eventPublisher.publishEvent(new SongChangedEvent(SongChangeType.UPDATED, updatedSong.getId(), updatedSong));
+        return updatedSong;
     }
 
     @Override
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    @Caching(evict = {@CacheEvict(cacheNames = SONG_CACHE, key = "#id"),
+            @CacheEvict(cacheResolver = SONG_PAGE_CACHE_RESOLVER, allEntries = true)})
     public void deleteSongById(Long id) {
         songRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Not found song with id = " + id));
 
         songRepository.deleteById(id);
+        songIdFilter.removeAfterCommit(id);
+        eventPublisher.publishEvent(new SongChangedEvent(SongChangeType.DELETED, id, null));
+    }
+
+    private SongCategory toCategory(String category) {
+        SongCategory searchedCategory = EnumUtils.getEnumIgnoreCase(SongCategory.class, category);
+        if (searchedCategory == null) {
+            throw new ResourceNotFoundException("Not found Category with value = " + category);
+        }
+        return searchedCategory;
     }
 }
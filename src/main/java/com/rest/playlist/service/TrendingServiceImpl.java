@@ -0,0 +1,134 @@
+package com.rest.playlist.service;
+
+import com.rest.playlist.config.SongLookupProperties;
+import com.rest.playlist.config.TrendingProperties;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.enums.TrendingWindow;
+import com.rest.playlist.repository.SongRepository;
+import com.rest.playlist.service.trending.TrendingRanking;
+import com.rest.playlist.service.trending.TrendingSong;
+import com.rest.playlist.web.exception.BadRequestException;
+import org.apache.commons.lang3.EnumUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * TrendingServiceImpl class ranks the songs from the plays flushed by PlayCountServiceImpl : the rankings are
+ * updated once per flush, with the categories of the played songs only, and read from memory.
+ * Each node ranks its own plays, behind a load balancer they approximate the ranking of all the plays.
+ */
+
+@Service
+@Profile("!reactive")
+public class TrendingServiceImpl implements ITrendingService {
+    private static final Logger log = LoggerFactory.getLogger(TrendingServiceImpl.class);
+
+    private final SongRepository songRepository;
+    private final SongIdFilter songIdFilter;
+    private final TrendingProperties properties;
+    private final SongLookupProperties lookupProperties;
+    private final TrendingRanking ranking;
+
+    public TrendingServiceImpl(SongRepository songRepository, SongIdFilter songIdFilter, TrendingProperties properties,
+                               SongLookupProperties lookupProperties) {
+        this.songRepository = songRepository;
+        this.songIdFilter = songIdFilter;
+        this.properties = properties;
+        this.lookupProperties = lookupProperties;
+        this.ranking = new TrendingRanking(properties.getCapacity(), System.currentTimeMillis());
+    }
+
+    @PostConstruct
+    public void load() {
+        Path file = Paths.get(properties.getSnapshotFile());
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            ranking.readFrom(in, System.currentTimeMillis());
+            log.info("Trending songs loaded from {}", file);
+        } catch (IOException e) {
+            log.warn("Trending songs not loaded from {}, ranked from the next plays: {}", file, e.getMessage());
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void recordPlays(Map<Long, Long> plays) {
+        long now = System.currentTimeMillis();
+        List<Long> songIds = new ArrayList<>(plays.keySet());
+        for (int from = 0; from < songIds.size(); from += lookupProperties.getChunkSize()) {
+            List<Long> chunk = songIds.subList(from, Math.min(from + lookupProperties.getChunkSize(), songIds.size()));
+            for (Object[] row : songRepository.findCategoriesByIds(chunk)) {
+                Long songId = (Long) row[0];
+                ranking.add(songId, (SongCategory) row[1], plays.get(songId), now);
+            }
+        }
+    }
+
+    @Override
+    public List<TrendingSong> getTrendingSongs(String category, String window, Integer limit) {
+        SongCategory songCategory = category == null || category.isEmpty() ? null : toCategory(category);
+        TrendingWindow trendingWindow = window == null || window.isEmpty() ? TrendingWindow.DAY : TrendingWindow.fromValue(window);
+        if (trendingWindow == null) {
+            throw new BadRequestException("Unknown trending window: " + window);
+        }
+        int size = limit == null ? properties.getDefaultLimit() : limit;
+        if (size < 1 || size > properties.getMaxLimit()) {
+            throw new BadRequestException("limit must be between 1 and " + properties.getMaxLimit());
+        }
+        // the songs deleted since their plays are skipped, a few more are read to fill the limit
+        return ranking.top(songCategory, trendingWindow, size + size / 2 + 1, System.currentTimeMillis()).stream()
+                .filter(song -> !songIdFilter.isAbsent(song.getSongId()))
+                .limit(size)
+                .collect(Collectors.toList());
+    }
+
+    @Scheduled(initialDelayString = "${playlist.songs.trending.persist-interval-ms:60000}",
+            fixedDelayString = "${playlist.songs.trending.persist-interval-ms:60000}")
+    public void persist() {
+        Path file = Paths.get(properties.getSnapshotFile()).toAbsolutePath();
+        try {
+            Files.createDirectories(file.getParent());
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                ranking.writeTo(out);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Trending songs not saved to {}: {}", file, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void persistOnShutdown() {
+        persist();
+    }
+
+    private static SongCategory toCategory(String category) {
+        if (!EnumUtils.isValidEnumIgnoreCase(SongCategory.class, category)) {
+            throw new BadRequestException("Unknown category: " + category);
+        }
+        return EnumUtils.getEnumIgnoreCase(SongCategory.class, category);
+    }
+}
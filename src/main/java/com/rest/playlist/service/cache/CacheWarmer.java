@@ -0,0 +1,92 @@
+package com.rest.playlist.service.cache;
+
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.repository.SongPlayCountRepository;
+import com.rest.playlist.service.ISongService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * CacheWarmer class fills the caches before the first requests : runners complete before the application
+ * is ready, so the readiness probe (/actuator/health/readiness) turns green once the caches are warm.
+ * The most played songs are read into the "songs" cache by chunks, and the first page of every category
+ * and of all the songs into the "songPages" cache, in parallel. A failed or late warm-up is logged,
+ * the application starts anyway with colder caches.
+ */
+
+public class CacheWarmer implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheWarmer.class);
+
+    private final ISongService songService;
+    private final SongPlayCountRepository songPlayCountRepository;
+    private final int songs;
+    private final int pageSize;
+    private final int chunkSize;
+    private final int parallelism;
+    private final Duration timeout;
+    private final Timer timer;
+
+    public CacheWarmer(ISongService songService, SongPlayCountRepository songPlayCountRepository, int songs,
+                       int pageSize, int chunkSize, int parallelism, Duration timeout, MeterRegistry meterRegistry) {
+        this.songService = songService;
+        this.songPlayCountRepository = songPlayCountRepository;
+        this.songs = songs;
+        this.pageSize = pageSize;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.timeout = timeout;
+        this.timer = Timer.builder("playlist.cache.warmup")
+                .description("Warm-up of the caches at startup")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable ->
+                new Thread(runnable, "cache-warmup-" + threads.incrementAndGet()));
+        long start = System.nanoTime();
+        try {
+            List<CompletableFuture<Void>> tasks = new ArrayList<>();
+            tasks.add(CompletableFuture.runAsync(() -> songService.getAllSongs(0, pageSize), executor));
+            for (SongCategory category : SongCategory.values()) {
+                tasks.add(CompletableFuture.runAsync(() -> songService.getSongsByCategory(category.name(), 0, pageSize), executor));
+            }
+            List<Long> ids = songs > 0 ? songPlayCountRepository.findMostPlayedSongIds(PageRequest.of(0, songs)) : List.of();
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                List<Long> chunk = ids.subList(from, Math.min(from + chunkSize, ids.size()));
+                tasks.add(CompletableFuture.runAsync(() -> songService.getSongsByIds(chunk), executor));
+            }
+            CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            log.info("Caches warmed up in {} ms : {} songs, {} pages", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                    ids.size(), SongCategory.values().length + 1);
+        } catch (TimeoutException e) {
+            log.warn("Cache warm-up not completed after {}, the application starts with colder caches", timeout);
+        } catch (ExecutionException | RuntimeException e) {
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            log.warn("Cache warm-up failed, the application starts with colder caches: {}", cause.toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            executor.shutdownNow();
+        }
+    }
+}
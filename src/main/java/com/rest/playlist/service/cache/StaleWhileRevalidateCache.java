@@ -0,0 +1,181 @@
+package com.rest.playlist.service.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * StaleWhileRevalidateCache class is a Spring cache serving its entries older than refreshAfter (stale) at once,
+ * while one background reload per key (the cached method, through @Cacheable(sync = true)) replaces them.
+ * A failed reload, the database being unavailable for instance, keeps the stale entry and is retried after
+ * refreshAfter : the entries are served up to staleTimeToLive after their last successful load.
+ * Evictions are immediate, a reload started before an eviction does not write its result.
+ * Metrics are published as cache.* meters with cache=name.
+ */
+
+public class StaleWhileRevalidateCache implements Cache {
+
+    private static final Logger log = LoggerFactory.getLogger(StaleWhileRevalidateCache.class);
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Entry> entries;
+    private final long refreshAfterNanos;
+    private final ExecutorService refresher;
+    private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+    private final AtomicLong evictions = new AtomicLong();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+
+    public StaleWhileRevalidateCache(String name, long maximumSize, Duration refreshAfter, Duration staleTimeToLive,
+                                     int refreshThreads, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(staleTimeToLive)
+                .recordStats()
+                .build();
+        this.refreshAfterNanos = refreshAfter.toNanos();
+        AtomicInteger threads = new AtomicInteger();
+        this.refresher = Executors.newFixedThreadPool(refreshThreads, runnable -> {
+            Thread thread = new Thread(runnable, name + "-refresh-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, name);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return entries;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Entry entry = entries.getIfPresent(key);
+        return entry != null ? new SimpleValueWrapper(entry.value) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        Entry entry = entries.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+        if (type != null && entry.value != null && !type.isInstance(entry.value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + entry.value);
+        }
+        return (T) entry.value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Entry entry = entries.getIfPresent(key);
+        if (entry == null) {
+            long evictionsAtStart = evictions.get();
+            T value;
+            try {
+                value = valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            putIfNotEvicted(key, value, evictionsAtStart);
+            return value;
+        }
+        long now = System.nanoTime();
+        if (now - entry.refreshAt >= 0) {
+            staleHits.increment();
+            refresh(key, entry, valueLoader);
+        }
+        return (T) entry.value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        entries.put(key, new Entry(value, System.nanoTime() + refreshAfterNanos));
+    }
+
+    @Override
+    public void evict(Object key) {
+        evictions.incrementAndGet();
+        entries.invalidate(key);
+    }
+
+    @Override
+    public void clear() {
+        evictions.incrementAndGet();
+        entries.invalidateAll();
+    }
+
+    public long getStaleHits() {
+        return staleHits.sum();
+    }
+
+    public long getRefreshFailures() {
+        return refreshFailures.sum();
+    }
+
+    public void close() {
+        refresher.shutdownNow();
+    }
+
+    private void refresh(Object key, Entry entry, Callable<?> valueLoader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        long evictionsAtStart = evictions.get();
+        try {
+            refresher.execute(() -> {
+                try {
+                    putIfNotEvicted(key, valueLoader.call(), evictionsAtStart);
+                } catch (Exception e) {
+                    refreshFailures.increment();
+                    entry.refreshAt = System.nanoTime() + refreshAfterNanos;
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    log.warn("Refresh of {} {} failed, the stale entry is served: {}", name, key, cause.toString());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+        }
+    }
+
+    private void putIfNotEvicted(Object key, Object value, long evictionsAtStart) {
+        Entry entry = new Entry(value, System.nanoTime() + refreshAfterNanos);
+        entries.asMap().compute(key, (k, current) -> evictions.get() == evictionsAtStart ? entry : current);
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+        private volatile long refreshAt;
+
+        private Entry(Object value, long refreshAt) {
+            this.value = value;
+            this.refreshAt = refreshAt;
+        }
+    }
+}
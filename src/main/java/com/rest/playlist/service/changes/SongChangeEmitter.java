@@ -0,0 +1,39 @@
+package com.rest.playlist.service.changes;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * SongChangeEmitter class is the text/event-stream response of a subscriber, written with the frames built once
+ * by SongChangeFeed (SseEmitter.event()...build()) : the parts of a frame are written as they are, as
+ * SseEmitter.send(SseEventBuilder) does, while SseEmitter.send(Object) would wrap each part in a data: line.
+ */
+
+public class SongChangeEmitter extends ResponseBodyEmitter {
+
+    public SongChangeEmitter(Long timeout) {
+        super(timeout);
+    }
+
+    @Override
+    protected void extendResponse(ServerHttpResponse outputMessage) {
+        super.extendResponse(outputMessage);
+        if (outputMessage.getHeaders().getContentType() == null) {
+            outputMessage.getHeaders().setContentType(MediaType.TEXT_EVENT_STREAM);
+        }
+    }
+
+    /**
+     * @param frame built by SseEmitter.event()
+     */
+    public synchronized void send(Set<DataWithMediaType> frame) throws IOException {
+        for (DataWithMediaType part : frame) {
+            super.send(part.getData(), part.getMediaType());
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package com.rest.playlist.service.changes;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.rest.playlist.config.SongChangeFeedProperties;
+import com.rest.playlist.model.SongChange;
+import com.rest.playlist.repository.SongChangeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * SongChangeFeed class streams the committed song changes to the SSE subscribers of this node.
+ * <p>
+ * One poll of the song_changes outbox per node feeds every subscriber : the database load does not depend on
+ * the number of subscribers, and the changes of every node are fed in the order of the outbox ids.
+ * An id missing from the outbox (its transaction commits after a later one) is waited for gapTimeout,
+ * then skipped : the ids of the rolled back transactions never show up. The skipped ids are checked again,
+ * once per gapTimeout, for lateChangeTimeout : a change committed meanwhile was not streamed, the subscribers
+ * receive a reset event and the replay is dropped (a reconnection could not replay it either).
+ * <p>
+ * Each change is serialized once, queued to each subscriber (bounded) and written by a small pool of senders.
+ * A subscriber whose queue is full is disconnected, it reconnects with its Last-Event-ID and catches up from
+ * the last replaySize changes kept in memory, or receives a reset event when they are gone.
+ */
+public class SongChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(SongChangeFeed.class);
+
+    static final String RESET_EVENT = "reset";
+    static final int MAX_SKIPPED_IDS = 10_000;
+
+    private final SongChangeRepository songChangeRepository;
+    private final SongChangeFeedProperties properties;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService senders;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ArrayDeque<Change> replay = new ArrayDeque<>();
+    private final Set<ResponseBodyEmitter.DataWithMediaType> heartbeat = SseEmitter.event().comment("heartbeat").build();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder lateChanges = new LongAdder();
+    private final TreeMap<Long, Long> skipped = new TreeMap<>();
+
+    private long lastId;
+    private long gapSince;
+    private long nextRecheck;
+
+    public SongChangeFeed(SongChangeRepository songChangeRepository, SongChangeFeedProperties properties,
+                          ObjectMapper objectMapper) {
+        this.songChangeRepository = songChangeRepository;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        AtomicInteger threads = new AtomicInteger();
+        this.senders = Executors.newFixedThreadPool(properties.getSenderThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "song-changes-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * The feed starts after the last change committed before the startup.
+     */
+    @PostConstruct
+    public void start() {
+        Long last = songChangeRepository.findLastId();
+        lastId = last == null ? 0 : last;
+    }
+
+    /**
+     * @param lastEventId the id of the last change received before a reconnection, null for a new subscriber
+     */
+    public SongChangeEmitter subscribe(Long lastEventId) {
+        SongChangeEmitter emitter = new SongChangeEmitter(properties.getStreamTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter, properties.getSubscriberBufferSize(), lastEventId);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+
+        synchronized (replay) {
+            if (lastEventId != null && lastEventId < lastId) {
+                Change oldest = replay.peekFirst();
+                if (oldest == null || oldest.id > lastEventId + 1 || lastId - lastEventId > properties.getSubscriberBufferSize()) {
+                    subscriber.offer(resetFrame(lastEventId));
+                } else {
+                    replay.stream().filter(change -> change.id > lastEventId).forEach(change -> subscriber.offer(change.frame));
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        schedule(subscriber);
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${playlist.songs.changes.poll-interval-ms:200}")
+    public void poll() {
+        recheckSkipped();
+        for (SongChange change : songChangeRepository.findChangesAfter(lastId, PageRequest.of(0, properties.getPollBatchSize()))) {
+            if (change.getId() != lastId + 1) {
+                long now = System.nanoTime();
+                if (gapSince == 0) {
+                    gapSince = now;
+                    return;
+                }
+                if (now - gapSince < properties.getGapTimeout().toNanos()) {
+                    return;
+                }
+                log.debug("Song changes {} to {} skipped", lastId + 1, change.getId() - 1);
+                for (long id = lastId + 1; id < change.getId() && skipped.size() < MAX_SKIPPED_IDS; id++) {
+                    skipped.put(id, now);
+                }
+            }
+            gapSince = 0;
+            publish(new Change(change.getId(), frame(change)));
+        }
+    }
+
+    /**
+     * Checks the skipped ids still within lateChangeTimeout, at most pollBatchSize at a time, the oldest first.
+     */
+    private void recheckSkipped() {
+        long now = System.nanoTime();
+        if (skipped.isEmpty() || now - nextRecheck < 0) {
+            return;
+        }
+        nextRecheck = now + properties.getGapTimeout().toNanos();
+        long lateChangeTimeout = properties.getLateChangeTimeout().toNanos();
+        skipped.values().removeIf(since -> now - since >= lateChangeTimeout);
+        if (skipped.isEmpty()) {
+            return;
+        }
+        List<Long> ids = skipped.keySet().stream().limit(properties.getPollBatchSize()).collect(Collectors.toList());
+        List<Long> late = songChangeRepository.findExistingIds(ids);
+        if (!late.isEmpty()) {
+            late.forEach(skipped::remove);
+            lateChanges.add(late.size());
+            log.info("Song changes {} committed after they were skipped, subscribers reset", late);
+            reset();
+        }
+    }
+
+    /**
+     * Every subscriber reloads the songs : a change before lastId was not streamed.
+     */
+    private void reset() {
+        synchronized (replay) {
+            replay.clear();
+            ObjectNode data = objectMapper.createObjectNode();
+            data.put("lastEventId", lastId);
+            Set<ResponseBodyEmitter.DataWithMediaType> frame = resetFrame(data);
+            subscribers.forEach(subscriber -> send(subscriber, frame));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${playlist.songs.changes.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        subscribers.forEach(subscriber -> send(subscriber, heartbeat));
+    }
+
+    @Scheduled(fixedDelayString = "${playlist.songs.changes.purge-interval-ms:3600000}")
+    public void purge() {
+        int deleted = songChangeRepository.deleteChangesBefore(Instant.now().minus(properties.getRetention()));
+        if (deleted > 0) {
+            log.info("Song changes purged: {} rows older than {}", deleted, properties.getRetention());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdown();
+    }
+
+    public int getSubscribers() {
+        return subscribers.size();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getLastId() {
+        return lastId;
+    }
+
+    public long getLateChanges() {
+        return lateChanges.sum();
+    }
+
+    private void publish(Change change) {
+        synchronized (replay) {
+            lastId = change.id;
+            replay.addLast(change);
+            if (replay.size() > properties.getReplaySize()) {
+                replay.removeFirst();
+            }
+            for (Subscriber subscriber : subscribers) {
+                if (change.id > subscriber.after) {
+                    send(subscriber, change.frame);
+                }
+            }
+        }
+    }
+
+    private void send(Subscriber subscriber, Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+        if (!subscriber.offer(frame)) {
+            evict(subscriber);
+        }
+        schedule(subscriber);
+    }
+
+    private void evict(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            evictions.increment();
+            subscriber.evicted = true;
+            log.debug("Slow song change subscriber disconnected, {} changes queued", subscriber.queue.size());
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    /**
+     * Runs on one sender at a time per subscriber (scheduled flag), until its queue is empty.
+     */
+    private void drain(Subscriber subscriber) {
+        try {
+            while (true) {
+                if (subscriber.evicted) {
+                    subscriber.emitter.complete();
+                    return;
+                }
+                Set<ResponseBodyEmitter.DataWithMediaType> frame = subscriber.queue.poll();
+                if (frame == null) {
+                    subscriber.scheduled.set(false);
+                    if ((subscriber.queue.isEmpty() && !subscriber.evicted) || !subscriber.scheduled.compareAndSet(false, true)) {
+                        return;
+                    }
+                    continue;
+                }
+                subscriber.emitter.send(frame);
+            }
+        } catch (IOException | IllegalStateException e) {
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        }
+    }
+
+    private Set<ResponseBodyEmitter.DataWithMediaType> frame(SongChange change) {
+        ObjectNode data = objectMapper.createObjectNode();
+        data.put("type", change.getType().name());
+        data.put("songId", change.getSongId());
+        if (change.getPayload() != null) {
+            data.putRawValue("song", new RawValue(change.getPayload()));
+        }
+        return SseEmitter.event()
+                .id(String.valueOf(change.getId()))
+                .name(change.getType().name().toLowerCase())
+                .data(toJson(data), MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    /**
+     * The changes after lastEventId are not in memory anymore : the subscriber reloads the songs.
+     */
+    private Set<ResponseBodyEmitter.DataWithMediaType> resetFrame(long lastEventId) {
+        ObjectNode data = objectMapper.createObjectNode();
+        data.put("lastEventId", lastEventId);
+        return resetFrame(data);
+    }
+
+    private Set<ResponseBodyEmitter.DataWithMediaType> resetFrame(ObjectNode data) {
+        return SseEmitter.event()
+                .id(String.valueOf(lastId))
+                .name(RESET_EVENT)
+                .data(toJson(data), MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    private String toJson(ObjectNode data) {
+        try {
+            return objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Change {
+        private final long id;
+        private final Set<ResponseBodyEmitter.DataWithMediaType> frame;
+
+        private Change(long id, Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+            this.id = id;
+            this.frame = frame;
+        }
+    }
+
+    private static final class Subscriber {
+        private final SongChangeEmitter emitter;
+        private final ArrayBlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final long after;
+        private volatile boolean evicted;
+
+        private Subscriber(SongChangeEmitter emitter, int bufferSize, Long lastEventId) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+            this.after = lastEventId == null ? Long.MIN_VALUE : lastEventId;
+        }
+
+        private boolean offer(Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+            return queue.offer(frame);
+        }
+    }
+}
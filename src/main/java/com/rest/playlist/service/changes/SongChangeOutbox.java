@@ -0,0 +1,32 @@
+package com.rest.playlist.service.changes;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rest.playlist.model.SongChange;
+import com.rest.playlist.repository.SongChangeRepository;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * SongChangeOutbox class writes each SongChangedEvent to song_changes just before the commit of its transaction :
+ * the change and its outbox row are committed or rolled back together, a rolled back write is never fed.
+ */
+public class SongChangeOutbox {
+
+    private final SongChangeRepository songChangeRepository;
+    private final ObjectMapper objectMapper;
+
+    public SongChangeOutbox(SongChangeRepository songChangeRepository, ObjectMapper objectMapper) {
+        this.songChangeRepository = songChangeRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void write(SongChangedEvent event) throws JsonProcessingException {
+        SongChange change = new SongChange();
+        change.setType(event.getType());
+        change.setSongId(event.getSongId());
+        change.setPayload(event.getSong() == null ? null : objectMapper.writeValueAsString(event.getSong()));
+        event.setChangeId(songChangeRepository.save(change).getId());
+    }
+}
@@ -0,0 +1,36 @@
+package com.rest.playlist.service.changes;
+
+import com.rest.playlist.enums.SongChangeType;
+import com.rest.playlist.model.Song;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Published by SongServiceImpl inside the transaction of a write, the listeners choose their phase
+ * (SongChangeOutbox writes it before the commit).
+ */
+
+@Getter
+public class SongChangedEvent {
+
+    private final SongChangeType type;
+    private final Long songId;
+
+    /**
+     * The song after the change, null for DELETED.
+     */
+    private final Song song;
+
+    /**
+     * Id of the song_changes row, set by SongChangeOutbox before the commit : a version of the song ordered
+     * across the nodes.
+     */
+    @Setter
+    private Long changeId;
+
+    public SongChangedEvent(SongChangeType type, Long songId, Song song) {
+        this.type = type;
+        this.songId = songId;
+        this.song = song;
+    }
+}
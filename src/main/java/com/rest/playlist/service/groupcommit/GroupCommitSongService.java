@@ -0,0 +1,76 @@
+package com.rest.playlist.service.groupcommit;
+
+import com.rest.playlist.enums.SongField;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.service.ISongService;
+import org.springframework.data.domain.Page;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * GroupCommitSongService class is the ISongService of the write-behind mode (playlist.songs.write-behind.enabled) :
+ * createSong goes through the SongWriteBuffer, the other methods to SongServiceImpl.
+ * A song created inside a transaction of the caller is created in that transaction, it cannot be grouped.
+ */
+
+public class GroupCommitSongService implements ISongService {
+
+    private final ISongService songService;
+    private final SongWriteBuffer writeBuffer;
+
+    public GroupCommitSongService(ISongService songService, SongWriteBuffer writeBuffer) {
+        this.songService = songService;
+        this.writeBuffer = writeBuffer;
+    }
+
+    @Override
+    public Page<Song> getAllSongs(int page, int size) {
+        return songService.getAllSongs(page, size);
+    }
+
+    @Override
+    public Page<Song> getSongsByCategory(String category, int page, int size) {
+        return songService.getSongsByCategory(category, page, size);
+    }
+
+    @Override
+    public Page<Map<String, Object>> getSongFieldsByCategory(String category, Set<SongField> fields, int page, int size) {
+        return songService.getSongFieldsByCategory(category, fields, page, size);
+    }
+
+    @Override
+    public Page<Song> getSongsByArtistName(String artistName, int page, int size) {
+        return songService.getSongsByArtistName(artistName, page, size);
+    }
+
+    @Override
+    public Song getSongById(Long id) {
+        return songService.getSongById(id);
+    }
+
+    @Override
+    public Map<Long, Song> getSongsByIds(Collection<Long> ids) {
+        return songService.getSongsByIds(ids);
+    }
+
+    @Override
+    public Song createSong(Song song) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return songService.createSong(song);
+        }
+        return writeBuffer.write(song);
+    }
+
+    @Override
+    public Song updateSong(Song song) {
+        return songService.updateSong(song);
+    }
+
+    @Override
+    public void deleteSongById(Long id) {
+        songService.deleteSongById(id);
+    }
+}
@@ -0,0 +1,231 @@
+package com.rest.playlist.service.groupcommit;
+
+import com.rest.playlist.model.Song;
+import com.rest.playlist.service.ISongService;
+import com.rest.playlist.web.exception.GatewayTimeoutException;
+import com.rest.playlist.web.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * SongWriteBuffer class commits the created songs by groups : the callers enqueue their song in a bounded buffer
+ * and wait, a writer thread creates the songs of up to batchSize callers (or of those arrived within maxDelay)
+ * in one transaction, the inserts being sent in JDBC batches (hibernate.jdbc.batch_size). Each caller returns
+ * once the transaction of its song is committed, as with one transaction per song.
+ * When a group fails, its songs are created again one transaction each : a bad song fails alone.
+ * The songs are put in the "songs" cache, and the pages evicted, after the commit of their group only.
+ * A caller whose song is not committed within writeTimeout takes it back from the buffer when the writer has not
+ * taken it yet (503, retry) ; otherwise its song may still commit and the caller is answered 504, without retry.
+ */
+
+public class SongWriteBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(SongWriteBuffer.class);
+
+    private final ISongService songService;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingSong> queue;
+    private final int batchSize;
+    private final Duration maxDelay;
+    private final Duration enqueueTimeout;
+    private final Duration writeTimeout;
+    private final DistributionSummary batchSizes;
+    private final Timer commitTimer;
+    private volatile boolean running;
+    private Thread writer;
+
+    public SongWriteBuffer(ISongService songService, TransactionTemplate transactionTemplate, int capacity, int batchSize, Duration maxDelay, Duration enqueueTimeout,
+                           Duration writeTimeout, MeterRegistry meterRegistry) {
+        this.songService = songService;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.maxDelay = maxDelay;
+        this.enqueueTimeout = enqueueTimeout;
+        this.writeTimeout = writeTimeout;
+        this.batchSizes = DistributionSummary.builder("playlist.songs.write.behind.batch.size")
+                .description("Songs created per transaction")
+                .register(meterRegistry);
+        this.commitTimer = Timer.builder("playlist.songs.write.behind.commit")
+                .description("Creation and commit of a group of songs")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public void start() {
+        running = true;
+        writer = new Thread(this::writeLoop, "song-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Writes the songs still buffered, the callers of the songs submitted afterwards are answered 503.
+     */
+    public void stop() {
+        running = false;
+        if (writer != null) {
+            try {
+                writer.join(writeTimeout.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        PendingSong pending;
+        while ((pending = queue.poll()) != null) {
+            pending.future.completeExceptionally(new ServiceUnavailableException("Song writer stopped"));
+        }
+    }
+
+    /**
+     * @return the song once created and committed
+     * @throws ServiceUnavailableException when the song is not created : buffer full, writer stopped or song taken back
+     * @throws GatewayTimeoutException     when the writer took the song but did not commit it within writeTimeout
+     */
+    public Song write(Song song) {
+        PendingSong pending = new PendingSong(song);
+        try {
+            if (!running || !queue.offer(pending, enqueueTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new ServiceUnavailableException("Too many songs being created, retry later");
+            }
+            return pending.future.get(writeTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Song creation interrupted");
+        } catch (TimeoutException e) {
+            if (queue.remove(pending)) {
+                throw new ServiceUnavailableException("Song creation not started after " + writeTimeout + ", retry later");
+            }
+            if (pending.future.isDone()) {
+                return result(pending);
+            }
+            throw new GatewayTimeoutException("Song creation not committed after " + writeTimeout + ", it may still be");
+        } catch (ExecutionException e) {
+            throw failure(e);
+        }
+    }
+
+    private static Song result(PendingSong pending) {
+        try {
+            return pending.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Song creation interrupted");
+        } catch (ExecutionException e) {
+            throw failure(e);
+        }
+    }
+
+    private static RuntimeException failure(ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+            return (RuntimeException) e.getCause();
+        }
+        return new IllegalStateException(e.getCause());
+    }
+
+    public int getBuffered() {
+        return queue.size();
+    }
+
+    private void writeLoop() {
+        List<PendingSong> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingSong first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelay.toNanos();
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    PendingSong next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Song writer failure", e);
+                batch.forEach(pending -> pending.future.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingSong> batch) {
+        batchSizes.record(batch.size());
+        List<Song> created;
+        try {
+            created = commitTimer.record(() -> transactionTemplate.execute(status -> {
+                List<Song> songs = new ArrayList<>(batch.size());
+                for (PendingSong pending : batch) {
+                    songs.add(songService.createSong(pending.song));
+                }
+                return songs;
+            }));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                forgetRolledBack(batch);
+                batch.get(0).future.completeExceptionally(e);
+                return;
+            }
+            log.warn("Group of {} songs rolled back, created again one by one: {}", batch.size(), e.toString());
+            forgetRolledBack(batch);
+            for (PendingSong pending : batch) {
+                try {
+                    pending.future.complete(transactionTemplate.execute(status -> songService.createSong(pending.song)));
+                } catch (RuntimeException songFailure) {
+                    forgetRolledBack(List.of(pending));
+                    pending.future.completeExceptionally(songFailure);
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).future.complete(created.get(i));
+        }
+    }
+
+    /**
+     * The ids given to the songs of a rolled back transaction are discarded. Their cache puts wait for the commit
+     * (see CacheConfig), they never ran.
+     */
+    private void forgetRolledBack(List<PendingSong> batch) {
+        for (PendingSong pending : batch) {
+            pending.song.setId(null);
+        }
+    }
+
+    private static final class PendingSong {
+
+        private final Song song;
+        private final CompletableFuture<Song> future = new CompletableFuture<>();
+
+        private PendingSong(Song song) {
+            this.song = song;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.rest.playlist.service.invalidation;
+
+import com.rest.playlist.enums.SongChangeType;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * A committed change of a song, to be applied to the caches of the other nodes.
+ */
+
+@Getter
+@Setter
+public class Invalidation {
+
+    private SongChangeType type;
+
+    private long songId;
+
+    /**
+     * Id of the change in the song_changes outbox, 0 when unknown : an older version of a song is ignored.
+     */
+    private long version;
+
+    /**
+     * Commit time on the sending node (epoch millis), for the propagation lag.
+     */
+    private long committedAt;
+
+    public Invalidation() {
+    }
+
+    public Invalidation(SongChangeType type, long songId, long version, long committedAt) {
+        this.type = type;
+        this.songId = songId;
+        this.version = version;
+        this.committedAt = committedAt;
+    }
+}
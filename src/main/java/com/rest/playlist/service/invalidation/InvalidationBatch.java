@@ -0,0 +1,20 @@
+package com.rest.playlist.service.invalidation;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The message of the transport : the invalidations committed by a node during the batch delay.
+ */
+
+@Getter
+@Setter
+public class InvalidationBatch {
+
+    private String node;
+
+    private List<Invalidation> invalidations = new ArrayList<>();
+}
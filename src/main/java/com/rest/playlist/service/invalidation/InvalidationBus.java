@@ -0,0 +1,224 @@
+package com.rest.playlist.service.invalidation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rest.playlist.enums.SongChangeType;
+import com.rest.playlist.service.SongIdFilter;
+import com.rest.playlist.service.SongServiceImpl;
+import com.rest.playlist.service.changes.SongChangedEvent;
+import com.rest.playlist.web.compression.CompressedResponseCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * InvalidationBus class keeps the caches of the other nodes in sync with the song writes of this one.
+ * <p>
+ * After the commit of a write, its invalidation is queued; the invalidations of batchDelay are sent as one message
+ * (at most maxBatchSize each). A node receiving a message evicts the songs from its "songs" cache, updates its
+ * SongIdFilter and clears its song page cache and compressed response cache once per message. It ignores its own messages,
+ * and the invalidations of a song older than the last version it has seen (messages out of order).
+ */
+public class InvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(InvalidationBus.class);
+
+    private final InvalidationTransport transport;
+    private final ObjectMapper objectMapper;
+    private final CacheManager cacheManager;
+    private final SongIdFilter songIdFilter;
+    private final Cache songPageCache;
+    private final CompressedResponseCache responseCache;
+    private final Duration batchDelay;
+    private final int maxBatchSize;
+    private final String node = UUID.randomUUID().toString();
+    private final Queue<Invalidation> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService sender;
+    private final Map<Long, Long> versions;
+    private final Counter sent;
+    private final Counter received;
+    private final Counter stale;
+    private final Timer lag;
+
+    /**
+     * @param songPageCache null when the page cache is disabled
+     * @param responseCache null when the response cache is disabled
+     */
+    public InvalidationBus(InvalidationTransport transport, ObjectMapper objectMapper, CacheManager cacheManager,
+                           SongIdFilter songIdFilter, Cache songPageCache, CompressedResponseCache responseCache,
+                           Duration batchDelay,
+                           int maxBatchSize, long trackedVersions, MeterRegistry meterRegistry) {
+        this.transport = transport;
+        this.objectMapper = objectMapper;
+        this.cacheManager = cacheManager;
+        this.songIdFilter = songIdFilter;
+        this.songPageCache = songPageCache;
+        this.responseCache = responseCache;
+        this.batchDelay = batchDelay;
+        this.maxBatchSize = maxBatchSize;
+        this.sender = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "invalidation-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.versions = Caffeine.newBuilder().maximumSize(trackedVersions).<Long, Long>build().asMap();
+        this.sent = Counter.builder("playlist.invalidation.messages")
+                .tag("direction", "sent")
+                .description("Invalidation messages of the cache invalidation bus")
+                .register(meterRegistry);
+        this.received = Counter.builder("playlist.invalidation.messages")
+                .tag("direction", "received")
+                .description("Invalidation messages of the cache invalidation bus")
+                .register(meterRegistry);
+        this.stale = Counter.builder("playlist.invalidation.stale")
+                .description("Invalidations ignored because a newer version of the song was seen")
+                .register(meterRegistry);
+        this.lag = Timer.builder("playlist.invalidation.lag")
+                .description("Time from the commit on the sending node to the invalidation on this node")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public void start() {
+        transport.start(this::receive, this::invalidateAll);
+    }
+
+    public void stop() {
+        sender.shutdown();
+        try {
+            sender.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        transport.stop();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onSongChanged(SongChangedEvent event) {
+        long version = event.getChangeId() == null ? 0 : event.getChangeId();
+        if (version > 0) {
+            versions.merge(event.getSongId(), version, Math::max);
+        }
+        pending.add(new Invalidation(event.getType(), event.getSongId(), version, System.currentTimeMillis()));
+        if (flushScheduled.compareAndSet(false, true)) {
+            sender.schedule(this::flush, batchDelay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Sends the pending invalidations, maxBatchSize per message.
+     */
+    void flush() {
+        flushScheduled.set(false);
+        InvalidationBatch batch = new InvalidationBatch();
+        batch.setNode(node);
+        Invalidation invalidation;
+        while ((invalidation = pending.poll()) != null) {
+            batch.getInvalidations().add(invalidation);
+            if (batch.getInvalidations().size() == maxBatchSize) {
+                send(batch);
+                batch.getInvalidations().clear();
+            }
+        }
+        if (!batch.getInvalidations().isEmpty()) {
+            send(batch);
+        }
+    }
+
+    void receive(String message) {
+        InvalidationBatch batch;
+        try {
+            batch = objectMapper.readValue(message, InvalidationBatch.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Invalidation message ignored: {}", e.getMessage());
+            return;
+        }
+        if (node.equals(batch.getNode())) {
+            return;
+        }
+        received.increment();
+        long now = System.currentTimeMillis();
+        Cache songs = cacheManager.getCache(SongServiceImpl.SONG_CACHE);
+        for (Invalidation invalidation : batch.getInvalidations()) {
+            lag.record(Duration.ofMillis(Math.max(0, now - invalidation.getCommittedAt())));
+            if (!isLatest(invalidation)) {
+                stale.increment();
+                continue;
+            }
+            if (songs != null) {
+                songs.evict(invalidation.getSongId());
+            }
+            if (invalidation.getType() == SongChangeType.CREATED) {
+                songIdFilter.add(invalidation.getSongId());
+            } else if (invalidation.getType() == SongChangeType.DELETED) {
+                songIdFilter.removeAfterCommit(invalidation.getSongId());
+            }
+        }
+        if (songPageCache != null) {
+            songPageCache.clear();
+        }
+        if (responseCache != null) {
+            responseCache.invalidateAll();
+        }
+    }
+
+    /**
+     * Messages may have been lost : nothing cached can be trusted.
+     */
+    void invalidateAll() {
+        Cache songs = cacheManager.getCache(SongServiceImpl.SONG_CACHE);
+        if (songs != null) {
+            songs.clear();
+        }
+        if (songPageCache != null) {
+            songPageCache.clear();
+        }
+        if (responseCache != null) {
+            responseCache.invalidateAll();
+        }
+    }
+
+    private boolean isLatest(Invalidation invalidation) {
+        if (invalidation.getVersion() == 0) {
+            return true;
+        }
+        boolean[] latest = {false};
+        versions.compute(invalidation.getSongId(), (songId, seen) -> {
+            if (seen != null && seen >= invalidation.getVersion()) {
+                return seen;
+            }
+            latest[0] = true;
+            return invalidation.getVersion();
+        });
+        return latest[0];
+    }
+
+    private void send(InvalidationBatch batch) {
+        try {
+            transport.send(objectMapper.writeValueAsString(batch));
+            sent.increment();
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("{} invalidations not sent, the other nodes serve them from their caches until expiry: {}",
+                    batch.getInvalidations().size(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.rest.playlist.service.invalidation;
+
+import java.util.function.Consumer;
+
+/**
+ * InvalidationTransport interface broadcasts the messages of the InvalidationBus to every node, including the sender.
+ */
+public interface InvalidationTransport {
+
+    /**
+     * @param receiver       called with each message, on a thread of the transport
+     * @param onMessagesLost called when messages may have been missed (reconnection) : every cache is cleared
+     */
+    void start(Consumer<String> receiver, Runnable onMessagesLost);
+
+    void send(String message);
+
+    void stop();
+}
@@ -0,0 +1,29 @@
+package com.rest.playlist.service.invalidation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * LoopbackInvalidationTransport class delivers the messages in the JVM, synchronously, to every bus started on it :
+ * a single node, or several buses sharing this transport in a test.
+ */
+public class LoopbackInvalidationTransport implements InvalidationTransport {
+
+    private final List<Consumer<String>> receivers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void start(Consumer<String> receiver, Runnable onMessagesLost) {
+        receivers.add(receiver);
+    }
+
+    @Override
+    public void send(String message) {
+        receivers.forEach(receiver -> receiver.accept(message));
+    }
+
+    @Override
+    public void stop() {
+        receivers.clear();
+    }
+}
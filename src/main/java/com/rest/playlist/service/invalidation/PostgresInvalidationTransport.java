@@ -0,0 +1,118 @@
+package com.rest.playlist.service.invalidation;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * PostgresInvalidationTransport class broadcasts the messages with PostgreSQL NOTIFY (through the pool,
+ * after the commit of the changes) and receives them on a dedicated connection which LISTENs to the channel :
+ * it is held for the life of the application, so it is opened outside the pool.
+ * The notifications sent while the connection is down are lost, onMessagesLost is called after each reconnection.
+ * A NOTIFY payload is limited to 8000 bytes (see playlist.invalidation.max-batch-size).
+ */
+public class PostgresInvalidationTransport implements InvalidationTransport {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresInvalidationTransport.class);
+
+    private static final int POLL_TIMEOUT_MS = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String channel;
+    private final Duration reconnectDelay;
+    private volatile boolean running;
+    private Thread listener;
+
+    public PostgresInvalidationTransport(JdbcTemplate jdbcTemplate, String url, String username, String password,
+                                         String channel, Duration reconnectDelay) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid notification channel: " + channel);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.channel = channel;
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    @Override
+    public void start(Consumer<String> receiver, Runnable onMessagesLost) {
+        running = true;
+        listener = new Thread(() -> listen(receiver, onMessagesLost), "invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    public void send(String message) {
+        jdbcTemplate.query("select pg_notify(?, ?)", rs -> null, channel, message);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    private void listen(Consumer<String> receiver, Runnable onMessagesLost) {
+        boolean connected = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                if (connected) {
+                    log.info("Invalidation channel {} listened again, the caches are cleared", channel);
+                    onMessagesLost.run();
+                }
+                connected = true;
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(receiver, notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Invalidation channel {} not listened, retried in {}: {}", channel, reconnectDelay, e.getMessage());
+                    sleep();
+                }
+            }
+        }
+    }
+
+    private static void receive(Consumer<String> receiver, String message) {
+        try {
+            receiver.accept(message);
+        } catch (RuntimeException e) {
+            log.warn("Invalidation message not applied: {}", e.getMessage());
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(reconnectDelay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.rest.playlist.service.plays;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * PlayCountWriteAheadLog class appends each play (the song id, 8 bytes) to a segment file before it is counted.
+ * The appends go to striped buffers, one stripe per thread hash : two request threads contend only when they
+ * share a stripe, and an append never touches the disk. A single writer, sync() every sync interval,
+ * writes the buffers and forces them to the disk : a crash loses the plays of the last interval at most,
+ * instead of every play not flushed to the database.
+ * <p>
+ * A flush seals the current segment at the exact cut of the drained plays (rotate, under the locks of every stripe),
+ * the sealed segments are deleted once their plays are committed. At startup the segments left by a crash are replayed.
+ * A crash between the commit and the deletion replays a committed segment : the plays are counted at least once.
+ * <p>
+ * The directory belongs to one instance : open() locks it, a second instance on the same directory fails to start
+ * instead of replaying and deleting the segments of the first one.
+ * ReentrantLocks rather than synchronized : the disk writes would pin the carrier of a virtual thread.
+ */
+public class PlayCountWriteAheadLog implements Closeable {
+
+    private static final String PREFIX = "plays-";
+    private static final String SUFFIX = ".wal";
+    private static final String LOCK = "wal.lock";
+
+    private final Path directory;
+    private final int bufferSize;
+    private final Stripe[] stripes;
+    private final ConcurrentLinkedQueue<ByteBuffer> filled = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock writer = new ReentrantLock();
+    private final List<Path> sealed = new ArrayList<>();
+    private long sequence;
+    private Path segment;
+    private FileChannel channel;
+    private FileChannel lockChannel;
+
+    public PlayCountWriteAheadLog(Path directory, int bufferSize) {
+        this(directory, bufferSize, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1);
+    }
+
+    /**
+     * @param bufferSize size of the buffer of each stripe
+     * @param stripes    rounded up to a power of two
+     */
+    public PlayCountWriteAheadLog(Path directory, int bufferSize, int stripes) {
+        this.directory = directory;
+        this.bufferSize = Math.max(Long.BYTES, bufferSize - bufferSize % Long.BYTES);
+        this.stripes = new Stripe[Integer.highestOneBit(Math.max(1, stripes) * 2 - 1)];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new Stripe(ByteBuffer.allocate(this.bufferSize));
+        }
+    }
+
+    /**
+     * Locks the directory and reads the segments left by the previous run, they stay sealed until the first committed flush.
+     *
+     * @return plays by song id
+     * @throws IllegalStateException when another instance holds the directory
+     */
+    public Map<Long, Long> open() throws IOException {
+        Files.createDirectories(directory);
+        lockDirectory();
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            stream.forEach(segments::add);
+        }
+        segments.sort(null);
+        Map<Long, Long> plays = new HashMap<>();
+        for (Path path : segments) {
+            sequence = Math.max(sequence, sequenceOf(path));
+            replay(path, plays);
+        }
+        writer.lock();
+        try {
+            sealed.addAll(segments);
+            openSegment();
+        } finally {
+            writer.unlock();
+        }
+        return plays;
+    }
+
+    /**
+     * Logs the play, then counts it : the counting runs under the lock of the stripe, so rotate() cuts between two plays.
+     * A full buffer is handed to the writer and replaced, the append does no I/O.
+     */
+    public void append(long songId, Runnable count) {
+        Stripe stripe = stripes[(int) (Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L >>> 32) & (stripes.length - 1)];
+        stripe.lock.lock();
+        try {
+            if (stripe.buffer.remaining() < Long.BYTES) {
+                filled.add(stripe.buffer);
+                stripe.buffer = emptyBuffer();
+            }
+            stripe.buffer.putLong(songId);
+            count.run();
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the buffered plays and forces them to the disk.
+     */
+    public void sync() throws IOException {
+        writer.lock();
+        try {
+            Deque<ByteBuffer> buffers = new ArrayDeque<>();
+            for (Stripe stripe : stripes) {
+                stripe.lock.lock();
+                try {
+                    takeBuffer(stripe, buffers);
+                } finally {
+                    stripe.lock.unlock();
+                }
+            }
+            takeFilled(buffers);
+            write(buffers);
+            channel.force(false);
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    /**
+     * Seals the current segment and drains the counters at the same cut : every play of the sealed segments
+     * is in the drained plays or was committed before. The stripes are locked only to take their buffers and drain,
+     * the segment is written after. When it cannot be written, the drained plays are restored.
+     */
+    public <T> T rotate(Supplier<T> drain, Consumer<T> restore) throws IOException {
+        writer.lock();
+        try {
+            Deque<ByteBuffer> buffers = new ArrayDeque<>();
+            T drained;
+            for (Stripe stripe : stripes) {
+                stripe.lock.lock();
+            }
+            try {
+                for (Stripe stripe : stripes) {
+                    takeBuffer(stripe, buffers);
+                }
+                takeFilled(buffers);
+                drained = drain.get();
+            } finally {
+                for (Stripe stripe : stripes) {
+                    stripe.lock.unlock();
+                }
+            }
+            try {
+                write(buffers);
+                channel.force(false);
+                channel.close();
+                sealed.add(segment);
+                openSegment();
+            } catch (IOException e) {
+                restore.accept(drained);
+                throw e;
+            }
+            return drained;
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    /**
+     * Deletes the sealed segments, their plays are committed.
+     */
+    public void commit() throws IOException {
+        List<Path> committed;
+        writer.lock();
+        try {
+            committed = new ArrayList<>(sealed);
+            sealed.clear();
+        } finally {
+            writer.unlock();
+        }
+        for (Path path : committed) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.lock();
+        try {
+            if (channel != null && channel.isOpen()) {
+                sync();
+                channel.close();
+            }
+            if (lockChannel != null) {
+                lockChannel.close();
+            }
+        } finally {
+            writer.unlock();
+        }
+    }
+
+    private void lockDirectory() throws IOException {
+        lockChannel = FileChannel.open(directory.resolve(LOCK), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            lockChannel = null;
+            throw new IllegalStateException("Play count log directory " + directory.toAbsolutePath()
+                    + " is used by another instance, each instance needs its own playlist.plays.wal.directory");
+        }
+    }
+
+    private void openSegment() throws IOException {
+        segment = directory.resolve(String.format("%s%019d%s", PREFIX, ++sequence, SUFFIX));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    private void takeBuffer(Stripe stripe, Deque<ByteBuffer> buffers) {
+        if (stripe.buffer.position() > 0) {
+            buffers.add(stripe.buffer);
+            stripe.buffer = emptyBuffer();
+        }
+    }
+
+    private void takeFilled(Deque<ByteBuffer> buffers) {
+        ByteBuffer buffer;
+        while ((buffer = filled.poll()) != null) {
+            buffers.add(buffer);
+        }
+    }
+
+    private ByteBuffer emptyBuffer() {
+        ByteBuffer buffer = free.poll();
+        return buffer != null ? buffer : ByteBuffer.allocate(bufferSize);
+    }
+
+    /**
+     * The buffers not written when the channel fails are handed back to the writer, the next sync retries them.
+     */
+    private void write(Deque<ByteBuffer> buffers) throws IOException {
+        try {
+            while (!buffers.isEmpty()) {
+                ByteBuffer buffer = buffers.peek();
+                buffer.flip();
+                try {
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                } finally {
+                    buffer.compact();
+                }
+                free.add(buffers.poll());
+            }
+        } finally {
+            filled.addAll(buffers);
+        }
+    }
+
+    /**
+     * A torn record at the end of the segment (crash during a write) is ignored.
+     */
+    private static void replay(Path path, Map<Long, Long> plays) throws IOException {
+        ByteBuffer records = ByteBuffer.allocate(64 * 1024);
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (in.read(records) > 0) {
+                records.flip();
+                while (records.remaining() >= Long.BYTES) {
+                    plays.merge(records.getLong(), 1L, Long::sum);
+                }
+                records.compact();
+            }
+        }
+    }
+
+    private static long sequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private ByteBuffer buffer;
+
+        private Stripe(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.rest.playlist.service.plays;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * PlayCounters class counts the plays of each song in memory : one LongAdder per song, striped across cells
+ * under contention, so the plays of a hot song never serialize the request threads.
+ * The adders are never reset : a flush takes the delta between their sum and the sum flushed before,
+ * a play recorded while the flush runs is in this delta or in the next one, never lost nor counted twice.
+ * The counters of a song are removed once it is known not to exist (deleted, or an id no row matched) :
+ * the map holds the songs played on this node, not every id a client sent.
+ */
+public class PlayCounters {
+
+    private final ConcurrentHashMap<Long, LongAdder> plays = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> flushed = new ConcurrentHashMap<>();
+    private final LongAdder recorded = new LongAdder();
+
+    public void add(long songId, long count) {
+        LongAdder adder = plays.get(songId);
+        if (adder == null) {
+            adder = plays.computeIfAbsent(songId, id -> new LongAdder());
+        }
+        adder.add(count);
+        recorded.add(count);
+    }
+
+    /**
+     * Takes the plays recorded since the previous drain, they are flushed until committed or restored.
+     */
+    public synchronized Map<Long, Long> drain() {
+        Map<Long, Long> deltas = new HashMap<>();
+        plays.forEach((songId, adder) -> {
+            long sum = adder.sum();
+            long delta = sum - flushed.getOrDefault(songId, 0L);
+            if (delta > 0) {
+                deltas.put(songId, delta);
+                flushed.put(songId, sum);
+            }
+        });
+        return deltas;
+    }
+
+    /**
+     * Gives back drained plays which could not be written, the next drain takes them again.
+     */
+    public synchronized void restore(Map<Long, Long> deltas) {
+        deltas.forEach((songId, delta) -> flushed.computeIfPresent(songId, (id, sum) -> sum - delta));
+    }
+
+    /**
+     * Forgets the song : its plays not flushed yet are dropped. A play racing with the removal is dropped too,
+     * or counted by new counters which the next flush removes again.
+     */
+    public synchronized void remove(long songId) {
+        plays.remove(songId);
+        flushed.remove(songId);
+    }
+
+    /**
+     * Forgets the song when it has no play left to flush : the plays recorded since the drain stay counted.
+     */
+    public synchronized void removeFlushed(long songId) {
+        LongAdder adder = plays.get(songId);
+        if (adder != null && adder.sum() == flushed.getOrDefault(songId, 0L)) {
+            plays.remove(songId, adder);
+            flushed.remove(songId);
+        }
+    }
+
+    /**
+     * Plays of the song not drained yet.
+     */
+    public long getPending(long songId) {
+        LongAdder adder = plays.get(songId);
+        return adder == null ? 0 : Math.max(0, adder.sum() - flushed.getOrDefault(songId, 0L));
+    }
+
+    public long getPending() {
+        long pending = 0;
+        for (Long songId : plays.keySet()) {
+            pending += getPending(songId);
+        }
+        return pending;
+    }
+
+    public int getSongs() {
+        return plays.size();
+    }
+
+    public long getRecorded() {
+        return recorded.sum();
+    }
+}
@@ -0,0 +1,23 @@
+package com.rest.playlist.service.singleflight;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a read method whose concurrent identical calls are collapsed into one execution (see SingleFlightAspect) :
+ * the first caller runs the method, the callers arriving while it runs wait for its result.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface SingleFlight {
+
+    /**
+     * SpEL expression over the method arguments (#id, #p0...) identifying identical calls,
+     * all the arguments by default.
+     */
+    String key() default "";
+}
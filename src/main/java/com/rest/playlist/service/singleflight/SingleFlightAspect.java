@@ -0,0 +1,86 @@
+package com.rest.playlist.service.singleflight;
+
+import com.rest.playlist.jdbc.QueryDeadline;
+import com.rest.playlist.jdbc.ReplicaRoutingDataSource;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * SingleFlightAspect class collapses the concurrent identical calls of the @SingleFlight methods.
+ * It runs inside the cache advice (a hit never waits) and outside the transaction advice
+ * (the waiting callers hold no connection). Calls made within a transaction are not collapsed :
+ * they must see the state of their own transaction.
+ * With replica routing, the clients reading from the primary after a write are only collapsed together.
+ * <p>
+ * The shared call runs without the request deadline of its caller, under the method timeout of QueryTimeoutAspect
+ * (inside this advice) : a client declaring a short timeout does not cancel the query of the others.
+ * The collapsed callers wait until their own request deadline, then fail with QueryTimeoutException.
+ */
+
+@Aspect
+@Order(Ordered.LOWEST_PRECEDENCE - 10)
+public class SingleFlightAspect {
+
+    private final SpelExpressionParser parser = new SpelExpressionParser();
+    private final ParameterNameDiscoverer parameterNames = new DefaultParameterNameDiscoverer();
+    private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+    private final SingleFlightGroup group;
+    private final ReplicaRoutingDataSource routingDataSource;
+
+    /**
+     * @param routingDataSource null when replica routing is disabled
+     */
+    public SingleFlightAspect(SingleFlightGroup group, ReplicaRoutingDataSource routingDataSource) {
+        this.group = group;
+        this.routingDataSource = routingDataSource;
+    }
+
+    @Around("@annotation(singleFlight)")
+    public Object collapse(ProceedingJoinPoint joinPoint, SingleFlight singleFlight) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        boolean primary = routingDataSource != null && routingDataSource.readsFromPrimary();
+        Object key = Arrays.asList(method, primary, key(singleFlight, method, joinPoint));
+        QueryDeadline.Scope deadline = QueryDeadline.current();
+        Duration maxWait = deadline != null ? Duration.ofNanos(Math.max(0, deadline.remainingNanos())) : null;
+        try {
+            return group.execute(method.getName(), key, maxWait, () -> {
+                try (QueryDeadline.Scope ignored = QueryDeadline.suspend()) {
+                    return joinPoint.proceed();
+                }
+            });
+        } catch (TimeoutException e) {
+            throw new QueryTimeoutException("Query deadline of the " + deadline.getSource()
+                    + " passed while waiting for the same call of another request");
+        }
+    }
+
+    private Object key(SingleFlight singleFlight, Method method, ProceedingJoinPoint joinPoint) {
+        if (singleFlight.key().isEmpty()) {
+            return Arrays.asList(joinPoint.getArgs());
+        }
+        Expression expression = expressions.computeIfAbsent(singleFlight.key(), parser::parseExpression);
+        return expression.getValue(new MethodBasedEvaluationContext(joinPoint.getTarget(), method, joinPoint.getArgs(),
+                parameterNames));
+    }
+}
@@ -0,0 +1,85 @@
+package com.rest.playlist.service.singleflight;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * SingleFlightGroup class runs at most one call per key at a time and hands its result, or its exception,
+ * to every caller of the same key arriving while it runs.
+ * Metrics : playlist.singleflight.calls counter by name and result (executed or collapsed),
+ * the collapse ratio is collapsed / (executed + collapsed).
+ */
+
+public class SingleFlightGroup {
+
+    public interface Call {
+        Object run() throws Throwable;
+    }
+
+    private final Map<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counter> executed = new ConcurrentHashMap<>();
+    private final Map<String, Counter> collapsed = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public SingleFlightGroup(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gaugeMapSize("playlist.singleflight.in.flight", Collections.emptyList(), inFlight);
+    }
+
+    /**
+     * @param name of the call in the metrics, e.g. the method name
+     */
+    public Object execute(String name, Object key, Call call) throws Throwable {
+        return execute(name, key, null, call);
+    }
+
+    /**
+     * @param maxWait how long a collapsed caller waits for the running call, null for as long as it runs
+     * @throws TimeoutException when a collapsed caller waited maxWait
+     */
+    public Object execute(String name, Object key, Duration maxWait, Call call) throws Throwable {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            counter(collapsed, name, "collapsed").increment();
+            return await(leader, maxWait);
+        }
+
+        counter(executed, name, "executed").increment();
+        try {
+            Object result = call.run();
+            flight.complete(result);
+            return result;
+        } catch (Throwable e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> leader, Duration maxWait) throws Throwable {
+        try {
+            return maxWait == null ? leader.get() : leader.get(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Counter counter(Map<String, Counter> counters, String name, String result) {
+        return counters.computeIfAbsent(name, n -> Counter.builder("playlist.singleflight.calls")
+                .description("Calls of the single-flight methods, executed or collapsed into an in-flight call")
+                .tag("name", n)
+                .tag("result", result)
+                .register(meterRegistry));
+    }
+}
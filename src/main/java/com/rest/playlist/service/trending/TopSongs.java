@@ -0,0 +1,148 @@
+package com.rest.playlist.service.trending;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * TopSongs class keeps the most played songs of a window in a bounded ranking (Space-Saving) :
+ * when the ranking is full, a new song replaces the last one and inherits its score, so a song
+ * played steadily climbs in instead of being dropped each time. The memory is capacity entries whatever the catalog.
+ * <p>
+ * The decay is forward : a play at t adds exp((t - landmark) / meanLife), the scores never need to be decayed
+ * one by one, they are all scaled by the same factor when read. The landmark moves forward before the weights overflow.
+ */
+class TopSongs {
+
+    /**
+     * exp(50) keeps 250 orders of magnitude of headroom in a double.
+     */
+    private static final double MAX_EXPONENT = 50;
+
+    private static final Comparator<Entry> ORDER =
+            Comparator.comparingDouble((Entry entry) -> entry.weight).thenComparingLong(entry -> entry.songId);
+
+    private final int capacity;
+    private final double meanLifeMillis;
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final TreeSet<Entry> ranking = new TreeSet<>(ORDER);
+    private long landmark;
+
+    /**
+     * @param meanLifeMillis 0 for no decay
+     */
+    TopSongs(int capacity, long meanLifeMillis, long now) {
+        this.capacity = capacity;
+        this.meanLifeMillis = meanLifeMillis;
+        this.landmark = now;
+    }
+
+    synchronized void add(long songId, long plays, long now) {
+        double weight = plays * boost(now);
+        Entry entry = entries.get(songId);
+        if (entry != null) {
+            ranking.remove(entry);
+            entry.weight += weight;
+        } else {
+            if (entries.size() >= capacity) {
+                Entry last = ranking.pollFirst();
+                entries.remove(last.songId);
+                weight += last.weight;
+            }
+            entry = new Entry(songId, weight);
+            entries.put(songId, entry);
+        }
+        ranking.add(entry);
+    }
+
+    synchronized void remove(long songId) {
+        Entry entry = entries.remove(songId);
+        if (entry != null) {
+            ranking.remove(entry);
+        }
+    }
+
+    synchronized List<TrendingSong> top(int limit, long now) {
+        double decay = meanLifeMillis == 0 ? 1 : Math.exp(-(now - landmark) / meanLifeMillis);
+        List<TrendingSong> top = new ArrayList<>(Math.min(limit, ranking.size()));
+        Iterator<Entry> iterator = ranking.descendingIterator();
+        while (iterator.hasNext() && top.size() < limit) {
+            Entry entry = iterator.next();
+            top.add(new TrendingSong(entry.songId, entry.weight * decay));
+        }
+        return top;
+    }
+
+    synchronized void writeTo(DataOutput out) throws IOException {
+        out.writeLong(landmark);
+        out.writeInt(entries.size());
+        for (Entry entry : ranking) {
+            out.writeLong(entry.songId);
+            out.writeDouble(entry.weight);
+        }
+    }
+
+    /**
+     * Entries are read by ascending weight : above the capacity, the lowest ones are dropped.
+     */
+    synchronized void readFrom(DataInput in, long now) throws IOException {
+        long savedLandmark = in.readLong();
+        int size = in.readInt();
+        entries.clear();
+        ranking.clear();
+        landmark = savedLandmark;
+        for (int i = 0; i < size; i++) {
+            Entry entry = new Entry(in.readLong(), in.readDouble());
+            if (size - i <= capacity) {
+                entries.put(entry.songId, entry);
+                ranking.add(entry);
+            }
+        }
+        boost(now);
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private double boost(long now) {
+        if (meanLifeMillis == 0) {
+            return 1;
+        }
+        double exponent = (now - landmark) / meanLifeMillis;
+        if (exponent > MAX_EXPONENT) {
+            rescale(Math.exp(-exponent));
+            landmark = now;
+            exponent = 0;
+        }
+        return Math.exp(exponent);
+    }
+
+    /**
+     * Scaling can round two weights to the same value, the ranking is rebuilt rather than mutated in place.
+     */
+    private void rescale(double factor) {
+        ranking.clear();
+        for (Entry entry : entries.values()) {
+            entry.weight *= factor;
+            ranking.add(entry);
+        }
+    }
+
+    private static final class Entry {
+        private final long songId;
+        private double weight;
+
+        private Entry(long songId, double weight) {
+            this.songId = songId;
+            this.weight = weight;
+        }
+    }
+}
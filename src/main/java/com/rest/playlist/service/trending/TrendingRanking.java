@@ -0,0 +1,107 @@
+package com.rest.playlist.service.trending;
+
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.enums.TrendingWindow;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * TrendingRanking class holds a TopSongs per window, for each category and for all of them.
+ * A snapshot is written to and read from a stream, the rankings of unknown windows or categories are skipped.
+ */
+public class TrendingRanking {
+
+    private static final int FORMAT = 1;
+    private static final String ALL_CATEGORIES = "*";
+
+    private final Map<TrendingWindow, TopSongs> overall = new EnumMap<>(TrendingWindow.class);
+    private final Map<TrendingWindow, Map<SongCategory, TopSongs>> byCategory = new EnumMap<>(TrendingWindow.class);
+
+    public TrendingRanking(int capacity, long now) {
+        for (TrendingWindow window : TrendingWindow.values()) {
+            long meanLife = window.getMeanLife().toMillis();
+            overall.put(window, new TopSongs(capacity, meanLife, now));
+            Map<SongCategory, TopSongs> categories = new EnumMap<>(SongCategory.class);
+            for (SongCategory category : SongCategory.values()) {
+                categories.put(category, new TopSongs(capacity, meanLife, now));
+            }
+            byCategory.put(window, categories);
+        }
+    }
+
+    public void add(long songId, SongCategory category, long plays, long now) {
+        for (TrendingWindow window : TrendingWindow.values()) {
+            overall.get(window).add(songId, plays, now);
+            if (category != null) {
+                byCategory.get(window).get(category).add(songId, plays, now);
+            }
+        }
+    }
+
+    public void remove(long songId) {
+        for (TrendingWindow window : TrendingWindow.values()) {
+            overall.get(window).remove(songId);
+            byCategory.get(window).values().forEach(topSongs -> topSongs.remove(songId));
+        }
+    }
+
+    /**
+     * @param category null for all the categories
+     */
+    public List<TrendingSong> top(SongCategory category, TrendingWindow window, int limit, long now) {
+        TopSongs topSongs = category == null ? overall.get(window) : byCategory.get(window).get(category);
+        return topSongs.top(limit, now);
+    }
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(FORMAT);
+        out.writeInt(TrendingWindow.values().length * (SongCategory.values().length + 1));
+        for (TrendingWindow window : TrendingWindow.values()) {
+            out.writeUTF(window.name());
+            out.writeUTF(ALL_CATEGORIES);
+            overall.get(window).writeTo(out);
+            for (Map.Entry<SongCategory, TopSongs> entry : byCategory.get(window).entrySet()) {
+                out.writeUTF(window.name());
+                out.writeUTF(entry.getKey().name());
+                entry.getValue().writeTo(out);
+            }
+        }
+    }
+
+    public void readFrom(DataInputStream in, long now) throws IOException {
+        if (in.readInt() != FORMAT) {
+            throw new IOException("Unknown trending snapshot format");
+        }
+        int rankings = in.readInt();
+        for (int i = 0; i < rankings; i++) {
+            TopSongs topSongs = find(in.readUTF(), in.readUTF());
+            // a ranking which is not kept anymore is read into a throwaway TopSongs
+            (topSongs != null ? topSongs : new TopSongs(0, 0, now)).readFrom(in, now);
+        }
+    }
+
+    private TopSongs find(String windowName, String categoryName) {
+        TrendingWindow window = byName(TrendingWindow.class, windowName);
+        if (window == null) {
+            return null;
+        }
+        if (ALL_CATEGORIES.equals(categoryName)) {
+            return overall.get(window);
+        }
+        SongCategory category = byName(SongCategory.class, categoryName);
+        return category == null ? null : byCategory.get(window).get(category);
+    }
+
+    private static <E extends Enum<E>> E byName(Class<E> type, String name) {
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.rest.playlist.service.trending;
+
+import lombok.Getter;
+
+@Getter
+public class TrendingSong {
+
+    private final long songId;
+
+    /**
+     * Plays of the song, each weighted by its age in the window.
+     */
+    private final double score;
+
+    public TrendingSong(long songId, double score) {
+        this.songId = songId;
+        this.score = score;
+    }
+}
@@ -0,0 +1,68 @@
+package com.rest.playlist.web.compression;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * CompressedResponseCache class keeps the bodies of the hot GET responses together with their compressed variants,
+ * each variant is compressed once, by the first request asking for it.
+ * Metrics are published as cache.* meters with cache=http.responses.
+ */
+
+public class CompressedResponseCache {
+
+    private final Cache<String, Entry> cache;
+
+    public CompressedResponseCache(long maximumSize, Duration timeToLive, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "http.responses");
+    }
+
+    public Entry get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(String key, Entry entry) {
+        cache.put(key, entry);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public static class Entry {
+
+        private final String contentType;
+        private final byte[] body;
+        private final Map<ContentEncoding, byte[]> variants = new EnumMap<>(ContentEncoding.class);
+
+        public Entry(String contentType, byte[] body) {
+            this.contentType = contentType;
+            this.body = body;
+            this.variants.put(ContentEncoding.IDENTITY, body);
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public synchronized byte[] variant(ContentEncoding encoding, Function<byte[], byte[]> compressor) {
+            return variants.computeIfAbsent(encoding, e -> compressor.apply(body));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.rest.playlist.web.compression;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import org.springframework.util.StringUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * ContentEncoding enum lists the encodings of the http responses, by order of preference.
+ */
+
+public enum ContentEncoding {
+
+    BROTLI("br"),
+    GZIP("gzip"),
+    IDENTITY("identity");
+
+    private static final boolean BROTLI_AVAILABLE = isBrotliAvailable();
+
+    private final String token;
+
+    ContentEncoding(String token) {
+        this.token = token;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public static boolean brotliAvailable() {
+        return BROTLI_AVAILABLE;
+    }
+
+    /**
+     * Best encoding accepted by the Accept-Encoding header, an encoding with q=0 is refused.
+     */
+    public static ContentEncoding negotiate(String acceptEncoding, boolean brotliEnabled) {
+        if (!StringUtils.hasText(acceptEncoding)) {
+            return IDENTITY;
+        }
+        boolean brotli = false;
+        boolean gzip = false;
+        for (String value : acceptEncoding.split(",")) {
+            String[] parts = value.trim().split(";");
+            String coding = parts[0].trim().toLowerCase();
+            if (parts.length > 1 && parts[1].trim().replace(" ", "").matches("q=0(\\.0*)?")) {
+                continue;
+            }
+            brotli |= coding.equals("br") || coding.equals("*");
+            gzip |= coding.equals("gzip") || coding.equals("*");
+        }
+        if (brotli && brotliEnabled && BROTLI_AVAILABLE) {
+            return BROTLI;
+        }
+        return gzip ? GZIP : IDENTITY;
+    }
+
+    public byte[] encode(byte[] body, int gzipLevel, int brotliQuality) {
+        try {
+            switch (this) {
+                case BROTLI:
+                    return Encoder.compress(body, new Encoder.Parameters().setQuality(brotliQuality));
+                case GZIP:
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length / 4 + 64);
+                    try (GZIPOutputStream gzip = new LeveledGZIPOutputStream(bytes, gzipLevel)) {
+                        gzip.write(body);
+                    }
+                    return bytes.toByteArray();
+                default:
+                    return body;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isBrotliAvailable() {
+        try {
+            return Brotli4jLoader.isAvailable();
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    private static class LeveledGZIPOutputStream extends GZIPOutputStream {
+
+        LeveledGZIPOutputStream(ByteArrayOutputStream out, int level) throws IOException {
+            super(out, 8192);
+            def.setLevel(level);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.rest.playlist.web.compression;
+
+import com.rest.playlist.config.CompressionProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * ResponseCompressionFilter class compresses the api responses (brotli or gzip, following Accept-Encoding)
+ * above a minimum size. The successful GET responses of the listed endpoints are kept in a CompressedResponseCache,
+ * so a hot page is neither recomputed nor recompressed. Any successful write clears the cache,
+ * except the read-only POST endpoints.
+ */
+
+public class ResponseCompressionFilter extends OncePerRequestFilter {
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final CompressionProperties properties;
+    private final CompressedResponseCache cache;
+
+    /**
+     * @param cache null when the response cache is disabled
+     */
+    public ResponseCompressionFilter(CompressionProperties properties, CompressedResponseCache cache) {
+        this.properties = properties;
+        this.cache = cache;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (isStreaming(request) || HttpMethod.HEAD.matches(request.getMethod())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        boolean read = HttpMethod.GET.matches(request.getMethod());
+        ContentEncoding encoding = ContentEncoding.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING),
+                properties.isBrotliEnabled());
+
+        String key = read && cache != null && isCached(request) ? cacheKey(request) : null;
+        if (key != null) {
+            CompressedResponseCache.Entry entry = cache.get(key);
+            if (entry != null) {
+                response.setStatus(HttpServletResponse.SC_OK);
+                write(entry, encoding, response);
+                return;
+            }
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+        int status = wrapper.getStatus();
+        if (!read && cache != null && status < 400 && !isReadOnly(request)) {
+            cache.invalidateAll();
+        }
+
+        String contentType = wrapper.getContentType();
+        if (!isCompressible(contentType) || request.isAsyncStarted()) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+        CompressedResponseCache.Entry entry = new CompressedResponseCache.Entry(contentType, wrapper.getContentAsByteArray());
+        if (key != null && status == HttpServletResponse.SC_OK) {
+            cache.put(key, entry);
+        }
+        write(entry, encoding, response);
+    }
+
+    private void write(CompressedResponseCache.Entry entry, ContentEncoding accepted, HttpServletResponse response)
+            throws IOException {
+        ContentEncoding encoding = entry.getBody().length < properties.getMinResponseSize().toBytes()
+                ? ContentEncoding.IDENTITY : accepted;
+        byte[] body = entry.variant(encoding,
+                raw -> encoding.encode(raw, properties.getGzipLevel(), properties.getBrotliQuality()));
+
+        response.setContentType(entry.getContentType());
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (encoding != ContentEncoding.IDENTITY) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding.getToken());
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        List<String> mimeTypes = properties.getMimeTypes();
+        return mimeTypes.stream().map(MediaType::parseMediaType).anyMatch(type -> type.includes(mediaType));
+    }
+
+    private boolean isCached(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return properties.getResponseCache().getPaths().stream().anyMatch(pattern -> PATH_MATCHER.match(pattern, path));
+    }
+
+    private boolean isReadOnly(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return properties.getResponseCache().getReadOnlyPaths().stream().anyMatch(pattern -> PATH_MATCHER.match(pattern, path));
+    }
+
+    private boolean isStreaming(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE)) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return properties.getStreamingPaths().stream().anyMatch(pattern -> PATH_MATCHER.match(pattern, path));
+    }
+
+    /**
+     * The representation depends on the path, the query and the Accept header.
+     */
+    private static String cacheKey(HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(request.getRequestURI());
+        if (request.getQueryString() != null) {
+            key.append('?').append(request.getQueryString());
+        }
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return key.append(" | ").append(accept != null ? accept : MediaType.ALL_VALUE).toString();
+    }
+}
@@ -0,0 +1,163 @@
+package com.rest.playlist.web.converter;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Song;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SongProtobufCodec class writes and reads the Song and SongPage messages of src/main/proto/song.proto
+ * directly with the protobuf wire format, without generated classes nor intermediate objects.
+ */
+
+public final class SongProtobufCodec {
+
+    private static final int SONG_ID = 1;
+    private static final int SONG_TITLE = 2;
+    private static final int SONG_DESCRIPTION = 3;
+    private static final int SONG_DURATION = 4;
+    private static final int SONG_ARTIST_NAME = 5;
+    private static final int SONG_CATEGORY = 6;
+
+    private static final int PAGE_SONGS = 1;
+    private static final int PAGE_CURRENT_PAGE = 2;
+    private static final int PAGE_TOTAL_ITEMS = 3;
+    private static final int PAGE_TOTAL_PAGES = 4;
+
+    private static final int LOOKUP_SONGS = 1;
+    private static final int LOOKUP_MISSING_IDS = 2;
+
+    private SongProtobufCodec() {
+    }
+
+    public static void writeSong(Song song, CodedOutputStream output) throws IOException {
+        if (song.getId() != null) {
+            output.writeInt64(SONG_ID, song.getId());
+        }
+        writeString(output, SONG_TITLE, song.getTitle());
+        writeString(output, SONG_DESCRIPTION, song.getDescription());
+        writeString(output, SONG_DURATION, song.getDuration());
+        writeString(output, SONG_ARTIST_NAME, song.getArtistName());
+        if (song.getCategory() != null) {
+            output.writeEnum(SONG_CATEGORY, song.getCategory().ordinal() + 1);
+        }
+    }
+
+    public static int songSize(Song song) {
+        int size = 0;
+        if (song.getId() != null) {
+            size += CodedOutputStream.computeInt64Size(SONG_ID, song.getId());
+        }
+        size += stringSize(SONG_TITLE, song.getTitle());
+        size += stringSize(SONG_DESCRIPTION, song.getDescription());
+        size += stringSize(SONG_DURATION, song.getDuration());
+        size += stringSize(SONG_ARTIST_NAME, song.getArtistName());
+        if (song.getCategory() != null) {
+            size += CodedOutputStream.computeEnumSize(SONG_CATEGORY, song.getCategory().ordinal() + 1);
+        }
+        return size;
+    }
+
+    public static void writePage(List<Song> songs, int currentPage, long totalItems, int totalPages,
+                                 CodedOutputStream output) throws IOException {
+        for (Song song : songs) {
+            output.writeTag(PAGE_SONGS, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(songSize(song));
+            writeSong(song, output);
+        }
+        output.writeInt32(PAGE_CURRENT_PAGE, currentPage);
+        output.writeInt64(PAGE_TOTAL_ITEMS, totalItems);
+        output.writeInt32(PAGE_TOTAL_PAGES, totalPages);
+    }
+
+    public static void writeLookup(List<Song> songs, List<Long> missingIds, CodedOutputStream output) throws IOException {
+        for (Song song : songs) {
+            output.writeTag(LOOKUP_SONGS, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(songSize(song));
+            writeSong(song, output);
+        }
+        if (!missingIds.isEmpty()) {
+            int size = 0;
+            for (Long id : missingIds) {
+                size += CodedOutputStream.computeInt64SizeNoTag(id);
+            }
+            output.writeTag(LOOKUP_MISSING_IDS, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(size);
+            for (Long id : missingIds) {
+                output.writeInt64NoTag(id);
+            }
+        }
+    }
+
+    public static Song readSong(CodedInputStream input) throws IOException {
+        Song song = new Song();
+        while (true) {
+            int tag = input.readTag();
+            if (tag == 0) {
+                return song;
+            }
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case SONG_ID:
+                    song.setId(input.readInt64());
+                    break;
+                case SONG_TITLE:
+                    song.setTitle(input.readStringRequireUtf8());
+                    break;
+                case SONG_DESCRIPTION:
+                    song.setDescription(input.readStringRequireUtf8());
+                    break;
+                case SONG_DURATION:
+                    song.setDuration(input.readStringRequireUtf8());
+                    break;
+                case SONG_ARTIST_NAME:
+                    song.setArtistName(input.readStringRequireUtf8());
+                    break;
+                case SONG_CATEGORY:
+                    song.setCategory(toCategory(input.readEnum()));
+                    break;
+                default:
+                    input.skipField(tag);
+            }
+        }
+    }
+
+    /**
+     * Reads the songs of a SongPage message, the paging fields are skipped.
+     */
+    public static List<Song> readPageSongs(CodedInputStream input) throws IOException {
+        List<Song> songs = new ArrayList<>();
+        while (true) {
+            int tag = input.readTag();
+            if (tag == 0) {
+                return songs;
+            }
+            if (WireFormat.getTagFieldNumber(tag) == PAGE_SONGS) {
+                int limit = input.pushLimit(input.readRawVarint32());
+                songs.add(readSong(input));
+                input.popLimit(limit);
+            } else {
+                input.skipField(tag);
+            }
+        }
+    }
+
+    private static SongCategory toCategory(int number) {
+        SongCategory[] categories = SongCategory.values();
+        return number > 0 && number <= categories.length ? categories[number - 1] : null;
+    }
+
+    private static void writeString(CodedOutputStream output, int field, String value) throws IOException {
+        if (value != null && !value.isEmpty()) {
+            output.writeString(field, value);
+        }
+    }
+
+    private static int stringSize(int field, String value) {
+        return value != null && !value.isEmpty() ? CodedOutputStream.computeStringSize(field, value) : 0;
+    }
+}
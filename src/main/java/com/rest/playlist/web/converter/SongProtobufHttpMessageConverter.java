@@ -0,0 +1,92 @@
+package com.rest.playlist.web.converter;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.rest.playlist.enums.SongField;
+import com.rest.playlist.model.Song;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SongProtobufHttpMessageConverter class reads and writes application/x-protobuf bodies of SongResource :
+ * a Song, the page envelope (map with songs, currentPage, totalItems and totalPages) of the listing endpoints,
+ * or the result of the multi-get endpoints (map with songs and missingIds).
+ */
+
+public class SongProtobufHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+    public SongProtobufHttpMessageConverter() {
+        super(PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Song.class.isAssignableFrom(clazz) || Map.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return Song.class.isAssignableFrom(clazz) && canRead(mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return SongProtobufCodec.readSong(CodedInputStream.newInstance(inputMessage.getBody()));
+        } catch (IOException e) {
+            throw new HttpMessageNotReadableException("Invalid protobuf song: " + e.getMessage(), e, inputMessage);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) throws IOException {
+        CodedOutputStream output = CodedOutputStream.newInstance(outputMessage.getBody());
+        if (body instanceof Song) {
+            SongProtobufCodec.writeSong((Song) body, output);
+        } else {
+            Map<String, Object> page = (Map<String, Object>) body;
+            if (!(page.get("songs") instanceof List)) {
+                throw new HttpMessageNotWritableException("Only song pages can be written as protobuf");
+            }
+            if (page.containsKey("missingIds")) {
+                SongProtobufCodec.writeLookup(toSongs((List<?>) page.get("songs")), (List<Long>) page.get("missingIds"), output);
+            } else {
+                SongProtobufCodec.writePage(toSongs((List<?>) page.get("songs")),
+                        ((Number) page.get("currentPage")).intValue(),
+                        ((Number) page.get("totalItems")).longValue(),
+                        ((Number) page.get("totalPages")).intValue(),
+                        output);
+            }
+        }
+        output.flush();
+    }
+
+    /**
+     * The songs of a sparse fieldset page are maps of the selected attributes.
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Song> toSongs(List<?> songs) {
+        if (songs.isEmpty() || songs.get(0) instanceof Song) {
+            return (List<Song>) songs;
+        }
+        List<Song> converted = new ArrayList<>(songs.size());
+        for (Object values : songs) {
+            Song song = new Song();
+            ((Map<String, Object>) values).forEach((attribute, value) -> SongField.fromAttribute(attribute).set(song, value));
+            converted.add(song);
+        }
+        return converted;
+    }
+}
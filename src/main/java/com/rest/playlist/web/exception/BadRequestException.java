@@ -0,0 +1,16 @@
+package com.rest.playlist.web.exception;
+
+
+/**
+ * BadRequestException class extends RuntimeException.
+ * It's thrown for invalid request parameters, with Http 400
+ * Like ResourceNotFoundException, it's stackless.
+ */
+
+
+public class BadRequestException extends RuntimeException {
+
+    public BadRequestException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,92 @@
+package com.rest.playlist.web.exception;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.text.DateFormat;
+import java.util.Date;
+
+/**
+ * ErrorMessageHttpMessageConverter class writes the JSON error responses of ServiceExceptionHandler
+ * with the streaming generator : no bean introspection nor serializer lookup on the 404 path.
+ * The output is the one of the application ObjectMapper (same date format, null fields written).
+ */
+
+public class ErrorMessageHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    private final JsonFactory jsonFactory;
+    private final boolean datesAsTimestamps;
+    private final ThreadLocal<DateFormat> dateFormat;
+
+    public ErrorMessageHttpMessageConverter(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_JSON);
+        this.jsonFactory = objectMapper.getFactory();
+        this.datesAsTimestamps = objectMapper.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        DateFormat configuredFormat = objectMapper.getSerializationConfig().getDateFormat();
+        this.dateFormat = ThreadLocal.withInitial(() -> (DateFormat) configuredFormat.clone());
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ErrorMessage.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Error messages are written only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) throws IOException {
+        ErrorMessage message = (ErrorMessage) body;
+        try (JsonGenerator generator = jsonFactory.createGenerator(StreamUtils.nonClosing(outputMessage.getBody()),
+                JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeNumberField("statusCode", message.getStatusCode());
+            generator.writeFieldName("timeStamp");
+            writeDate(generator, message.getTimeStamp());
+            generator.writeStringField("message", message.getMessage());
+            generator.writeStringField("description", message.getDescription());
+            generator.writeFieldName("fieldErrors");
+            if (message.getFieldErrors() == null) {
+                generator.writeNull();
+            } else {
+                generator.writeStartArray();
+                for (FieldError fieldError : message.getFieldErrors()) {
+                    generator.writeStartObject();
+                    generator.writeStringField("objectName", fieldError.getObjectName());
+                    generator.writeStringField("field", fieldError.getField());
+                    generator.writeStringField("message", fieldError.getMessage());
+                    generator.writeEndObject();
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    private void writeDate(JsonGenerator generator, Date date) throws IOException {
+        if (date == null) {
+            generator.writeNull();
+        } else if (datesAsTimestamps) {
+            generator.writeNumber(date.getTime());
+        } else {
+            generator.writeString(dateFormat.get().format(date));
+        }
+    }
+}
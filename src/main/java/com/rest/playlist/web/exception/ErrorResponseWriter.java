@@ -0,0 +1,52 @@
+package com.rest.playlist.web.exception;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletServerHttpResponse;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Date;
+
+/**
+ * ErrorResponseWriter class writes an ErrorMessage from a servlet filter, outside of ServiceExceptionHandler,
+ * e.g. the 429 and 503 answers of the request limits, with a Retry-After header, or the idempotency conflicts.
+ */
+
+public class ErrorResponseWriter {
+
+    private final ErrorMessageHttpMessageConverter converter;
+
+    public ErrorResponseWriter(ObjectMapper objectMapper) {
+        this.converter = new ErrorMessageHttpMessageConverter(objectMapper);
+    }
+
+    public void write(HttpServletRequest request, HttpServletResponse response, HttpStatus status,
+                      String message) throws IOException {
+        write(request, response, status, -1, message);
+    }
+
+    /**
+     * @param retryAfterSeconds negative for no Retry-After header
+     */
+    public void write(HttpServletRequest request, HttpServletResponse response, HttpStatus status,
+                      long retryAfterSeconds, String message) throws IOException {
+        ErrorMessage errorMessage = ErrorMessage.builder()
+                .statusCode(status.value())
+                .timeStamp(new Date())
+                .message(message)
+                .description("uri=" + request.getRequestURI())
+                .build();
+
+        ServletServerHttpResponse httpResponse = new ServletServerHttpResponse(response);
+        httpResponse.setStatusCode(status);
+        if (retryAfterSeconds >= 0) {
+            httpResponse.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        }
+        converter.write(errorMessage, MediaType.APPLICATION_JSON, httpResponse);
+        httpResponse.flush();
+    }
+}
@@ -0,0 +1,17 @@
+package com.rest.playlist.web.exception;
+
+
+/**
+ * GatewayTimeoutException class extends RuntimeException.
+ * It's thrown when the outcome of a write is unknown at its deadline, with Http 504 and no Retry-After :
+ * the write may still commit, the client checks before creating again.
+ * Like ServiceUnavailableException, it's stackless.
+ */
+
+
+public class GatewayTimeoutException extends RuntimeException {
+
+    public GatewayTimeoutException(String message) {
+        super(message, null, false, false);
+    }
+}
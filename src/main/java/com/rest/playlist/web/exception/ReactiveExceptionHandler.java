@@ -0,0 +1,55 @@
+package com.rest.playlist.web.exception;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import javax.validation.ConstraintViolationException;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * ReactiveExceptionHandler class is the WebFlux counterpart of ServiceExceptionHandler :
+ * it turns the errors of the reactive routes into the same ErrorMessage response.
+ */
+
+@Component
+@Profile("reactive")
+public class ReactiveExceptionHandler {
+
+    public Mono<ServerResponse> handle(Throwable e, ServerRequest request) {
+        if (e instanceof ResourceNotFoundException) {
+            return response(HttpStatus.NOT_FOUND, e.getMessage(), request, null);
+        }
+        if (e instanceof BadRequestException) {
+            return response(HttpStatus.BAD_REQUEST, e.getMessage(), request, null);
+        }
+        if (e instanceof ConstraintViolationException) {
+            List<FieldError> fieldErrors = ((ConstraintViolationException) e).getConstraintViolations().stream()
+                    .map(violation -> FieldError.builder()
+                            .objectName(violation.getRootBeanClass().getSimpleName().toLowerCase())
+                            .field(violation.getPropertyPath().toString())
+                            .message(violation.getConstraintDescriptor().getAnnotation().annotationType().getSimpleName()
+                                    + ": " + violation.getMessage())
+                            .build())
+                    .collect(Collectors.toList());
+            return response(HttpStatus.BAD_REQUEST, "Validation failed", request, fieldErrors);
+        }
+        return response(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage(), request, null);
+    }
+
+    private static Mono<ServerResponse> response(HttpStatus status, String message, ServerRequest request, List<FieldError> fieldErrors) {
+        ErrorMessage errorMessage = ErrorMessage.builder()
+                .statusCode(status.value())
+                .timeStamp(new Date())
+                .message(message)
+                .description("uri=" + request.path())
+                .fieldErrors(fieldErrors)
+                .build();
+        return ServerResponse.status(status).bodyValue(errorMessage);
+    }
+}
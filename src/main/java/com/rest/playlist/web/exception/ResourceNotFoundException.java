@@ -6,12 +6,14 @@ package com.rest.playlist.web.exception;
  * It's about a custom exception :
  * throwing an exception for resource not found in Spring Boot Service
  * ResourceNotFoundException is thrown with Http 404
+ * A not found resource is an expected outcome, not a failure :
+ * the exception is stackless, it costs an allocation instead of a stack walk.
  */
 
 
 public class ResourceNotFoundException extends RuntimeException {
 
     public ResourceNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -3,6 +3,9 @@ package com.rest.playlist.web.exception;
 import com.rest.playlist.service.SongServiceImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -17,11 +20,13 @@ import java.util.stream.Collectors;
 
 /**
  * ServiceExceptionHandler class handles specific exceptions :
- * ResoureNotFoundException, MethodArgumentNotValidException
+ * ResoureNotFoundException, BadRequestException, ServiceUnavailableException, GatewayTimeoutException, QueryTimeoutException,
+ * MethodArgumentNotValidException
  * and global Exception in only one place.
  */
 
 @ControllerAdvice
+@Profile("!reactive")
 public class ServiceExceptionHandler {
 
     private static final Logger log = LoggerFactory.getLogger(SongServiceImpl.class);
@@ -39,6 +44,54 @@ public class ServiceExceptionHandler {
         return new ResponseEntity<>(message, HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<ErrorMessage> handleBadRequestException(BadRequestException e, WebRequest request) {
+        ErrorMessage message = ErrorMessage.builder()
+                .statusCode(HttpStatus.BAD_REQUEST.value())
+                .timeStamp(new Date())
+                .message(e.getMessage())
+                .description(request.getDescription(false))
+                .build();
+
+        return new ResponseEntity<>(message, HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ErrorMessage> handleServiceUnavailableException(ServiceUnavailableException e, WebRequest request) {
+        ErrorMessage message = ErrorMessage.builder()
+                .statusCode(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .timeStamp(new Date())
+                .message(e.getMessage())
+                .description(request.getDescription(false))
+                .build();
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(message);
+    }
+
+    @ExceptionHandler(GatewayTimeoutException.class)
+    public ResponseEntity<ErrorMessage> handleGatewayTimeoutException(GatewayTimeoutException e, WebRequest request) {
+        ErrorMessage message = ErrorMessage.builder()
+                .statusCode(HttpStatus.GATEWAY_TIMEOUT.value())
+                .timeStamp(new Date())
+                .message(e.getMessage())
+                .description(request.getDescription(false))
+                .build();
+
+        return new ResponseEntity<>(message, HttpStatus.GATEWAY_TIMEOUT);
+    }
+
+    @ExceptionHandler(QueryTimeoutException.class)
+    public ResponseEntity<ErrorMessage> handleQueryTimeoutException(QueryTimeoutException e, WebRequest request) {
+        ErrorMessage message = ErrorMessage.builder()
+                .statusCode(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .timeStamp(new Date())
+                .message("Query cancelled at its deadline")
+                .description(request.getDescription(false))
+                .build();
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(message);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public final ResponseEntity<ErrorMessage> handleArgumentNotValidException(MethodArgumentNotValidException e, WebRequest request) {
 
@@ -0,0 +1,16 @@
+package com.rest.playlist.web.exception;
+
+
+/**
+ * ServiceUnavailableException class extends RuntimeException.
+ * It's thrown when the request is shed under overload, with Http 503 and Retry-After : the client retries later.
+ * Like ResourceNotFoundException, it's stackless.
+ */
+
+
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message) {
+        super(message, null, false, false);
+    }
+}
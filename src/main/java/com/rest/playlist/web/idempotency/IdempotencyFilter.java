@@ -0,0 +1,329 @@
+package com.rest.playlist.web.idempotency;
+
+import com.rest.playlist.web.exception.ErrorResponseWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * IdempotencyFilter class executes once the requests of the idempotent endpoints sent with the same
+ * Idempotency-Key header : the retries receive the stored response of the first request (Idempotent-Replayed: true)
+ * without executing it again. The duplicates arriving while the first request is in progress wait for its response,
+ * up to waitTimeout (409 after). A key reused for a different request (method, path or body) is rejected with 422.
+ * Responses 5xx are not stored, the retries execute the request again.
+ * <p>
+ * The endpoints are matched on the lookup path (decoded, without the ;parameters) the DispatcherServlet maps,
+ * not on the raw URI : /api/songs;x=1 is the same endpoint. The body, held in memory to be hashed and read again
+ * by the controller, is limited to maxRequestSize : a larger request is answered 413 before it is read.
+ */
+
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<String[]> endpoints = new ArrayList<>();
+    private final IdempotencyStore store;
+    private final ErrorResponseWriter errorResponseWriter;
+    private final Duration waitTimeout;
+    private final Duration pollInterval;
+    private final int maxRequestSize;
+    private final int maxResponseSize;
+    private final Map<String, CompletableFuture<StoredResponse>> inProgress = new ConcurrentHashMap<>();
+    private final Counter executed;
+    private final Counter replayed;
+    private final Counter conflicts;
+    private final Counter mismatches;
+
+    public IdempotencyFilter(List<String> endpoints, IdempotencyStore store, ErrorResponseWriter errorResponseWriter,
+                             Duration waitTimeout, Duration pollInterval, int maxRequestSize, int maxResponseSize,
+                             MeterRegistry meterRegistry) {
+        for (String endpoint : endpoints) {
+            String[] parts = endpoint.trim().split("\\s+", 2);
+            this.endpoints.add(parts.length == 2 ? new String[]{parts[0], parts[1]} : new String[]{null, parts[0]});
+        }
+        this.store = store;
+        this.errorResponseWriter = errorResponseWriter;
+        this.waitTimeout = waitTimeout;
+        this.pollInterval = pollInterval;
+        this.maxRequestSize = maxRequestSize;
+        this.maxResponseSize = maxResponseSize;
+        this.executed = counter(meterRegistry, "executed");
+        this.replayed = counter(meterRegistry, "replayed");
+        this.conflicts = counter(meterRegistry, "conflict");
+        this.mismatches = counter(meterRegistry, "mismatch");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (request.getHeader(IDEMPOTENCY_KEY) == null) {
+            return true;
+        }
+        String path = lookupPath(request);
+        for (String[] endpoint : endpoints) {
+            if ((endpoint[0] == null || endpoint[0].equals(request.getMethod())) && pathMatcher.match(endpoint[1], path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            errorResponseWriter.write(request, response, HttpStatus.BAD_REQUEST,
+                    IDEMPOTENCY_KEY + " must have 1 to " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        byte[] body = request.getContentLengthLong() > maxRequestSize ? null : readBody(request.getInputStream());
+        if (body == null) {
+            errorResponseWriter.write(request, response, HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Requests sent with an " + IDEMPOTENCY_KEY + " are limited to " + maxRequestSize + " bytes");
+            return;
+        }
+        byte[] requestHash = hash(request, body);
+
+        CompletableFuture<StoredResponse> own = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> first = inProgress.putIfAbsent(key, own);
+        if (first != null) {
+            reply(request, response, requestHash, awaitFirst(first));
+            return;
+        }
+        try {
+            own.complete(execute(key, requestHash, new CachedBodyRequest(request, body), response, filterChain));
+        } catch (IOException | ServletException | RuntimeException e) {
+            own.complete(null);
+            throw e;
+        } finally {
+            inProgress.remove(key, own);
+        }
+    }
+
+    /**
+     * @return the response of the request, null when it was not executed
+     */
+    private StoredResponse execute(String key, byte[] requestHash, HttpServletRequest request,
+                                   HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        StoredResponse stored = store.find(key);
+        if (stored == null && !store.begin(key, requestHash)) {
+            stored = awaitOtherNode(key);
+        }
+        if (stored != null) {
+            reply(request, response, requestHash, stored);
+            return stored;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, wrapper);
+            executed.increment();
+            StoredResponse result = new StoredResponse(requestHash, wrapper.getStatus(), wrapper.getContentType(),
+                    wrapper.getContentAsByteArray());
+            if (result.getStatus() < 500 && result.getBody().length <= maxResponseSize) {
+                store.complete(key, result);
+                completed = true;
+            }
+            return result;
+        } finally {
+            if (!completed) {
+                store.abort(key);
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * Another node executes the request : its response is read from the store until waitTimeout.
+     */
+    private StoredResponse awaitOtherNode(String key) {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(pollInterval.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            StoredResponse stored = store.find(key);
+            if (stored != null) {
+                return stored;
+            }
+        }
+        return null;
+    }
+
+    private StoredResponse awaitFirst(CompletableFuture<StoredResponse> first) {
+        try {
+            return first.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        }
+    }
+
+    private void reply(HttpServletRequest request, HttpServletResponse response, byte[] requestHash,
+                       StoredResponse stored) throws IOException {
+        if (stored == null) {
+            conflicts.increment();
+            errorResponseWriter.write(request, response, HttpStatus.CONFLICT, 1,
+                    "A request with this " + IDEMPOTENCY_KEY + " is in progress, retry later");
+            return;
+        }
+        if (!Arrays.equals(stored.getRequestHash(), requestHash)) {
+            mismatches.increment();
+            errorResponseWriter.write(request, response, HttpStatus.UNPROCESSABLE_ENTITY,
+                    IDEMPOTENCY_KEY + " already used for a different request");
+            return;
+        }
+        replayed.increment();
+        response.setStatus(stored.getStatus());
+        if (stored.getContentType() != null) {
+            response.setContentType(stored.getContentType());
+        }
+        response.setHeader(IDEMPOTENT_REPLAYED, "true");
+        response.setContentLength(stored.getBody().length);
+        response.getOutputStream().write(stored.getBody());
+    }
+
+    /**
+     * @return the body, null when it is larger than maxRequestSize (the body without Content-Length is read up to it)
+     */
+    private byte[] readBody(InputStream input) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[StreamUtils.BUFFER_SIZE];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            if (body.size() + read > maxRequestSize) {
+                return null;
+            }
+            body.write(buffer, 0, read);
+        }
+        return body.toByteArray();
+    }
+
+    private static String lookupPath(HttpServletRequest request) {
+        String path = UrlPathHelper.defaultInstance.getLookupPathForRequest(request);
+        return path.length() > 1 && path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+
+    private static byte[] hash(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + ' ' + lookupPath(request) + '\n').getBytes(StandardCharsets.UTF_8));
+            return digest.digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("playlist.idempotency.requests")
+                .description("Requests sent with an Idempotency-Key, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * The body is read again from memory : always ready, a ReadListener is called back at once.
+     */
+    static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    if (readListener == null) {
+                        throw new NullPointerException("readListener");
+                    }
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            readListener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] bytes, int offset, int length) {
+                    return input.read(bytes, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
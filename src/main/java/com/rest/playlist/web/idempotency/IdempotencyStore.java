@@ -0,0 +1,99 @@
+package com.rest.playlist.web.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rest.playlist.model.IdempotencyRecord;
+import com.rest.playlist.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * IdempotencyStore class keeps the responses of the idempotent requests in the idempotency_keys table
+ * until they expire, behind an in-memory cache of the recent ones (cache=idempotency.responses).
+ * The insertion of the key before the execution elects the node executing a request : the other nodes
+ * wait for its response. An expired key, or a key left in progress longer than abandonedAfter (node stopped),
+ * is taken over.
+ */
+
+public class IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    private final IdempotencyRecordRepository repository;
+    private final Cache<String, StoredResponse> cache;
+    private final Duration timeToLive;
+    private final Duration abandonedAfter;
+
+    public IdempotencyStore(IdempotencyRecordRepository repository, long cacheMaximumSize, Duration timeToLive,
+                            Duration abandonedAfter, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.timeToLive = timeToLive;
+        this.abandonedAfter = abandonedAfter;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "idempotency.responses");
+    }
+
+    /**
+     * @return the stored response of the key, null when there is none or the request is in progress
+     */
+    public StoredResponse find(String key) {
+        StoredResponse response = cache.getIfPresent(key);
+        if (response != null) {
+            return response;
+        }
+        IdempotencyRecord record = repository.findById(key).orElse(null);
+        if (record == null || record.getStatus() == IdempotencyRecord.IN_PROGRESS
+                || record.getExpiresAt().isBefore(Instant.now())) {
+            return null;
+        }
+        response = new StoredResponse(record.getRequestHash(), record.getStatus(), record.getContentType(),
+                record.getResponseBody() != null ? record.getResponseBody() : new byte[0]);
+        cache.put(key, response);
+        return response;
+    }
+
+    /**
+     * @return true when this node executes the request, false when another node does or did
+     */
+    public boolean begin(String key, byte[] requestHash) {
+        Instant now = Instant.now();
+        try {
+            repository.insertInProgress(key, requestHash, now, now.plus(timeToLive));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return repository.takeOver(key, requestHash, now, now.plus(timeToLive),
+                    now.minus(abandonedAfter)) == 1;
+        }
+    }
+
+    public void complete(String key, StoredResponse response) {
+        repository.complete(key, response.getStatus(), response.getContentType(), response.getBody());
+        cache.put(key, response);
+    }
+
+    /**
+     * Releases the key of a request which failed, its retries execute it again.
+     */
+    public void abort(String key) {
+        repository.deleteInProgress(key);
+    }
+
+    @Scheduled(fixedDelayString = "${playlist.idempotency.purge-interval-ms:600000}")
+    public void purge() {
+        int deleted = repository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            log.debug("{} expired idempotency keys deleted", deleted);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.rest.playlist.web.idempotency;
+
+/**
+ * Response of the first request sent with an Idempotency-Key, with the hash of that request.
+ */
+
+public class StoredResponse {
+
+    private final byte[] requestHash;
+    private final int status;
+    private final String contentType;
+    private final byte[] body;
+
+    public StoredResponse(byte[] requestHash, int status, String contentType, byte[] body) {
+        this.requestHash = requestHash;
+        this.status = status;
+        this.contentType = contentType;
+        this.body = body;
+    }
+
+    public byte[] getRequestHash() {
+        return requestHash;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+}
@@ -0,0 +1,58 @@
+package com.rest.playlist.web.limit;
+
+import com.rest.playlist.web.exception.ErrorResponseWriter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * BulkheadFilter class caps the concurrent requests of each endpoint group : a saturated group
+ * answers 503 with Retry-After instead of queueing for Tomcat threads and database connections
+ * needed by the other groups (e.g. listings cannot starve the writes).
+ * The exempted endpoints (playlist.limits.bulkhead-exemptions) are served without it.
+ */
+
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    private static final long RETRY_AFTER_SECONDS = 1;
+
+    private final RequestLimiter requestLimiter;
+    private final ErrorResponseWriter errorResponseWriter;
+
+    public BulkheadFilter(RequestLimiter requestLimiter, ErrorResponseWriter errorResponseWriter) {
+        this.requestLimiter = requestLimiter;
+        this.errorResponseWriter = errorResponseWriter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestLimiter.Group group = requestLimiter.match(request);
+        if (group == null || requestLimiter.isBulkheadExempt(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        boolean entered;
+        try {
+            entered = group.tryEnterBulkhead();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            entered = false;
+        }
+        if (!entered) {
+            errorResponseWriter.write(request, response, HttpStatus.SERVICE_UNAVAILABLE, RETRY_AFTER_SECONDS,
+                    "Too many concurrent requests for " + group.getName());
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            group.exitBulkhead();
+        }
+    }
+}
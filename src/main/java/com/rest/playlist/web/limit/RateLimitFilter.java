@@ -0,0 +1,42 @@
+package com.rest.playlist.web.limit;
+
+import com.rest.playlist.web.exception.ErrorResponseWriter;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RateLimitFilter class answers 429 with Retry-After to a client exceeding the rate of the endpoint group,
+ * before any other work is done for the request.
+ */
+
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RequestLimiter requestLimiter;
+    private final ErrorResponseWriter errorResponseWriter;
+
+    public RateLimitFilter(RequestLimiter requestLimiter, ErrorResponseWriter errorResponseWriter) {
+        this.requestLimiter = requestLimiter;
+        this.errorResponseWriter = errorResponseWriter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestLimiter.Group group = requestLimiter.match(request);
+        long waitNanos = group != null ? group.tryAcquireRate(requestLimiter.clientKey(request)) : 0;
+        if (waitNanos > 0) {
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999));
+            errorResponseWriter.write(request, response, HttpStatus.TOO_MANY_REQUESTS, retryAfter,
+                    "Too many requests for " + group.getName() + ", retry after " + retryAfter + " s");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,264 @@
+package com.rest.playlist.web.limit;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.rest.playlist.config.RequestLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.servlet.http.HttpServletRequest;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RequestLimiter class holds, for each endpoint group, the token buckets of its clients (rate limit)
+ * and the semaphore capping its concurrent requests (bulkhead).
+ * A client is its authenticated principal, otherwise its remote address. The client header is only trusted
+ * when the request comes from one of the trusted proxies : any other client could change it on every request.
+ * Metrics by group : playlist.limits.rejections (reason rate or bulkhead), playlist.limits.rate,
+ * playlist.limits.concurrent.max and playlist.limits.concurrent.active.
+ */
+
+public class RequestLimiter {
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final List<Group> groups = new ArrayList<>();
+    private final List<String[]> bulkheadExemptions = new ArrayList<>();
+    private final String clientHeader;
+    private final List<AddressBlock> trustedProxies = new ArrayList<>();
+
+    public RequestLimiter(RequestLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, properties.getBulkheadExemptions(), meterRegistry);
+    }
+
+    public RequestLimiter(RequestLimitProperties properties, List<String> bulkheadExemptions, MeterRegistry meterRegistry) {
+        for (String endpoint : bulkheadExemptions) {
+            this.bulkheadExemptions.add(parseEndpoint(endpoint));
+        }
+        this.clientHeader = properties.getClientHeader();
+        for (String proxy : properties.getTrustedProxies()) {
+            trustedProxies.add(AddressBlock.parse(proxy.trim()));
+        }
+        for (RequestLimitProperties.Group group : properties.getGroups()) {
+            groups.add(new Group(group, properties, meterRegistry));
+        }
+    }
+
+    /**
+     * The endpoints are matched on the path Spring MVC dispatches on : decoded, without ";" parameters
+     * nor trailing slash. "/api/%73ongs;x=1/" is limited as "/api/songs".
+     *
+     * @return the group of the request, null when it is not limited
+     */
+    public Group match(HttpServletRequest request) {
+        String path = lookupPath(request);
+        for (Group group : groups) {
+            if (matches(group.endpoints, request.getMethod(), path)) {
+                return group;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return true when the request is served without the bulkhead of its group
+     */
+    public boolean isBulkheadExempt(HttpServletRequest request) {
+        return !bulkheadExemptions.isEmpty() && matches(bulkheadExemptions, request.getMethod(), lookupPath(request));
+    }
+
+    private boolean matches(List<String[]> endpoints, String method, String path) {
+        for (String[] endpoint : endpoints) {
+            if ((endpoint[0] == null || endpoint[0].equals(method)) && pathMatcher.match(endpoint[1], path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the method (null for every method) and the ant path of "METHOD /ant/path" or "/ant/path"
+     */
+    static String[] parseEndpoint(String endpoint) {
+        String[] parts = endpoint.trim().split("\\s+", 2);
+        return parts.length == 2 ? new String[]{parts[0], parts[1]} : new String[]{null, parts[0]};
+    }
+
+    static String lookupPath(HttpServletRequest request) {
+        String path = UrlPathHelper.defaultInstance.getLookupPathForRequest(request);
+        return path.length() > 1 && path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+
+    public String clientKey(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "user:" + principal.getName();
+        }
+        String address = request.getRemoteAddr();
+        if (isTrustedProxy(address)) {
+            String client = request.getHeader(clientHeader);
+            if (client != null && !client.trim().isEmpty()) {
+                return "client:" + client.trim();
+            }
+        }
+        return "address:" + address;
+    }
+
+    private boolean isTrustedProxy(String address) {
+        if (trustedProxies.isEmpty()) {
+            return false;
+        }
+        byte[] bytes = AddressBlock.toBytes(address);
+        if (bytes == null) {
+            return false;
+        }
+        for (AddressBlock proxy : trustedProxies) {
+            if (proxy.contains(bytes)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * An address ("10.0.0.1") or a CIDR block ("10.0.0.0/8", "fd00::/8").
+     */
+    private static final class AddressBlock {
+
+        private final byte[] network;
+        private final int prefixLength;
+
+        private AddressBlock(byte[] network, int prefixLength) {
+            this.network = network;
+            this.prefixLength = prefixLength;
+        }
+
+        static AddressBlock parse(String block) {
+            int slash = block.indexOf('/');
+            byte[] network = toBytes(slash < 0 ? block : block.substring(0, slash));
+            if (network == null) {
+                throw new IllegalArgumentException("Invalid trusted proxy address: " + block);
+            }
+            int prefixLength = slash < 0 ? network.length * 8 : Integer.parseInt(block.substring(slash + 1));
+            if (prefixLength < 0 || prefixLength > network.length * 8) {
+                throw new IllegalArgumentException("Invalid trusted proxy prefix length: " + block);
+            }
+            return new AddressBlock(network, prefixLength);
+        }
+
+        /**
+         * @return the bytes of an IP address literal, null for anything else (no name resolution)
+         */
+        static byte[] toBytes(String address) {
+            boolean ipv4 = address != null && !address.isEmpty()
+                    && address.chars().allMatch(c -> c == '.' || Character.isDigit(c));
+            if (!ipv4 && (address == null || address.indexOf(':') < 0)) {
+                return null;
+            }
+            try {
+                return InetAddress.getByName(address).getAddress();
+            } catch (UnknownHostException e) {
+                return null;
+            }
+        }
+
+        boolean contains(byte[] address) {
+            if (address.length != network.length) {
+                return false;
+            }
+            int fullBytes = prefixLength / 8;
+            for (int i = 0; i < fullBytes; i++) {
+                if (address[i] != network[i]) {
+                    return false;
+                }
+            }
+            int remainingBits = prefixLength % 8;
+            if (remainingBits == 0) {
+                return true;
+            }
+            int mask = 0xFF << (8 - remainingBits);
+            return (address[fullBytes] & mask) == (network[fullBytes] & mask);
+        }
+    }
+
+    public static class Group {
+
+        private final RequestLimitProperties.Group properties;
+        private final List<String[]> endpoints = new ArrayList<>();
+        private final LoadingCache<String, TokenBucket> buckets;
+        private final Semaphore bulkhead;
+        private final Counter rateRejections;
+        private final Counter bulkheadRejections;
+
+        Group(RequestLimitProperties.Group properties, RequestLimitProperties limits, MeterRegistry meterRegistry) {
+            this.properties = properties;
+            for (String endpoint : properties.getEndpoints()) {
+                endpoints.add(parseEndpoint(endpoint));
+            }
+            this.buckets = Caffeine.newBuilder()
+                    .expireAfterAccess(limits.getIdleClientExpiry())
+                    .build(client -> new TokenBucket(properties.getRatePerSecond(), properties.getBurst()));
+            this.bulkhead = properties.getMaxConcurrent() > 0 ? new Semaphore(properties.getMaxConcurrent()) : null;
+
+            String name = properties.getName();
+            this.rateRejections = Counter.builder("playlist.limits.rejections")
+                    .description("Requests rejected by the rate limits (429) and the bulkheads (503)")
+                    .tag("group", name).tag("reason", "rate").register(meterRegistry);
+            this.bulkheadRejections = Counter.builder("playlist.limits.rejections")
+                    .description("Requests rejected by the rate limits (429) and the bulkheads (503)")
+                    .tag("group", name).tag("reason", "bulkhead").register(meterRegistry);
+            Gauge.builder("playlist.limits.rate", properties, RequestLimitProperties.Group::getRatePerSecond)
+                    .description("Requests per second allowed per client").tag("group", name).register(meterRegistry);
+            Gauge.builder("playlist.limits.concurrent.max", properties, RequestLimitProperties.Group::getMaxConcurrent)
+                    .description("Concurrent requests allowed").tag("group", name).register(meterRegistry);
+            if (bulkhead != null) {
+                Gauge.builder("playlist.limits.concurrent.active", bulkhead,
+                        semaphore -> properties.getMaxConcurrent() - semaphore.availablePermits())
+                        .description("Requests in progress").tag("group", name).register(meterRegistry);
+            }
+        }
+
+        public String getName() {
+            return properties.getName();
+        }
+
+        /**
+         * @return 0 when the request is allowed, otherwise the nanoseconds until the client may retry
+         */
+        public long tryAcquireRate(String client) {
+            if (properties.getRatePerSecond() <= 0) {
+                return 0;
+            }
+            long waitNanos = buckets.get(client).tryConsume();
+            if (waitNanos > 0) {
+                rateRejections.increment();
+            }
+            return waitNanos;
+        }
+
+        public boolean tryEnterBulkhead() throws InterruptedException {
+            if (bulkhead == null) {
+                return true;
+            }
+            boolean entered = bulkhead.tryAcquire(properties.getMaxWait().toNanos(), TimeUnit.NANOSECONDS);
+            if (!entered) {
+                bulkheadRejections.increment();
+            }
+            return entered;
+        }
+
+        public void exitBulkhead() {
+            if (bulkhead != null) {
+                bulkhead.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.rest.playlist.web.resource;
+
+import com.rest.playlist.model.Playlist;
+import com.rest.playlist.model.PlaylistTrack;
+import com.rest.playlist.service.IPlaylistService;
+import com.rest.playlist.web.exception.BadRequestException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/playlists")
+public class PlaylistResource {
+
+    private final IPlaylistService playlistService;
+
+    public PlaylistResource(IPlaylistService playlistService) {
+        this.playlistService = playlistService;
+    }
+
+    @PostMapping
+    public ResponseEntity<Playlist> createPlaylist(@Valid @RequestBody Playlist playlist) {
+        return new ResponseEntity<>(playlistService.createPlaylist(playlist), HttpStatus.CREATED);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Playlist> getPlaylistById(@PathVariable Long id) {
+        return new ResponseEntity<>(playlistService.getPlaylistById(id), HttpStatus.OK);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deletePlaylistById(@PathVariable Long id) {
+        playlistService.deletePlaylistById(id);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+
+    /**
+     * The tracks in playlist order, each with its song.
+     */
+    @GetMapping("/{id}/tracks")
+    public ResponseEntity<Map<String, Object>> getPlaylistTracks(@PathVariable Long id,
+                                                                 @RequestParam(defaultValue = "0") int page,
+                                                                 @RequestParam(defaultValue = "20") int size) {
+        Page<PlaylistTrack> tracks = playlistService.getPlaylistTracks(id, page, size);
+        Map<String, Object> response = new HashMap<>();
+        response.put("tracks", tracks.getContent());
+        response.put("currentPage", tracks.getNumber());
+        response.put("totalItems", tracks.getTotalElements());
+        response.put("totalPages", tracks.getTotalPages());
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    @PostMapping("/{id}/tracks")
+    public ResponseEntity<PlaylistTrack> addTrack(@PathVariable Long id, @RequestBody PlaylistTrackRequest request) {
+        if (request.getSongId() == null) {
+            throw new BadRequestException("songId ne doit pas être null");
+        }
+        PlaylistTrack track = playlistService.addTrack(id, request.getSongId(), request.getBeforeTrackId());
+        return new ResponseEntity<>(track, HttpStatus.CREATED);
+    }
+
+    @PatchMapping("/{id}/tracks/{trackId}")
+    public ResponseEntity<PlaylistTrack> moveTrack(@PathVariable Long id, @PathVariable Long trackId,
+                                                   @RequestBody PlaylistTrackRequest request) {
+        return new ResponseEntity<>(playlistService.moveTrack(id, trackId, request.getBeforeTrackId()), HttpStatus.OK);
+    }
+
+    @DeleteMapping("/{id}/tracks/{trackId}")
+    public ResponseEntity<Void> removeTrack(@PathVariable Long id, @PathVariable Long trackId) {
+        playlistService.removeTrack(id, trackId);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+}
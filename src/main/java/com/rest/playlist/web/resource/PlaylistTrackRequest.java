@@ -0,0 +1,18 @@
+package com.rest.playlist.web.resource;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Body of POST /api/playlists/{id}/tracks (songId, beforeTrackId) and PATCH /api/playlists/{id}/tracks/{trackId}
+ * (beforeTrackId). Without beforeTrackId the track goes to the end of the playlist.
+ */
+
+@Getter
+@Setter
+public class PlaylistTrackRequest {
+
+    private Long songId;
+
+    private Long beforeTrackId;
+}
@@ -0,0 +1,125 @@
+package com.rest.playlist.web.resource;
+
+import com.rest.playlist.model.Song;
+import com.rest.playlist.service.IReactiveSongService;
+import com.rest.playlist.web.exception.ReactiveExceptionHandler;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ReactiveSongHandler class serves the song api of the reactive stack.
+ * Listing routes answer with the same page envelope as SongResource, or stream
+ * the page content as a back-pressured Flux when the client accepts application/x-ndjson.
+ */
+
+@Component
+@Profile("reactive")
+public class ReactiveSongHandler {
+
+    private final IReactiveSongService songService;
+    private final ReactiveExceptionHandler exceptionHandler;
+    private final Validator validator;
+
+    public ReactiveSongHandler(IReactiveSongService songService, ReactiveExceptionHandler exceptionHandler, Validator validator) {
+        this.songService = songService;
+        this.exceptionHandler = exceptionHandler;
+        this.validator = validator;
+    }
+
+    public Mono<ServerResponse> getAllSongs(ServerRequest request) {
+        int page = intParam(request, "page", 0);
+        int size = intParam(request, "size", 3);
+        return pageResponse(request, songService.getAllSongs(page, size), songService.countAllSongs(), page, size);
+    }
+
+    public Mono<ServerResponse> getSongsByCategory(ServerRequest request) {
+        String category = request.pathVariable("category");
+        int page = intParam(request, "page", 0);
+        int size = intParam(request, "size", 3);
+        return pageResponse(request, songService.getSongsByCategory(category, page, size),
+                songService.countSongsByCategory(category), page, size);
+    }
+
+    public Mono<ServerResponse> getSongsByArtist(ServerRequest request) {
+        String artistName = request.pathVariable("artistName");
+        int page = intParam(request, "page", 0);
+        int size = intParam(request, "size", 3);
+        return pageResponse(request, songService.getSongsByArtistName(artistName, page, size),
+                songService.countSongsByArtistName(artistName), page, size);
+    }
+
+    public Mono<ServerResponse> getSongById(ServerRequest request) {
+        return songService.getSongById(Long.valueOf(request.pathVariable("id")))
+                .flatMap(song -> ServerResponse.ok().bodyValue(song))
+                .onErrorResume(e -> exceptionHandler.handle(e, request));
+    }
+
+    public Mono<ServerResponse> createSong(ServerRequest request) {
+        return request.bodyToMono(Song.class)
+                .map(this::validate)
+                .flatMap(songService::createSong)
+                .flatMap(song -> ServerResponse.status(201).bodyValue(song))
+                .onErrorResume(e -> exceptionHandler.handle(e, request));
+    }
+
+    public Mono<ServerResponse> updateSong(ServerRequest request) {
+        return request.bodyToMono(Song.class)
+                .map(this::validate)
+                .flatMap(songService::updateSong)
+                .flatMap(song -> ServerResponse.ok().bodyValue(song))
+                .onErrorResume(e -> exceptionHandler.handle(e, request));
+    }
+
+    public Mono<ServerResponse> deleteSongById(ServerRequest request) {
+        return songService.deleteSongById(Long.valueOf(request.pathVariable("id")))
+                .then(ServerResponse.noContent().build())
+                .onErrorResume(e -> exceptionHandler.handle(e, request));
+    }
+
+    private Mono<ServerResponse> pageResponse(ServerRequest request, Flux<Song> songs, Mono<Long> totalItems, int page, int size) {
+        if (request.headers().accept().contains(MediaType.APPLICATION_NDJSON)) {
+            return ServerResponse.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(songs, Song.class)
+                    .onErrorResume(e -> exceptionHandler.handle(e, request));
+        }
+
+        return Mono.zip(songs.collectList(), totalItems)
+                .flatMap(result -> {
+                    if (result.getT1().isEmpty()) {
+                        return ServerResponse.ok().build();
+                    }
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("songs", result.getT1());
+                    response.put("currentPage", page);
+                    response.put("totalItems", result.getT2());
+                    response.put("totalPages", (int) Math.ceil((double) result.getT2() / size));
+                    return ServerResponse.ok().bodyValue(response);
+                })
+                .onErrorResume(e -> exceptionHandler.handle(e, request));
+    }
+
+    private Song validate(Song song) {
+        Set<ConstraintViolation<Song>> violations = validator.validate(song);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        return song;
+    }
+
+    private static int intParam(ServerRequest request, String name, int defaultValue) {
+        return request.queryParam(name).map(Integer::parseInt).orElse(defaultValue);
+    }
+}
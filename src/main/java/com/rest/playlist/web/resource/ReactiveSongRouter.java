@@ -0,0 +1,32 @@
+package com.rest.playlist.web.resource;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * ReactiveSongRouter class maps the song api on WebFlux functional routes,
+ * with the same paths and parameters as SongResource.
+ */
+
+@Configuration
+@Profile("reactive")
+public class ReactiveSongRouter {
+
+    @Bean
+    public RouterFunction<ServerResponse> songRoutes(ReactiveSongHandler handler) {
+        return route()
+                .GET("/api/songs", handler::getAllSongs)
+                .GET("/api/songs/category/{category}", handler::getSongsByCategory)
+                .GET("/api/songs/artist/{artistName}", handler::getSongsByArtist)
+                .GET("/api/songs/{id}", handler::getSongById)
+                .POST("/api/songs", handler::createSong)
+                .PUT("/api/songs", handler::updateSong)
+                .DELETE("/api/songs/{id}", handler::deleteSongById)
+                .build();
+    }
+}
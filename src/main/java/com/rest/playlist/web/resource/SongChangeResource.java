@@ -0,0 +1,37 @@
+package com.rest.playlist.web.resource;
+
+import com.rest.playlist.service.changes.SongChangeEmitter;
+import com.rest.playlist.service.changes.SongChangeFeed;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@Profile("!reactive")
+@ConditionalOnProperty(name = "playlist.songs.changes.enabled", havingValue = "true", matchIfMissing = true)
+@RequestMapping("/api/songs/changes")
+public class SongChangeResource {
+
+    private final SongChangeFeed songChangeFeed;
+
+    public SongChangeResource(SongChangeFeed songChangeFeed) {
+        this.songChangeFeed = songChangeFeed;
+    }
+
+    /**
+     * Server-Sent Events : created, updated and deleted events (id = outbox id, data = {type, songId, song}),
+     * a reset event when the changes since Last-Event-ID are not available anymore.
+     *
+     * @param lastEventId sent by EventSource when it reconnects, the query parameter is for the other clients
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SongChangeEmitter streamChanges(@RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId,
+                                    @RequestParam(name = "lastEventId", required = false) Long lastEventIdParam) {
+        return songChangeFeed.subscribe(lastEventId != null ? lastEventId : lastEventIdParam);
+    }
+}
@@ -0,0 +1,60 @@
+package com.rest.playlist.web.resource;
+
+import com.rest.playlist.service.IPlayCountService;
+import com.rest.playlist.service.ITrendingService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@Profile("!reactive")
+@RequestMapping("/api/songs")
+public class SongPlayResource {
+
+    private final IPlayCountService playCountService;
+    private final ITrendingService trendingService;
+
+    public SongPlayResource(IPlayCountService playCountService, ITrendingService trendingService) {
+        this.playCountService = playCountService;
+        this.trendingService = trendingService;
+    }
+
+    /**
+     * The play is counted in memory and written by the next flush : Http 202, no body.
+     */
+    @PostMapping("/{id}/plays")
+    public ResponseEntity<Void> recordPlay(@PathVariable Long id) {
+        playCountService.recordPlay(id);
+        return new ResponseEntity<>(HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/{id}/plays")
+    public ResponseEntity<Map<String, Object>> getPlayCount(@PathVariable Long id) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("songId", id);
+        response.put("playCount", playCountService.getPlayCount(id));
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    /**
+     * Most played songs of the window (hour, day, week, all), ranked in memory : the songs are returned
+     * as ids with their score, GET /api/songs?ids= reads them.
+     */
+    @GetMapping("/trending")
+    public ResponseEntity<Map<String, Object>> getTrendingSongs(@RequestParam(required = false) String category,
+                                                                @RequestParam(required = false) String window,
+                                                                @RequestParam(required = false) Integer limit) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("songs", trendingService.getTrendingSongs(category, window, limit));
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+}
@@ -1,9 +1,12 @@
 package com.rest.playlist.web.resource;
 
+import com.rest.playlist.enums.SongField;
 import com.rest.playlist.model.Song;
 import com.rest.playlist.service.SongServiceImpl;
+import com.rest.playlist.web.exception.BadRequestException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
@@ -11,11 +14,16 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/songs")
 public class SongResource {
 
@@ -36,11 +44,17 @@ public class SongResource {
     }
 
 
+    /**
+     * @param fields sparse fieldset (?fields=id,title,artistName) : only these columns are read and written
+     */
     @GetMapping("/category/{category}")
     public ResponseEntity<Map<String, Object>> getSongsByCategory(@PathVariable String category,
                                                                   @RequestParam(defaultValue = "0") int page,
-                                                                  @RequestParam(defaultValue = "3") int size) {
-        Map<String, Object> response = setResponsePage(ISongService.getSongsByCategory(category, page, size));
+                                                                  @RequestParam(defaultValue = "3") int size,
+                                                                  @RequestParam(required = false) String fields) {
+        Map<String, Object> response = fields == null
+                ? setResponsePage(ISongService.getSongsByCategory(category, page, size))
+                : setResponsePage(ISongService.getSongFieldsByCategory(category, toSongFields(fields), page, size));
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
@@ -58,6 +72,22 @@ public class SongResource {
         return new ResponseEntity<>(song, HttpStatus.OK);
     }
 
+    /**
+     * Multi-get : GET /api/songs?ids=1,2,3
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<Map<String, Object>> getSongsByIds(@RequestParam List<Long> ids) {
+        return new ResponseEntity<>(setResponseLookup(ids, ISongService.getSongsByIds(ids)), HttpStatus.OK);
+    }
+
+    /**
+     * Multi-get for long id lists : POST /api/songs/lookup with a JSON array of ids
+     */
+    @PostMapping("/lookup")
+    public ResponseEntity<Map<String, Object>> lookupSongs(@RequestBody List<Long> ids) {
+        return new ResponseEntity<>(setResponseLookup(ids, ISongService.getSongsByIds(ids)), HttpStatus.OK);
+    }
+
     @PostMapping
     public ResponseEntity<Song> createSong(@Valid @RequestBody Song song) {
         Song addedSong = ISongService.createSong(song);
@@ -76,7 +106,7 @@ public class SongResource {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
-    private Map<String, Object> setResponsePage(Page<Song> songPages) {
+    private Map<String, Object> setResponsePage(Page<?> songPages) {
         if (!songPages.isEmpty()) {
             Map<String, Object> response = new HashMap<>();
             response.put("songs", songPages.getContent());
@@ -88,5 +118,29 @@ public class SongResource {
         }
         return null;
     }
+
+    private Map<String, Object> setResponseLookup(List<Long> ids, Map<Long, Song> songs) {
+        List<Long> missingIds = ids.stream()
+                .filter(id -> id != null && !songs.containsKey(id))
+                .distinct()
+                .collect(Collectors.toList());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("songs", new ArrayList<>(songs.values()));
+        response.put("missingIds", missingIds);
+        return response;
+    }
+
+    private static Set<SongField> toSongFields(String fields) {
+        Set<SongField> songFields = new LinkedHashSet<>();
+        for (String attribute : fields.split(",")) {
+            SongField field = SongField.fromAttribute(attribute.trim());
+            if (field == null) {
+                throw new BadRequestException("Unknown song field = " + attribute.trim());
+            }
+            songFields.add(field);
+        }
+        return songFields;
+    }
 }
 
@@ -0,0 +1,28 @@
+package com.rest.playlist;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the springfox document exported by ApiDocumentationExporter at prepare-package, without writing it.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@RunWith(SpringRunner.class)
+public class ApiDocumentationExportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testExportApiDocumentation() throws Exception {
+        assertThat(new String(ApiDocumentationExporter.export(mockMvc))).contains("/api/songs");
+    }
+}
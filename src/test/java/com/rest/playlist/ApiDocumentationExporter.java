@@ -0,0 +1,39 @@
+package com.rest.playlist;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exports the springfox document at build time (prepare-package, exec-maven-plugin) into target/classes,
+ * so that the fast-start profile serves it as a static file without scanning the handlers at boot.
+ * Runs on the test classpath : the application starts on the test configuration, on a random port.
+ */
+public class ApiDocumentationExporter {
+
+    public static void main(String[] args) throws Exception {
+        Path document = Paths.get(args.length > 0 ? args[0] : "target/classes/static/api-docs/playlist-api.json");
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(PlaylistApplication.class)
+                .properties("server.port=0")
+                .run()) {
+            byte[] content = export(MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build());
+            Files.createDirectories(document.getParent());
+            Files.write(document, content);
+        }
+    }
+
+    static byte[] export(MockMvc mockMvc) throws Exception {
+        return mockMvc.perform(get("/v2/api-docs"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+}
@@ -0,0 +1,62 @@
+package com.rest.playlist;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.core.type.filter.TypeFilter;
+
+import javax.persistence.Entity;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A native executable reads the entities and the exceptions by reflection only if reflect-config.json declares them :
+ * the hints are checked on the JVM, the project builds no native executable.
+ */
+public class NativeReflectionConfigTest {
+
+    private static final String REFLECT_CONFIG = "META-INF/native-image/com.rest/playlist/reflect-config.json";
+
+    @Test
+    public void testEntitiesAndExceptionsAreDeclared() throws IOException {
+        Set<String> declared = declaredTypes();
+
+        assertThat(declared).containsAll(scan("com.rest.playlist.model", new AnnotationTypeFilter(Entity.class)));
+        assertThat(declared).containsAll(scan("com.rest.playlist.web.exception", new AssignableTypeFilter(RuntimeException.class)));
+    }
+
+    @Test
+    public void testDeclaredTypesExist() throws IOException {
+        for (String type : declaredTypes()) {
+            assertThat(type).satisfies(name -> Class.forName(name, false, getClass().getClassLoader()));
+        }
+    }
+
+    private static Set<String> declaredTypes() throws IOException {
+        Set<String> types = new HashSet<>();
+        try (InputStream config = new ClassPathResource(REFLECT_CONFIG).getInputStream()) {
+            for (JsonNode entry : new ObjectMapper().readTree(config)) {
+                types.add(entry.get("name").asText());
+            }
+        }
+        return types;
+    }
+
+    private static Set<String> scan(String basePackage, TypeFilter filter) {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(filter);
+        return scanner.findCandidateComponents(basePackage).stream()
+                .map(BeanDefinition::getBeanClassName)
+                .collect(Collectors.toSet());
+    }
+}
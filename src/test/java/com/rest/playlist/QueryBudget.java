@@ -0,0 +1,28 @@
+package com.rest.playlist;
+
+import com.rest.playlist.jdbc.SqlStatementCounter;
+
+/**
+ * QueryBudget fails a test when the given action executes more SQL statements than expected,
+ * e.g. assertStatementsAtMost(1, () -> mockMvc.perform(get("/api/songs/{id}", id)));
+ */
+public class QueryBudget {
+
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    public static SqlStatementCounter.Scope assertStatementsAtMost(int budget, Action action) throws Exception {
+        SqlStatementCounter.Scope scope = SqlStatementCounter.open();
+        try {
+            action.run();
+        } finally {
+            scope.close();
+        }
+
+        if (scope.getTotal() > budget) {
+            throw new AssertionError("Expected at most " + budget + " SQL statements but was " + scope);
+        }
+        return scope;
+    }
+}
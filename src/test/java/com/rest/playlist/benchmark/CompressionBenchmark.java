@@ -0,0 +1,80 @@
+package com.rest.playlist.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.web.compression.ContentEncoding;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU cost of compressing a JSON song page against the bytes saved on the wire,
+ * for gzip and brotli at several levels. The payload sizes and the transfer time saved on a 10 Mbit/s link
+ * are printed once per trial, to compare with the measured compression time.
+ *
+ * mvn -Pbenchmark -DskipTests test -Dbenchmark.main=com.rest.playlist.benchmark.JmhRunner -Dexec.args=CompressionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CompressionBenchmark {
+
+    private static final double LINK_BYTES_PER_MICROSECOND = 10_000_000 / 8 / 1_000_000.0;
+
+    @Param({"3", "20", "100"})
+    private int pageSize;
+
+    @Param({"gzip-1", "gzip-6", "gzip-9", "br-1", "br-5", "br-11"})
+    private String codec;
+
+    private byte[] page;
+    private ContentEncoding encoding;
+    private int level;
+
+    @Setup
+    public void setup() throws IOException {
+        List<Song> songs = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            Song song = new Song();
+            song.setId((long) i + 1);
+            song.setTitle("For The Lover That I Lost " + i);
+            song.setDescription("Live At Abbey Road Studios");
+            song.setCategory(SongCategory.values()[i % SongCategory.values().length]);
+            song.setDuration("3:01");
+            song.setArtistName("Sam Smith");
+            songs.add(song);
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("songs", songs);
+        response.put("currentPage", 0);
+        response.put("totalItems", 10_000L);
+        response.put("totalPages", 10_000 / pageSize + 1);
+        page = new ObjectMapper().writeValueAsBytes(response);
+
+        String[] parts = codec.split("-");
+        encoding = parts[0].equals("br") ? ContentEncoding.BROTLI : ContentEncoding.GZIP;
+        level = Integer.parseInt(parts[1]);
+        if (encoding == ContentEncoding.BROTLI && !ContentEncoding.brotliAvailable()) {
+            throw new IllegalStateException("brotli native library is not available on this platform");
+        }
+
+        int compressed = compress().length;
+        System.out.printf("%n%d songs, %s : %d -> %d bytes (%.0f%%), %.1f us saved on a 10 Mbit/s link%n",
+                pageSize, codec, page.length, compressed, 100.0 * compressed / page.length,
+                (page.length - compressed) / LINK_BYTES_PER_MICROSECOND);
+    }
+
+    @Benchmark
+    public byte[] compress() {
+        return encoding.encode(page, level, level);
+    }
+}
@@ -0,0 +1,129 @@
+package com.rest.playlist.benchmark;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop http load generator : each simulated client runs on its own virtual thread
+ * and sends its next request as soon as the previous one completes.
+ * Run it against a started application, once with the default profile (classic Tomcat pool)
+ * and once with the "virtual-threads" profile, then compare throughput and tail latencies :
+ *
+ * mvn -Pbenchmark -DskipTests test -Dbenchmark.main=com.rest.playlist.benchmark.HttpLoadBenchmark
+ *     -Dbenchmark.clients=1000 -Dbenchmark.path=/api/songs?page=0&size=3
+ */
+public class HttpLoadBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("benchmark.url", "http://localhost:8080");
+        String url = baseUrl + System.getProperty("benchmark.path", "/api/songs?page=0&size=3");
+        int clients = Integer.getInteger("benchmark.clients", 1000);
+        Duration warmup = Duration.ofSeconds(Long.getLong("benchmark.warmup-seconds", 10L));
+        Duration measurement = Duration.ofSeconds(Long.getLong("benchmark.duration-seconds", 30L));
+
+        Result result = run(URI.create(url), clients, warmup, measurement);
+        System.out.println(result);
+        printConnectionPool(URI.create(baseUrl + "/actuator/connectionpool"));
+    }
+
+    /**
+     * Observed concurrency and recommended pool size after the load : rerun with
+     * spring.datasource.hikari.maximum-pool-size set to the recommended size and compare the tail latencies.
+     */
+    private static void printConnectionPool(URI uri) {
+        try {
+            HttpResponse<String> response = HttpClient.newHttpClient()
+                    .send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 200) {
+                System.out.println("connection pool : " + response.body());
+            }
+        } catch (Exception e) {
+            System.out.println("connection pool : not available (" + e + ")");
+        }
+    }
+
+    public static Result run(URI uri, int clients, Duration warmup, Duration measurement) throws InterruptedException {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().timeout(Duration.ofSeconds(30)).build();
+
+        Histogram latencies = new ConcurrentHistogram(TimeUnit.SECONDS.toMicros(30), 3);
+        LongAdder errors = new LongAdder();
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long measureUntil = measureFrom + measurement.toNanos();
+
+        List<Thread> threads = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            threads.add(Thread.ofVirtual().name("load-client-" + i).start(() -> {
+                while (System.nanoTime() < measureUntil) {
+                    long start = System.nanoTime();
+                    boolean failed;
+                    try {
+                        failed = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() >= 500;
+                    } catch (Exception e) {
+                        failed = true;
+                    }
+                    long end = System.nanoTime();
+                    if (start >= measureFrom && end <= measureUntil) {
+                        if (failed) {
+                            errors.increment();
+                        } else {
+                            latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(end - start));
+                        }
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return new Result(uri, clients, measurement, latencies, errors.sum());
+    }
+
+    public static class Result {
+
+        private final URI uri;
+        private final int clients;
+        private final Duration measurement;
+        private final Histogram latencies;
+        private final long errors;
+
+        Result(URI uri, int clients, Duration measurement, Histogram latencies, long errors) {
+            this.uri = uri;
+            this.clients = clients;
+            this.measurement = measurement;
+            this.latencies = latencies;
+            this.errors = errors;
+        }
+
+        public double getThroughput() {
+            return (double) latencies.getTotalCount() / measurement.getSeconds();
+        }
+
+        public Histogram getLatencies() {
+            return latencies;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s clients=%d throughput=%.1f req/s errors=%d latency(ms) p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f",
+                    uri, clients, getThroughput(), errors,
+                    latencies.getValueAtPercentile(50) / 1000.0,
+                    latencies.getValueAtPercentile(90) / 1000.0,
+                    latencies.getValueAtPercentile(99) / 1000.0,
+                    latencies.getValueAtPercentile(99.9) / 1000.0,
+                    latencies.getMaxValue() / 1000.0);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.rest.playlist.benchmark;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.StringJoiner;
+
+/**
+ * Runs the JMH benchmarks of the test sources through the benchmark profile.
+ * exec:java loads the test classpath in an isolated class loader,
+ * it is exported as java.class.path for the JVMs forked by JMH.
+ *
+ * mvn -Pbenchmark -DskipTests test -Dbenchmark.main=com.rest.playlist.benchmark.JmhRunner -Dexec.args=SongSerializationBenchmark
+ */
+public class JmhRunner {
+
+    public static void main(String[] args) throws Exception {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        if (classLoader instanceof URLClassLoader) {
+            StringJoiner classPath = new StringJoiner(File.pathSeparator);
+            for (URL url : ((URLClassLoader) classLoader).getURLs()) {
+                classPath.add(new File(url.toURI()).getPath());
+            }
+            System.setProperty("java.class.path", classPath.toString());
+        }
+        org.openjdk.jmh.Main.main(args);
+    }
+}
@@ -0,0 +1,141 @@
+package com.rest.playlist.benchmark;
+
+import com.rest.playlist.PlaylistApplication;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Playlist;
+import com.rest.playlist.model.PlaylistTrack;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.repository.SongRepository;
+import com.rest.playlist.service.IPlaylistService;
+import com.rest.playlist.service.PlaylistServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Playlist of 10k tracks (benchmark.tracks) on H2 in memory : a page read at the start and at the end of the
+ * playlist (one join query), a track inserted or moved in the middle with sparse positions, compared with
+ * an insert which renumbers the following tracks (dense positions).
+ *
+ * mvn -Pbenchmark -DskipTests test -Dbenchmark.main=com.rest.playlist.benchmark.JmhRunner -Dexec.args=PlaylistBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlaylistBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    private ConfigurableApplicationContext context;
+    private IPlaylistService playlistService;
+    private TransactionTemplate transactionTemplate;
+    private EntityManager entityManager;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private Long playlistId;
+    private Long songId;
+    private List<Long> trackIds;
+    private int lastPage;
+
+    @Setup
+    public void setup() {
+        int tracks = Integer.getInteger("benchmark.tracks", 10_000);
+        context = new SpringApplicationBuilder(PlaylistApplication.class)
+                .properties("server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:playlist_benchmark",
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "spring.jpa.show-sql=false",
+                        "playlist.plays.wal.enabled=false",
+                        "playlist.songs.trending.snapshot-file=target/trending-benchmark.bin",
+                        "logging.level.com.rest.playlist=WARN")
+                .run();
+        playlistService = context.getBean(IPlaylistService.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        entityManager = context.getBean(EntityManager.class);
+
+        List<Long> songIds = new ArrayList<>();
+        SongRepository songRepository = context.getBean(SongRepository.class);
+        for (int i = 0; i < 100; i++) {
+            Song song = new Song();
+            song.setTitle("Title " + i);
+            song.setDescription("Description " + i);
+            song.setDuration("3:" + (10 + i % 50));
+            song.setArtistName("Artist " + i);
+            song.setCategory(SongCategory.values()[i % SongCategory.values().length]);
+            songIds.add(songRepository.save(song).getId());
+        }
+        songId = songIds.get(0);
+
+        Playlist playlist = new Playlist();
+        playlist.setName("Benchmark");
+        playlistId = playlistService.createPlaylist(playlist).getId();
+        trackIds = new ArrayList<>();
+        for (int i = 0; i < tracks; i++) {
+            trackIds.add(playlistService.addTrack(playlistId, songIds.get(i % songIds.size()), null).getId());
+        }
+        lastPage = tracks / PAGE_SIZE - 1;
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<PlaylistTrack> readFirstPage() {
+        return playlistService.getPlaylistTracks(playlistId, 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Page<PlaylistTrack> readLastPage() {
+        return playlistService.getPlaylistTracks(playlistId, lastPage, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public PlaylistTrack insertInMiddle() {
+        return playlistService.addTrack(playlistId, songId, randomTrack());
+    }
+
+    @Benchmark
+    public PlaylistTrack moveInMiddle() {
+        Long trackId = randomTrack();
+        Long beforeTrackId = randomTrack();
+        return playlistService.moveTrack(playlistId, trackId, trackId.equals(beforeTrackId) ? null : beforeTrackId);
+    }
+
+    /**
+     * Dense positions : an insertion shifts every following track, this measures the shift alone.
+     */
+    @Benchmark
+    public int insertInMiddleRenumbering() {
+        Long beforeTrackId = randomTrack();
+        return transactionTemplate.execute(status -> {
+            long position = entityManager.createQuery("select t.position from PlaylistTrack t where t.id = :id", Long.class)
+                    .setParameter("id", beforeTrackId)
+                    .getSingleResult();
+            return entityManager.createQuery("update PlaylistTrack t set t.position = t.position + :gap "
+                            + "where t.playlist.id = :playlistId and t.position >= :position")
+                    .setParameter("gap", PlaylistServiceImpl.POSITION_GAP)
+                    .setParameter("playlistId", playlistId)
+                    .setParameter("position", position)
+                    .executeUpdate();
+        });
+    }
+
+    private Long randomTrack() {
+        return trackIds.get(random.nextInt(trackIds.size()));
+    }
+}
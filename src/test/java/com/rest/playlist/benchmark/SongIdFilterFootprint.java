@@ -0,0 +1,53 @@
+package com.rest.playlist.benchmark;
+
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.util.SplittableRandom;
+
+/**
+ * Memory footprint of the SongIdFilter bitmap for 10M song ids (benchmark.ids), compared with
+ * a Bloom filter at 1% false positives and a HashSet<Long>, for three id distributions :
+ * a dense sequence, a sequence with 10% of the songs deleted, ids spread over the int range.
+ *
+ * mvn -Pbenchmark -DskipTests test -Dbenchmark.main=com.rest.playlist.benchmark.SongIdFilterFootprint
+ */
+public class SongIdFilterFootprint {
+
+    public static void main(String[] args) {
+        int count = Integer.getInteger("benchmark.ids", 10_000_000);
+        SplittableRandom random = new SplittableRandom(42);
+
+        Roaring64Bitmap sequence = new Roaring64Bitmap();
+        sequence.addRange(1, count + 1L);
+        report("sequence 1.." + count, sequence);
+
+        Roaring64Bitmap deleted = new Roaring64Bitmap();
+        long id = 0;
+        while (deleted.getLongCardinality() < count) {
+            id++;
+            if (random.nextInt(10) != 0) {
+                deleted.addLong(id);
+            }
+        }
+        report("sequence with 10% deleted", deleted);
+
+        Roaring64Bitmap spread = new Roaring64Bitmap();
+        while (spread.getLongCardinality() < count) {
+            spread.addLong(1 + random.nextInt(Integer.MAX_VALUE));
+        }
+        report("spread over the int range", spread);
+
+        // m = -n ln(p) / ln(2)^2 bits
+        long bloomBytes = (long) Math.ceil(-count * Math.log(0.01) / (Math.log(2) * Math.log(2)) / 8);
+        System.out.printf("%-28s %,15d bytes (1%% false positives, no delete)%n", "bloom filter", bloomBytes);
+        // HashMap.Node 32 bytes + Long 16 bytes + table slot 4 bytes (load factor 0.75)
+        System.out.printf("%-28s %,15d bytes (estimated)%n", "HashSet<Long>", count * (32L + 16L) + count * 4L * 4 / 3);
+    }
+
+    private static void report(String distribution, Roaring64Bitmap ids) {
+        long before = ids.getLongSizeInBytes();
+        ids.runOptimize();
+        System.out.printf("%-28s %,15d bytes (%,d before run optimization), %.3f bytes per id%n",
+                distribution, ids.getLongSizeInBytes(), before, (double) ids.getLongSizeInBytes() / ids.getLongCardinality());
+    }
+}
@@ -0,0 +1,133 @@
+package com.rest.playlist.benchmark;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.web.converter.SongProtobufCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode cost of a song page (the Map envelope of SongResource) in JSON, Smile, CBOR and Protobuf.
+ * The payload sizes are printed once per trial.
+ *
+ * mvn -Pbenchmark -DskipTests test -Dbenchmark.main=com.rest.playlist.benchmark.JmhRunner -Dexec.args=SongSerializationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SongSerializationBenchmark {
+
+    @Param({"3", "100"})
+    private int pageSize;
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final ObjectMapper smile = new ObjectMapper(new SmileFactory());
+    private final ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+
+    private JavaType pageType;
+    private List<Song> songs;
+    private Map<String, Object> page;
+    private byte[] jsonPayload;
+    private byte[] smilePayload;
+    private byte[] cborPayload;
+    private byte[] protobufPayload;
+
+    @Setup
+    public void setup() throws IOException {
+        songs = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            Song song = new Song();
+            song.setId((long) i + 1);
+            song.setTitle("For The Lover That I Lost " + i);
+            song.setDescription("Live At Abbey Road Studios");
+            song.setCategory(SongCategory.values()[i % SongCategory.values().length]);
+            song.setDuration("3:01");
+            song.setArtistName("Sam Smith");
+            songs.add(song);
+        }
+        page = new HashMap<>();
+        page.put("songs", songs);
+        page.put("currentPage", 0);
+        page.put("totalItems", 10_000L);
+        page.put("totalPages", 10_000 / pageSize + 1);
+        pageType = json.getTypeFactory().constructType(SongPage.class);
+
+        jsonPayload = json.writeValueAsBytes(page);
+        smilePayload = smile.writeValueAsBytes(page);
+        cborPayload = cbor.writeValueAsBytes(page);
+        protobufPayload = encodeProtobuf();
+
+        System.out.printf("%n%d songs : json %d bytes, smile %d bytes, cbor %d bytes, protobuf %d bytes%n",
+                pageSize, jsonPayload.length, smilePayload.length, cborPayload.length, protobufPayload.length);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws IOException {
+        return json.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] encodeSmile() throws IOException {
+        return smile.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] encodeCbor() throws IOException {
+        return cbor.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] encodeProtobuf() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+        SongProtobufCodec.writePage(songs, 0, 10_000L, 10_000 / pageSize + 1, output);
+        output.flush();
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public SongPage decodeJson() throws IOException {
+        return json.readValue(jsonPayload, pageType);
+    }
+
+    @Benchmark
+    public SongPage decodeSmile() throws IOException {
+        return smile.readValue(smilePayload, pageType);
+    }
+
+    @Benchmark
+    public SongPage decodeCbor() throws IOException {
+        return cbor.readValue(cborPayload, pageType);
+    }
+
+    @Benchmark
+    public List<Song> decodeProtobuf() throws IOException {
+        return SongProtobufCodec.readPageSongs(CodedInputStream.newInstance(protobufPayload));
+    }
+
+    /**
+     * Typed view of the page envelope for the Jackson decoders.
+     */
+    public static class SongPage {
+        public List<Song> songs;
+        public int currentPage;
+        public long totalItems;
+        public int totalPages;
+    }
+}
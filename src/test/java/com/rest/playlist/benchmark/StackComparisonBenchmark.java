@@ -0,0 +1,86 @@
+package com.rest.playlist.benchmark;
+
+import com.rest.playlist.PlaylistApplication;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.repository.SongRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares the servlet stack (Tomcat + JPA) with the reactive stack (WebFlux + R2DBC)
+ * on the same H2 in-memory dataset : the servlet application creates the schema and loads the songs,
+ * the database is kept alive (DB_CLOSE_DELAY=-1) for the reactive application started afterwards.
+ *
+ * mvn -Pbenchmark -DskipTests test -Dbenchmark.main=com.rest.playlist.benchmark.StackComparisonBenchmark
+ */
+public class StackComparisonBenchmark {
+
+    private static final String JDBC_URL = "jdbc:h2:mem:playlist_benchmark;DB_CLOSE_DELAY=-1";
+    private static final String R2DBC_URL = "r2dbc:h2:mem:///playlist_benchmark?options=DB_CLOSE_DELAY=-1";
+
+    public static void main(String[] args) throws Exception {
+        int songs = Integer.getInteger("benchmark.songs", 10_000);
+        int clients = Integer.getInteger("benchmark.clients", 1000);
+        String path = System.getProperty("benchmark.path", "/api/songs/category/POP?page=0&size=3");
+        Duration warmup = Duration.ofSeconds(Long.getLong("benchmark.warmup-seconds", 10L));
+        Duration measurement = Duration.ofSeconds(Long.getLong("benchmark.duration-seconds", 30L));
+
+        HttpLoadBenchmark.Result servlet;
+        try (ConfigurableApplicationContext context = start(new String[0])) {
+            loadDataset(context.getBean(SongRepository.class), songs);
+            servlet = HttpLoadBenchmark.run(uri(context, path), clients, warmup, measurement);
+        }
+
+        HttpLoadBenchmark.Result reactive;
+        try (ConfigurableApplicationContext context = start(new String[]{"reactive"})) {
+            reactive = HttpLoadBenchmark.run(uri(context, path), clients, warmup, measurement);
+        }
+
+        System.out.println("servlet  (Tomcat + JPA)    : " + servlet);
+        System.out.println("reactive (WebFlux + R2DBC) : " + reactive);
+    }
+
+    private static ConfigurableApplicationContext start(String[] profiles) {
+        return new SpringApplicationBuilder(PlaylistApplication.class)
+                .profiles(profiles)
+                .properties("server.port=0",
+                        "spring.datasource.url=" + JDBC_URL,
+                        "spring.datasource.username=sa",
+                        "spring.datasource.password=",
+                        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "spring.jpa.show-sql=false",
+                        "spring.r2dbc.url=" + R2DBC_URL,
+                        "spring.r2dbc.username=sa",
+                        "spring.r2dbc.password=")
+                .run();
+    }
+
+    private static void loadDataset(SongRepository songRepository, int songs) {
+        SongCategory[] categories = SongCategory.values();
+        List<Song> batch = new ArrayList<>();
+        for (int i = 0; i < songs; i++) {
+            Song song = new Song();
+            song.setTitle("Title " + i);
+            song.setDescription("Description " + i);
+            song.setDuration("3:" + (10 + i % 50));
+            song.setArtistName("Artist " + (i % 500));
+            song.setCategory(categories[i % categories.length]);
+            batch.add(song);
+            if (batch.size() == 500) {
+                songRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        songRepository.saveAll(batch);
+    }
+
+    private static URI uri(ConfigurableApplicationContext context, String path) {
+        return URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port") + path);
+    }
+}
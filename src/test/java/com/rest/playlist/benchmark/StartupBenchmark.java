@@ -0,0 +1,127 @@
+package com.rest.playlist.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures the time-to-first-request of PlaylistApplication : from the launch of a new process
+ * until the first successful answer of GET /actuator/health, and the resident memory (RSS) of the process
+ * at that moment, for each scenario, over several runs.
+ * Scenarios run the packaged application (mvn package) against the configured database :
+ * - default    : springfox scanning, eager context, schema update
+ * - fast-start : fast-start profile
+ * - fast-start+cds : fast-start profile with the class-data-sharing archive given by -Dbenchmark.cds-archive
+ *
+ * mvn -Pbenchmark -DskipTests test -Dbenchmark.main=com.rest.playlist.benchmark.StartupBenchmark
+ *     -Dbenchmark.jar=target/playlist-0.0.1-SNAPSHOT.jar
+ */
+public class StartupBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String jar = System.getProperty("benchmark.jar", "target/playlist-0.0.1-SNAPSHOT.jar");
+        String cdsArchive = System.getProperty("benchmark.cds-archive");
+        int runs = Integer.getInteger("benchmark.runs", 5);
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+
+        Map<String, List<String>> scenarios = new LinkedHashMap<>();
+        scenarios.put("default", Arrays.asList(java, "-jar", jar));
+        scenarios.put("fast-start", Arrays.asList(java, "-jar", jar, "--spring.profiles.active=fast-start"));
+        if (cdsArchive != null) {
+            scenarios.put("fast-start+cds", Arrays.asList(java, "-XX:SharedArchiveFile=" + cdsArchive, "-jar", jar,
+                    "--spring.profiles.active=fast-start"));
+        }
+
+        for (Map.Entry<String, List<String>> scenario : scenarios.entrySet()) {
+            List<Long> timings = new ArrayList<>();
+            List<Long> rss = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                Measurement measurement = timeToFirstRequest(scenario.getValue());
+                timings.add(measurement.timeToFirstRequest.toMillis());
+                rss.add(measurement.rssKb);
+            }
+            Collections.sort(timings);
+            Collections.sort(rss);
+            System.out.printf("%-16s time-to-first-request(ms) min=%d median=%d max=%d  rss(MB) median=%d%n", scenario.getKey(),
+                    timings.get(0), timings.get(timings.size() / 2), timings.get(timings.size() - 1),
+                    rss.get(rss.size() / 2) / 1024);
+        }
+    }
+
+    static Measurement timeToFirstRequest(List<String> arguments) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>(arguments);
+        command.add("--server.port=" + port);
+
+        HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health")).build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            while (process.isAlive()) {
+                try {
+                    if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+                        return new Measurement(elapsed, residentSetSizeKb(process.pid()));
+                    }
+                } catch (IOException e) {
+                    // not listening yet
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("Application exited with code " + process.exitValue() + ": " + command);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    /**
+     * @return VmRSS of the process read from /proc (Linux only), 0 elsewhere
+     */
+    private static long residentSetSizeKb(long pid) {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc", String.valueOf(pid), "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (IOException e) {
+            // not available on this platform
+        }
+        return 0;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    static class Measurement {
+
+        private final Duration timeToFirstRequest;
+        private final long rssKb;
+
+        Measurement(Duration timeToFirstRequest, long rssKb) {
+            this.timeToFirstRequest = timeToFirstRequest;
+            this.rssKb = rssKb;
+        }
+    }
+}
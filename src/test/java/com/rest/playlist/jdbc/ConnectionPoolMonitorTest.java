@@ -0,0 +1,131 @@
+package com.rest.playlist.jdbc;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.PoolStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConnectionPoolMonitorTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TestPoolStats poolStats = new TestPoolStats();
+    private final ConnectionPoolMonitor monitor = new ConnectionPoolMonitor(() -> meterRegistry, Duration.ofSeconds(10),
+            Duration.ofSeconds(1), 0.2, 2, 20, 5, Duration.ofSeconds(10));
+
+    @After
+    public void tearDown() {
+        ConnectionPoolMonitor.exit();
+    }
+
+    @Test
+    public void testConnectionHoldersAreTrackedPerEndpoint() {
+        IMetricsTracker tracker = monitor.create("test", poolStats);
+
+        ConnectionPoolMonitor.enter("GET", "/api/songs");
+        tracker.recordConnectionAcquiredNanos(TimeUnit.MILLISECONDS.toNanos(3));
+
+        assertThat(monitor.getTopHolders()).hasSize(1);
+        Map<String, Object> holder = monitor.getTopHolders().get(0);
+        assertThat(holder.get("endpoint")).isEqualTo("GET /api/songs");
+        assertThat(holder.get("thread")).isEqualTo(Thread.currentThread().getName());
+
+        tracker.recordConnectionUsageMillis(40);
+
+        assertThat(monitor.getTopHolders()).isEmpty();
+        Timer hold = meterRegistry.find("playlist.db.connection.hold").tag("uri", "/api/songs").timer();
+        assertThat(hold).isNotNull();
+        assertThat(hold.count()).isEqualTo(1);
+        assertThat(hold.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(40);
+        assertThat(meterRegistry.find("playlist.db.connection.acquire").tag("method", "GET").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void testConnectionsOutsideRequestsAreBackground() {
+        IMetricsTracker tracker = monitor.create("test", poolStats);
+
+        tracker.recordConnectionAcquiredNanos(1000);
+        tracker.recordConnectionAcquiredNanos(1000);
+        tracker.recordConnectionUsageMillis(5);
+
+        assertThat(monitor.getTopHolders()).hasSize(1);
+        assertThat(monitor.getTopHolders().get(0).get("endpoint")).isEqualTo("background");
+        assertThat(monitor.getTopHolders().get(0).get("connections")).isEqualTo(1);
+    }
+
+    @Test
+    public void testRecommendedPoolSizeFollowsTheDemand() {
+        monitor.create("test", poolStats);
+        poolStats.set(10, 0, 0, 10);
+        assertThat(monitor.getRecommendedPoolSize()).isEqualTo(10);
+
+        poolStats.set(10, 0, 5, 10);
+        for (int i = 0; i < 11; i++) {
+            monitor.sample();
+        }
+
+        assertThat(monitor.getRecommendedPoolSize()).isEqualTo(18);
+        assertThat(monitor.getSaturations()).isEqualTo(11);
+
+        poolStats.set(1, 9, 0, 10);
+        for (int i = 0; i < 10; i++) {
+            monitor.sample();
+        }
+
+        assertThat(monitor.getRecommendedPoolSize()).isEqualTo(2);
+    }
+
+    @Test
+    public void testAdaptivePoolGrowsAtOnceAndShrinksByOne() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setMaximumPoolSize(10);
+        dataSource.setMinimumIdle(10);
+        monitor.monitor(dataSource);
+        monitor.create("test", poolStats);
+
+        poolStats.set(10, 0, 5, 10);
+        for (int i = 0; i < 11; i++) {
+            monitor.sample();
+        }
+        monitor.adjust();
+
+        assertThat(dataSource.getMaximumPoolSize()).isEqualTo(18);
+
+        poolStats.set(1, 17, 0, 18);
+        for (int i = 0; i < 10; i++) {
+            monitor.sample();
+        }
+        monitor.adjust();
+
+        assertThat(dataSource.getMaximumPoolSize()).isEqualTo(17);
+        assertThat(dataSource.getMinimumIdle()).isEqualTo(10);
+    }
+
+    private static class TestPoolStats extends PoolStats {
+
+        TestPoolStats() {
+            super(Long.MAX_VALUE);
+        }
+
+        void set(int active, int idle, int pending, int max) {
+            activeConnections = active;
+            idleConnections = idle;
+            pendingThreads = pending;
+            totalConnections = active + idle;
+            maxConnections = max;
+        }
+
+        @Override
+        protected void update() {
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.rest.playlist.jdbc;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@RunWith(SpringRunner.class)
+public class QueryDeadlineInterceptorTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testStreamDeadlineDoesNotApplyToTheNextRequestOfTheThread() throws Exception {
+        mockMvc.perform(get("/api/songs/changes/stream").header("X-Request-Timeout-Ms", "1")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        assertThat(QueryDeadline.current()).isNull();
+        Thread.sleep(10);
+
+        mockMvc.perform(get("/api/songs").param("page", "0").param("size", "3"))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,87 @@
+package com.rest.playlist.jdbc;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import org.junit.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+public class QueryDeadlineListenerTest {
+
+    private final QueryDeadlineListener listener = new QueryDeadlineListener();
+
+    @Test
+    public void testStatementWithoutDeadlineIsNotCancelled() throws SQLException, InterruptedException {
+        ExecutionInfo execInfo = execInfo();
+
+        listener.beforeQuery(execInfo, Collections.emptyList());
+        Thread.sleep(50);
+        listener.afterQuery(execInfo, Collections.emptyList());
+
+        verify(execInfo.getStatement(), never()).cancel();
+    }
+
+    @Test
+    public void testStatementRunningAtTheDeadlineIsCancelled() throws SQLException {
+        ExecutionInfo execInfo = execInfo();
+
+        try (QueryDeadline.Scope ignored = QueryDeadline.open(Duration.ofMillis(20), QueryDeadline.REQUEST)) {
+            listener.beforeQuery(execInfo, Collections.emptyList());
+            verify(execInfo.getStatement(), timeout(1000)).cancel();
+            execInfo.setThrowable(new SQLTimeoutException("canceling statement due to user request"));
+            listener.afterQuery(execInfo, Collections.emptyList());
+        }
+
+        assertThat(listener.getRequestCancellations()).isEqualTo(1);
+    }
+
+    @Test
+    public void testStatementCompletedBeforeTheDeadlineIsNotCancelled() throws SQLException, InterruptedException {
+        ExecutionInfo execInfo = execInfo();
+
+        try (QueryDeadline.Scope ignored = QueryDeadline.open(Duration.ofMillis(50), QueryDeadline.METHOD)) {
+            listener.beforeQuery(execInfo, Collections.emptyList());
+            listener.afterQuery(execInfo, Collections.emptyList());
+        }
+        Thread.sleep(100);
+
+        verify(execInfo.getStatement(), never()).cancel();
+    }
+
+    @Test
+    public void testStatementPastTheDeadlineIsNotSent() {
+        try (QueryDeadline.Scope ignored = QueryDeadline.open(Duration.ZERO, QueryDeadline.METHOD)) {
+            assertThatThrownBy(() -> listener.beforeQuery(execInfo(), Collections.emptyList()))
+                    .isInstanceOf(QueryTimeoutException.class);
+        }
+        assertThat(listener.getRejections()).isEqualTo(1);
+    }
+
+    @Test
+    public void testNestedScopeKeepsTheEarliestDeadline() {
+        try (QueryDeadline.Scope request = QueryDeadline.open(Duration.ofMillis(100), QueryDeadline.REQUEST);
+             QueryDeadline.Scope method = QueryDeadline.open(Duration.ofSeconds(10), QueryDeadline.METHOD)) {
+            assertThat(method.getSource()).isEqualTo(QueryDeadline.REQUEST);
+            long requestRemaining = request.remainingNanos();
+            assertThat(method.remainingNanos()).isLessThanOrEqualTo(requestRemaining);
+        }
+        assertThat(QueryDeadline.current()).isNull();
+    }
+
+    private static ExecutionInfo execInfo() {
+        ExecutionInfo execInfo = new ExecutionInfo();
+        execInfo.setStatement(mock(Statement.class));
+        return execInfo;
+    }
+}
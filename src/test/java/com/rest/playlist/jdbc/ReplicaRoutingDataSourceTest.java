@@ -0,0 +1,94 @@
+package com.rest.playlist.jdbc;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two H2 in-memory databases act as primary and replica, each one knows its own name.
+ */
+public class ReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private JdbcTemplate jdbcTemplate;
+    private DataSourceTransactionManager transactionManager;
+
+    @Before
+    public void setup() {
+        primary = node("primary");
+        replica = node("replica");
+        useReplicas(replica);
+    }
+
+    @After
+    public void tearDown() {
+        ReadYourWritesContext.clear();
+    }
+
+    @Test
+    public void testReadOnlyTransactionsUseReplica() {
+        assertThat(nodeName(true)).isEqualTo("replica");
+    }
+
+    @Test
+    public void testWriteTransactionsUsePrimary() {
+        assertThat(nodeName(false)).isEqualTo("primary");
+    }
+
+    @Test
+    public void testClientReadsItsOwnWritesFromPrimary() {
+        ReadYourWritesContext.setClient("writer");
+        nodeName(false);
+        assertThat(nodeName(true)).isEqualTo("primary");
+
+        ReadYourWritesContext.setClient("reader");
+        assertThat(nodeName(true)).isEqualTo("replica");
+    }
+
+    @Test
+    public void testFallbackToPrimaryWhenReplicaIsDown() {
+        ReplicaRoutingDataSource routingDataSource = useReplicas(new DriverManagerDataSource("jdbc:h2:tcp://localhost:1/down"));
+        routingDataSource.checkReplicas();
+
+        assertThat(routingDataSource.getHealthyReplicas()).isEmpty();
+        assertThat(nodeName(true)).isEqualTo("primary");
+    }
+
+    private ReplicaRoutingDataSource useReplicas(DataSource replicaDataSource) {
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(primary,
+                Collections.singletonList(replicaDataSource), ReplicaRoutingDataSource.Strategy.ROUND_ROBIN, Duration.ofMinutes(1));
+        routingDataSource.afterPropertiesSet();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        return routingDataSource;
+    }
+
+    private String nodeName(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("SELECT name FROM node", String.class));
+    }
+
+    private static DataSource node(String name) {
+        DataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:routing_" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS node");
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO node (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
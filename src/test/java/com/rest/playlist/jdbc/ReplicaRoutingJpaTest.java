@@ -0,0 +1,139 @@
+package com.rest.playlist.jdbc;
+
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.repository.SongRepository;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The routing as the application runs it : JpaTransactionManager over the LazyConnectionDataSourceProxy,
+ * the read-only flag coming from the @Transactional(readOnly = true) of the Spring Data repository methods.
+ * Primary and replica share one H2 database (same schema), each counts the connections it hands out.
+ */
+@RunWith(SpringRunner.class)
+@ContextConfiguration(classes = ReplicaRoutingJpaTest.Config.class)
+public class ReplicaRoutingJpaTest {
+
+    @Autowired
+    private SongRepository songRepository;
+
+    @Autowired
+    private CountingDataSource primary;
+
+    @Autowired
+    private CountingDataSource replica;
+
+    @Before
+    public void setup() {
+        primary.connections.set(0);
+        replica.connections.set(0);
+    }
+
+    @Test
+    public void testReadOnlyRepositoryCallUsesReplica() {
+        songRepository.findAll();
+
+        assertThat(replica.connections).hasValue(1);
+        assertThat(primary.connections).hasValue(0);
+    }
+
+    @Test
+    public void testRepositoryWriteUsesPrimary() {
+        Song song = new Song();
+        song.setTitle("Blue in Green");
+        song.setDescription("Kind of Blue");
+        song.setCategory(SongCategory.JAZZ);
+        song.setDuration("5:37");
+        song.setArtistName("Miles Davis");
+
+        songRepository.save(song);
+
+        assertThat(primary.connections).hasValue(1);
+        assertThat(replica.connections).hasValue(0);
+    }
+
+    @Configuration
+    @EnableTransactionManagement
+    @EnableJpaRepositories(basePackageClasses = SongRepository.class,
+            includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = SongRepository.class))
+    static class Config {
+
+        @Bean
+        public CountingDataSource primary() {
+            return new CountingDataSource();
+        }
+
+        @Bean
+        public CountingDataSource replica() {
+            return new CountingDataSource();
+        }
+
+        @Bean
+        public DataSource dataSource(CountingDataSource primary, CountingDataSource replica) {
+            ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(primary,
+                    Collections.singletonList(replica), ReplicaRoutingDataSource.Strategy.ROUND_ROBIN, Duration.ofMinutes(1));
+            routingDataSource.afterPropertiesSet();
+            return new LazyConnectionDataSourceProxy(routingDataSource);
+        }
+
+        @Bean
+        public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+            LocalContainerEntityManagerFactoryBean entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+            entityManagerFactory.setDataSource(dataSource);
+            entityManagerFactory.setPackagesToScan(Song.class.getPackage().getName());
+            entityManagerFactory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            Properties properties = new Properties();
+            properties.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+            entityManagerFactory.setJpaProperties(properties);
+            return entityManagerFactory;
+        }
+
+        @Bean
+        public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            return new JpaTransactionManager(entityManagerFactory);
+        }
+    }
+
+    static class CountingDataSource extends DelegatingDataSource {
+
+        private final AtomicInteger connections = new AtomicInteger();
+
+        CountingDataSource() {
+            super(new DriverManagerDataSource("jdbc:h2:mem:routing_jpa;DB_CLOSE_DELAY=-1", "sa", ""));
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            connections.incrementAndGet();
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.rest.playlist.jdbc;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@RunWith(SpringRunner.class)
+public class SqlStatementInterceptorTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testStreamCountingScopeIsClosedWhenTheRequestLeavesTheThread() throws Exception {
+        mockMvc.perform(get("/api/songs/changes/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        assertThat(SqlStatementCounter.current()).isNull();
+    }
+}
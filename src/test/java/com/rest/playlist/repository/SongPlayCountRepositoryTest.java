@@ -0,0 +1,66 @@
+package com.rest.playlist.repository;
+
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.model.SongPlayCount;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@RunWith(SpringRunner.class)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class SongPlayCountRepositoryTest {
+
+    @Autowired
+    SongRepository songRepository;
+
+    @Autowired
+    SongPlayCountRepository playCountRepository;
+
+    private Song savedSong;
+
+    @Before
+    public void setupCreateSong() {
+        Song song = new Song();
+        song.setTitle("Blue in Green");
+        song.setDescription("Kind of Blue");
+        song.setCategory(SongCategory.JAZZ);
+        song.setDuration("5:37");
+        song.setArtistName("Miles Davis");
+        savedSong = songRepository.saveAndFlush(song);
+    }
+
+    @Test
+    public void shouldInsertThenAddPlayCounts() {
+        playCountRepository.addPlayCounts(Map.of(savedSong.getId(), 3L), 2);
+        playCountRepository.addPlayCounts(Map.of(savedSong.getId(), 4L), 2);
+
+        assertThat(playCountRepository.findById(savedSong.getId()))
+                .map(SongPlayCount::getPlayCount)
+                .hasValue(7L);
+    }
+
+    @Test
+    public void shouldDropPlaysOfNonexistentSongsAcrossBatches() {
+        long missingId = savedSong.getId() + 1000;
+        Map<Long, Long> plays = new HashMap<>();
+        plays.put(savedSong.getId(), 2L);
+        plays.put(missingId, 5L);
+        plays.put(missingId + 1, 1L);
+
+        assertThat(playCountRepository.addPlayCounts(plays, 2)).containsOnly(missingId, missingId + 1);
+
+        assertThat(playCountRepository.findById(savedSong.getId())).map(SongPlayCount::getPlayCount).hasValue(2L);
+        assertThat(playCountRepository.findById(missingId)).isEmpty();
+    }
+}
@@ -1,6 +1,7 @@
 package com.rest.playlist.repository;
 
 import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.enums.SongField;
 import com.rest.playlist.model.Song;
 import org.junit.Before;
 import org.junit.Test;
@@ -15,7 +16,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -67,6 +70,16 @@ public class SongRepositoryTest {
         assertThat(songs).contains(savedSong);
     }
 
+    @Test
+    public void shouldFindSongFieldsByCategory() {
+        List<Map<String, Object>> songs = songRepository.findSongFieldsByCategory(savedSong.getCategory(),
+                Arrays.asList(SongField.ID, SongField.TITLE, SongField.ARTIST_NAME), paging).getContent();
+        assertThat(songs).isNotEmpty();
+        assertThat(songs.get(0)).containsOnlyKeys("id", "title", "artistName");
+        assertThat(songs.get(0)).containsEntry("id", savedSong.getId());
+        assertThat(songs.get(0)).containsEntry("title", savedSong.getTitle());
+    }
+
     @Test
     public void shouldFindSongsByArtistName() {
         List<Song> songs = songRepository.findSongsByArtistName(savedSong.getArtistName(), paging).getContent();
@@ -112,7 +125,7 @@ public class SongRepositoryTest {
     @Test
     public void shouldUpdateSong() {
 
-        Song foundSong = songRepository.getById(savedSong.getId());
+        Song foundSong = songRepository.getReferenceById(savedSong.getId());
         assertThat(foundSong).isNotNull();
 
         foundSong.setTitle("Power");
@@ -120,7 +133,7 @@ public class SongRepositoryTest {
         foundSong.setArtistName("Isak Danielson");
         Song updatedSong = songRepository.save(foundSong);
 
-        Song checkSong = songRepository.getById(updatedSong.getId());
+        Song checkSong = songRepository.getReferenceById(updatedSong.getId());
 
         assertThat(checkSong.getId()).isNotNull();
         assertThat(checkSong.getId()).isEqualTo(updatedSong.getId());
@@ -134,7 +147,7 @@ public class SongRepositoryTest {
     @Test
     public void shouldDeleteSonById() {
         int sizeBeforeDelete = songRepository.findAll().size();
-        Song foundSong = songRepository.getById(savedSong.getId());
+        Song foundSong = songRepository.getReferenceById(savedSong.getId());
         assertThat(foundSong).isNotNull();
 
         songRepository.deleteById(foundSong.getId());
@@ -0,0 +1,72 @@
+package com.rest.playlist.resource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@RunWith(SpringRunner.class)
+public class SongChangeResourceTest {
+
+    private static final String SONG = "{\"title\":\"Stay With Me\",\"description\":\"In the Lonely Hour\","
+            + "\"category\":\"POP\",\"duration\":\"2:52\",\"artistName\":\"Sam Smith\"}";
+    private static final Pattern CREATED_EVENT = Pattern.compile("id:(\\d+)\nevent:created\ndata:(\\{.*})\n\n");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void testChangesAreStreamedAsServerSentEvents() throws Exception {
+        MockHttpServletResponse stream = mockMvc.perform(get("/api/songs/changes/stream")
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+
+        String created = mockMvc.perform(post("/api/songs").contentType(MediaType.APPLICATION_JSON).content(SONG))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long songId = objectMapper.readTree(created).get("id").asLong();
+
+        Matcher event = awaitCreatedEvent(stream, songId);
+        assertThat(event).as("created event in %s", stream.getContentAsString()).isNotNull();
+        assertThat(stream.getContentType()).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+        JsonNode data = objectMapper.readTree(event.group(2));
+        assertThat(data.get("type").asText()).isEqualTo("CREATED");
+        assertThat(data.get("song").get("title").asText()).isEqualTo("Stay With Me");
+    }
+
+    private Matcher awaitCreatedEvent(MockHttpServletResponse stream, long songId) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            Matcher event = CREATED_EVENT.matcher(stream.getContentAsString());
+            while (event.find()) {
+                if (objectMapper.readTree(event.group(2)).get("songId").asLong() == songId) {
+                    return event;
+                }
+            }
+            Thread.sleep(50);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,113 @@
+package com.rest.playlist.resource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.repository.SongRepository;
+import com.rest.playlist.web.converter.SongProtobufCodec;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@RunWith(SpringRunner.class)
+public class SongResourceContentNegotiationTest {
+
+    private static final MediaType PROTOBUF = MediaType.parseMediaType("application/x-protobuf");
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SongRepository songRepository;
+
+    private Song mySong;
+
+    @Before
+    public void setup() {
+        mySong = new Song();
+
+        mySong.setTitle("For The Lover That I Lost");
+        mySong.setDescription("Live At Abbey Road Studios");
+        mySong.setCategory(SongCategory.POP);
+        mySong.setDuration("3:01");
+        mySong.setArtistName("Sam Smith");
+    }
+
+    @Test
+    public void testCreateAndGetSongAsProtobuf() throws Exception {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        CodedOutputStream output = CodedOutputStream.newInstance(body);
+        SongProtobufCodec.writeSong(mySong, output);
+        output.flush();
+
+        byte[] created = mockMvc.perform(post("/api/songs")
+                .contentType(PROTOBUF)
+                .accept(PROTOBUF)
+                .content(body.toByteArray()))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentTypeCompatibleWith(PROTOBUF))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        Song createdSong = SongProtobufCodec.readSong(CodedInputStream.newInstance(created));
+        assertThat(createdSong.getId()).isNotNull();
+        assertThat(createdSong.getTitle()).isEqualTo(mySong.getTitle());
+        assertThat(createdSong.getCategory()).isEqualTo(SongCategory.POP);
+
+        byte[] page = mockMvc.perform(get("/api/songs/category/POP").accept(PROTOBUF))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        List<Song> songs = SongProtobufCodec.readPageSongs(CodedInputStream.newInstance(page));
+        assertThat(songs).extracting(Song::getArtistName).contains(mySong.getArtistName());
+    }
+
+    @Test
+    public void testGetSongAsSmileAndCbor() throws Exception {
+        Song savedSong = songRepository.saveAndFlush(mySong);
+
+        byte[] smile = mockMvc.perform(get("/api/songs/{id}", savedSong.getId()).accept(SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(new ObjectMapper(new SmileFactory()).readValue(smile, Map.class).get("title"))
+                .isEqualTo(savedSong.getTitle());
+
+        byte[] cbor = mockMvc.perform(get("/api/songs/{id}", savedSong.getId()).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(new ObjectMapper(new CBORFactory()).readValue(cbor, Map.class).get("title"))
+                .isEqualTo(savedSong.getTitle());
+    }
+
+    @Test
+    public void testGetSongWithoutAcceptHeaderIsJson() throws Exception {
+        Song savedSong = songRepository.saveAndFlush(mySong);
+
+        mockMvc.perform(get("/api/songs/{id}", savedSong.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+}
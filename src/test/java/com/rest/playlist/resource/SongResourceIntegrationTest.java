@@ -20,6 +20,7 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.List;
 
+import static com.rest.playlist.QueryBudget.assertStatementsAtMost;
 import static com.rest.playlist.TestUtils.asJsonString;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
@@ -98,6 +99,27 @@ public class SongResourceIntegrationTest {
                 .andExpect(jsonPath("$.songs[*].artistName").value(hasItem(savedSong.getArtistName())));
     }
 
+    @Test
+    public void testGetSongFieldsByCategory() throws Exception {
+        Song savedSong = songRepository.saveAndFlush(mySong);
+        mockMvc.perform(get("/api/songs/category/POP?fields=id,title,artistName")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.songs[0].id").value(savedSong.getId()))
+                .andExpect(jsonPath("$.songs[0].title").value(savedSong.getTitle()))
+                .andExpect(jsonPath("$.songs[0].artistName").value(savedSong.getArtistName()))
+                .andExpect(jsonPath("$.songs[0].description").doesNotExist())
+                .andExpect(jsonPath("$.songs[0].category").doesNotExist());
+    }
+
+    @Test
+    public void testGetSongFieldsWithUnknownField() throws Exception {
+        mockMvc.perform(get("/api/songs/category/POP?fields=id,lyrics")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("message").value("Unknown song field = lyrics"));
+    }
+
     @Test
     public void testGetSongsWithNonExistingCategory() throws Exception {
         mockMvc.perform(get("/api/songs/category/popy")
@@ -136,6 +158,49 @@ public class SongResourceIntegrationTest {
     }
 
 
+    @Test
+    public void testGetSongByIdQueryBudget() throws Exception {
+        Song savedSong = songRepository.saveAndFlush(mySong);
+        assertStatementsAtMost(1, () -> mockMvc.perform(get("/api/songs/{id}", savedSong.getId()))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    public void testGetAllSongsQueryBudget() throws Exception {
+        songRepository.saveAndFlush(mySong);
+        assertStatementsAtMost(2, () -> mockMvc.perform(get("/api/songs?page=0&size=3"))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    public void testGetSongsByIds() throws Exception {
+        Song firstSong = songRepository.saveAndFlush(mySong);
+        Song secondSong = new Song();
+        secondSong.setTitle("Stay With Me");
+        secondSong.setDescription("In The Lonely Hour");
+        secondSong.setCategory(SongCategory.POP);
+        secondSong.setDuration("2:52");
+        secondSong.setArtistName("Sam Smith");
+        songRepository.saveAndFlush(secondSong);
+
+        assertStatementsAtMost(1, () -> mockMvc.perform(get("/api/songs")
+                .param("ids", secondSong.getId() + ",4000," + firstSong.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.songs", hasSize(2)))
+                .andExpect(jsonPath("$.songs[0].title").value(secondSong.getTitle()))
+                .andExpect(jsonPath("$.songs[1].title").value(firstSong.getTitle()))
+                .andExpect(jsonPath("$.missingIds", hasSize(1)))
+                .andExpect(jsonPath("$.missingIds[0]").value(4000)));
+
+        // served by the songs cache
+        assertStatementsAtMost(0, () -> mockMvc.perform(post("/api/songs/lookup")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[" + firstSong.getId() + "," + secondSong.getId() + "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.songs[0].title").value(firstSong.getTitle()))
+                .andExpect(jsonPath("$.missingIds", hasSize(0))));
+    }
+
     @Test
     public void testGetSongByNonExistingId() throws Exception {
         mockMvc.perform(get("/api/songs/4000"))
@@ -0,0 +1,125 @@
+package com.rest.playlist.service;
+
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Playlist;
+import com.rest.playlist.model.PlaylistTrack;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.repository.SongRepository;
+import com.rest.playlist.web.exception.BadRequestException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.rest.playlist.QueryBudget.assertStatementsAtMost;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
+
+@SpringBootTest
+@Transactional
+@RunWith(SpringRunner.class)
+public class PlaylistServiceIntegrationTest {
+
+    @Autowired
+    private PlaylistServiceImpl playlistService;
+
+    @Autowired
+    private SongRepository songRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Playlist playlist;
+    private List<Song> songs;
+
+    @Before
+    public void setup() {
+        Playlist myPlaylist = new Playlist();
+        myPlaylist.setName("Sunday morning");
+        playlist = playlistService.createPlaylist(myPlaylist);
+
+        songs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Song song = new Song();
+            song.setTitle("Track " + i);
+            song.setDescription("Sunday morning track");
+            song.setCategory(SongCategory.JAZZ);
+            song.setDuration("4:0" + i);
+            song.setArtistName("Bill Evans");
+            songs.add(songRepository.saveAndFlush(song));
+        }
+    }
+
+    @Test
+    public void testTracksAreAppendedInOrder() {
+        songs.forEach(song -> playlistService.addTrack(playlist.getId(), song.getId(), null));
+
+        assertThat(titles(0, 10)).containsExactly("Track 0", "Track 1", "Track 2", "Track 3", "Track 4");
+    }
+
+    @Test
+    public void testInsertAndMoveUpdateOneTrack() throws Exception {
+        PlaylistTrack first = playlistService.addTrack(playlist.getId(), songs.get(0).getId(), null);
+        PlaylistTrack last = playlistService.addTrack(playlist.getId(), songs.get(1).getId(), null);
+        PlaylistTrack inserted = playlistService.addTrack(playlist.getId(), songs.get(2).getId(), last.getId());
+        assertThat(titles(0, 10)).containsExactly("Track 0", "Track 2", "Track 1");
+
+        entityManager.flush();
+        assertStatementsAtMost(5, () -> playlistService.moveTrack(playlist.getId(), last.getId(), first.getId()));
+        assertThat(titles(0, 10)).containsExactly("Track 1", "Track 0", "Track 2");
+
+        playlistService.moveTrack(playlist.getId(), first.getId(), null);
+        assertThat(titles(0, 10)).containsExactly("Track 1", "Track 2", "Track 0");
+        assertThat(inserted.getPosition()).isEqualTo(PlaylistServiceImpl.POSITION_GAP / 2);
+    }
+
+    @Test
+    public void testPlaylistIsRenumberedWhenTheGapIsGone() {
+        playlistService.addTrack(playlist.getId(), songs.get(0).getId(), null);
+        PlaylistTrack next = playlistService.addTrack(playlist.getId(), songs.get(1).getId(), null);
+        for (int i = 0; i < 40; i++) {
+            next = playlistService.addTrack(playlist.getId(), songs.get(2).getId(), next.getId());
+        }
+
+        List<String> titles = titles(0, 100);
+        assertThat(titles).hasSize(42);
+        assertThat(titles.get(0)).isEqualTo("Track 0");
+        assertThat(titles.get(1)).isEqualTo("Track 2");
+        assertThat(titles.get(41)).isEqualTo("Track 1");
+    }
+
+    @Test
+    public void testTracksArePagedWithTheirSongsInOneQuery() throws Exception {
+        songs.forEach(song -> playlistService.addTrack(playlist.getId(), song.getId(), null));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<String> titles = new ArrayList<>();
+        assertStatementsAtMost(3, () -> playlistService.getPlaylistTracks(playlist.getId(), 1, 2)
+                .forEach(track -> titles.add(track.getSong().getTitle())));
+        assertThat(titles).containsExactly("Track 2", "Track 3");
+    }
+
+    @Test
+    public void testTrackCannotBeMovedBeforeItself() {
+        PlaylistTrack track = playlistService.addTrack(playlist.getId(), songs.get(0).getId(), null);
+
+        assertThrows(BadRequestException.class, () -> playlistService.moveTrack(playlist.getId(), track.getId(), track.getId()));
+    }
+
+    private List<String> titles(int page, int size) {
+        entityManager.flush();
+        entityManager.clear();
+        return playlistService.getPlaylistTracks(playlist.getId(), page, size).stream()
+                .map(track -> track.getSong().getTitle())
+                .collect(Collectors.toList());
+    }
+}
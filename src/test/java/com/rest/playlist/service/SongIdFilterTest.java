@@ -0,0 +1,80 @@
+package com.rest.playlist.service;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SongIdFilterTest {
+
+    private SongIdFilter songIdFilter;
+
+    @Before
+    public void setup() {
+        songIdFilter = new SongIdFilter();
+    }
+
+    @Test
+    public void testEveryIdMayExistBeforeLoad() {
+        assertThat(songIdFilter.isAbsent(1L)).isFalse();
+    }
+
+    @Test
+    public void testIdsAboveTheLoadedRangeMayExist() {
+        songIdFilter.completeLoad(ids(1L, 2L, 5L), 5L);
+
+        assertThat(songIdFilter.isAbsent(2L)).isFalse();
+        assertThat(songIdFilter.isAbsent(3L)).isTrue();
+        assertThat(songIdFilter.isAbsent(6L)).isFalse();
+        assertThat(songIdFilter.getRejections()).isEqualTo(1);
+    }
+
+    @Test
+    public void testIdsAddedWhileLoadingAreKept() {
+        songIdFilter.beginLoad();
+        songIdFilter.add(4L);
+        songIdFilter.completeLoad(ids(1L, 2L, 5L), 5L);
+
+        assertThat(songIdFilter.isAbsent(4L)).isFalse();
+        assertThat(songIdFilter.getCardinality()).isEqualTo(4);
+    }
+
+    @Test
+    public void testIdAddedBeforeTheLoadAndCommittedAfterItsSnapshotIsKept() {
+        songIdFilter.completeLoad(ids(1L, 2L), 2L);
+        songIdFilter.add(3L);
+        songIdFilter.add(4L);
+        songIdFilter.beginLoad();
+        songIdFilter.completeLoad(ids(1L, 2L, 4L), 4L);
+
+        assertThat(songIdFilter.isAbsent(3L)).isFalse();
+    }
+
+    @Test
+    public void testIdsAddedBeforeAnAbortedLoadAreKeptByTheNextOne() {
+        songIdFilter.add(3L);
+        songIdFilter.beginLoad();
+        songIdFilter.abortLoad();
+        songIdFilter.beginLoad();
+        songIdFilter.completeLoad(ids(1L, 4L), 4L);
+
+        assertThat(songIdFilter.isAbsent(3L)).isFalse();
+    }
+
+    @Test
+    public void testRemovedIdIsAbsent() {
+        songIdFilter.completeLoad(ids(1L, 2L), 2L);
+        songIdFilter.removeAfterCommit(2L);
+
+        assertThat(songIdFilter.isAbsent(2L)).isTrue();
+    }
+
+    private static Roaring64Bitmap ids(long... values) {
+        Roaring64Bitmap ids = new Roaring64Bitmap();
+        for (long value : values) {
+            ids.addLong(value);
+        }
+        return ids;
+    }
+}
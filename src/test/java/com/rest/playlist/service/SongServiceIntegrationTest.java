@@ -4,6 +4,7 @@ import com.rest.playlist.enums.SongCategory;
 import com.rest.playlist.model.Song;
 import com.rest.playlist.repository.SongRepository;
 import com.rest.playlist.web.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -11,7 +12,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.context.transaction.TestTransaction;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -33,6 +37,12 @@ public class SongServiceIntegrationTest {
     @Autowired
     private SongServiceImpl songService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private CacheManager cacheManager;
+
     private Song defaultSong;
 
     @Before
@@ -108,6 +118,30 @@ public class SongServiceIntegrationTest {
         assertThat(savedSong.getArtistName()).isEqualTo(defaultSong.getArtistName());
     }
 
+    @Test
+    public void testCreatedSongIsCachedAfterTheCommit() {
+        Song song = new Song();
+        song.setTitle("Blue in Green");
+        song.setDescription("Kind of Blue");
+        song.setCategory(SongCategory.JAZZ);
+        song.setDuration("5:37");
+        song.setArtistName("Miles Davis");
+        Cache cache = cacheManager.getCache(SongServiceImpl.SONG_CACHE);
+
+        Long id = songService.createSong(song).getId();
+        assertThat(cache.get(id)).isNull();
+
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        try {
+            assertThat(cache.get(id)).isNotNull();
+        } finally {
+            songService.deleteSongById(id);
+            songService.deleteSongById(defaultSong.getId());
+        }
+        assertThat(cache.get(id)).isNull();
+    }
+
     @Test
     public void testUpdateSong() {
         defaultSong.setTitle("Broken");
@@ -144,4 +178,12 @@ public class SongServiceIntegrationTest {
         songService.deleteSongById(4000L);
 
     }
+
+    @Test
+    public void testServiceMethodsAreTimed() {
+        songService.getSongById(defaultSong.getId());
+
+        assertThat(meterRegistry.find("playlist.songs.service").tag("method", "getSongById").timer())
+                .isNotNull();
+    }
 }
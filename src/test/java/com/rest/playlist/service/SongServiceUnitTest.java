@@ -1,15 +1,23 @@
 package com.rest.playlist.service;
 
+import com.rest.playlist.config.SongLookupProperties;
 import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.enums.SongChangeType;
 import com.rest.playlist.model.Song;
 import com.rest.playlist.repository.SongRepository;
+import com.rest.playlist.service.changes.SongChangedEvent;
+import com.rest.playlist.web.exception.BadRequestException;
 import com.rest.playlist.web.exception.ResourceNotFoundException;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -17,7 +25,10 @@ import org.springframework.data.domain.Sort;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -35,6 +46,14 @@ public class SongServiceUnitTest {
 
     private SongServiceImpl songService;
 
+    private ConcurrentMapCacheManager cacheManager;
+
+    private SongLookupProperties lookupProperties;
+
+    private SongIdFilter songIdFilter;
+
+    private ApplicationEventPublisher eventPublisher;
+
     private Song mySong;
     private List<Song> songList = new ArrayList<>();
 
@@ -43,7 +62,11 @@ public class SongServiceUnitTest {
 
     @Before
     public void setup() {
-        songService = new SongServiceImpl(songRepository);
+        cacheManager = new ConcurrentMapCacheManager(SongServiceImpl.SONG_CACHE);
+        lookupProperties = new SongLookupProperties();
+        songIdFilter = new SongIdFilter();
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        songService = new SongServiceImpl(songRepository, cacheManager, lookupProperties, songIdFilter, eventPublisher);
 
         mySong = new Song();
 
@@ -179,12 +202,65 @@ public class SongServiceUnitTest {
         assertThat(ex.getMessage()).isEqualTo("Not found song with id = 4000");
     }
 
+    @Test
+    public void testGetSongsByIdsReadsCacheFirstAndKeepsRequestOrder() {
+        Song cachedSong = song(1L);
+        Song storedSong = song(3L);
+        cacheManager.getCache(SongServiceImpl.SONG_CACHE).put(1L, cachedSong);
+        when(songRepository.findAllById(Arrays.asList(3L, 2L))).thenReturn(Collections.singletonList(storedSong));
+
+        Map<Long, Song> songs = songService.getSongsByIds(Arrays.asList(3L, 1L, 2L, 3L));
+
+        assertThat(songs.keySet()).containsExactly(3L, 1L);
+        assertThat(songs.get(1L)).isSameAs(cachedSong);
+        assertThat(cacheManager.getCache(SongServiceImpl.SONG_CACHE).get(3L, Song.class)).isSameAs(storedSong);
+        verify(songRepository, times(1)).findAllById(Arrays.asList(3L, 2L));
+    }
+
+    @Test
+    public void testGetSongsByIdsByChunks() {
+        lookupProperties.setChunkSize(2);
+        when(songRepository.findAllById(anyList())).thenReturn(Collections.emptyList());
+
+        songService.getSongsByIds(Arrays.asList(1L, 2L, 3L, 4L, 5L));
+
+        verify(songRepository).findAllById(Arrays.asList(1L, 2L));
+        verify(songRepository).findAllById(Arrays.asList(3L, 4L));
+        verify(songRepository).findAllById(Collections.singletonList(5L));
+    }
+
+    @Test
+    public void testGetSongsByIdsAboveLimit() {
+        lookupProperties.setMaxIds(2);
+        BadRequestException ex = assertThrows(BadRequestException.class,
+                () -> songService.getSongsByIds(Arrays.asList(1L, 2L, 3L)));
+
+        assertThat(ex.getMessage()).isEqualTo("Too many song ids = 3, at most 2 per request");
+        verifyNoInteractions(songRepository);
+    }
+
+    @Test
+    public void testGetSongByIdRejectedByIdFilter() {
+        Roaring64Bitmap ids = new Roaring64Bitmap();
+        ids.addLong(1L);
+        ids.addLong(3L);
+        songIdFilter.completeLoad(ids, 3L);
+
+        assertThrows(ResourceNotFoundException.class, () -> songService.getSongById(2L));
+        verify(songRepository, never()).findById(2L);
+    }
+
     @Test
     public void testDeleteSongById() {
         mySong.setId(1000L);
         when(songRepository.findById(mySong.getId())).thenReturn(Optional.of(mySong));
         songService.deleteSongById(mySong.getId());
         verify(songRepository, times(1)).deleteById(mySong.getId());
+
+        ArgumentCaptor<SongChangedEvent> event = ArgumentCaptor.forClass(SongChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getType()).isEqualTo(SongChangeType.DELETED);
+        assertThat(event.getValue().getSongId()).isEqualTo(1000L);
     }
 
     @Test(expected = ResourceNotFoundException.class)
@@ -192,4 +268,15 @@ public class SongServiceUnitTest {
         when(songRepository.findById(4000L)).thenReturn(Optional.empty());
         songService.deleteSongById(4000L);
     }
+
+    private Song song(Long id) {
+        Song song = new Song();
+        song.setId(id);
+        song.setTitle(mySong.getTitle());
+        song.setDescription(mySong.getDescription());
+        song.setCategory(mySong.getCategory());
+        song.setDuration(mySong.getDuration());
+        song.setArtistName(mySong.getArtistName());
+        return song;
+    }
 }
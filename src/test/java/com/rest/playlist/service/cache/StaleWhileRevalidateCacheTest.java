@@ -0,0 +1,106 @@
+package com.rest.playlist.service.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StaleWhileRevalidateCacheTest {
+
+    private StaleWhileRevalidateCache cache;
+
+    @After
+    public void tearDown() {
+        cache.close();
+    }
+
+    @Test
+    public void testFreshEntryIsServedWithoutLoading() {
+        cache = cache(Duration.ofHours(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("page", () -> "v" + loads.incrementAndGet());
+        String value = cache.get("page", () -> "v" + loads.incrementAndGet());
+
+        assertThat(value).isEqualTo("v1");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    public void testStaleEntryIsServedWhileReloaded() throws InterruptedException {
+        cache = cache(Duration.ZERO);
+        cache.put("page", "v1");
+        CountDownLatch reloaded = new CountDownLatch(1);
+
+        String value = cache.get("page", () -> {
+            reloaded.countDown();
+            return "v2";
+        });
+
+        assertThat(value).isEqualTo("v1");
+        assertThat(reloaded.await(5, TimeUnit.SECONDS)).isTrue();
+        awaitValue("v2");
+        assertThat(cache.getStaleHits()).isEqualTo(1);
+    }
+
+    @Test
+    public void testFailedReloadKeepsTheStaleEntry() throws InterruptedException {
+        cache = cache(Duration.ZERO);
+        cache.put("page", "v1");
+
+        String value = cache.get("page", () -> {
+            throw new IllegalStateException("database unavailable");
+        });
+
+        assertThat(value).isEqualTo("v1");
+        awaitRefreshFailures(1);
+        assertThat(cache.get("page", String.class)).isEqualTo("v1");
+    }
+
+    @Test
+    public void testReloadStartedBeforeAnEvictionIsNotWritten() throws InterruptedException {
+        cache = cache(Duration.ZERO);
+        cache.put("page", "v1");
+        CountDownLatch evicted = new CountDownLatch(1);
+        CountDownLatch reloaded = new CountDownLatch(1);
+
+        cache.get("page", () -> {
+            evicted.await();
+            reloaded.countDown();
+            return "v2";
+        });
+        cache.evict("page");
+        evicted.countDown();
+
+        assertThat(reloaded.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(100);
+        assertThat(cache.get("page")).isNull();
+    }
+
+    private static StaleWhileRevalidateCache cache(Duration refreshAfter) {
+        return new StaleWhileRevalidateCache("songPages", 100, refreshAfter, Duration.ofHours(1), 1,
+                new SimpleMeterRegistry());
+    }
+
+    private void awaitValue(String expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!expected.equals(cache.get("page", String.class)) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(cache.get("page", String.class)).isEqualTo(expected);
+    }
+
+    private void awaitRefreshFailures(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cache.getRefreshFailures() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(cache.getRefreshFailures()).isEqualTo(expected);
+    }
+}
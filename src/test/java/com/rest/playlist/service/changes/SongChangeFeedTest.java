@@ -0,0 +1,138 @@
+package com.rest.playlist.service.changes;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rest.playlist.config.SongChangeFeedProperties;
+import com.rest.playlist.enums.SongChangeType;
+import com.rest.playlist.model.SongChange;
+import com.rest.playlist.repository.SongChangeRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SongChangeFeedTest {
+
+    private SongChangeRepository songChangeRepository;
+    private SongChangeFeedProperties properties;
+    private SongChangeFeed songChangeFeed;
+
+    @Before
+    public void setup() {
+        songChangeRepository = mock(SongChangeRepository.class);
+        when(songChangeRepository.findLastId()).thenReturn(10L);
+        when(songChangeRepository.findChangesAfter(anyLong(), any(Pageable.class))).thenReturn(Collections.emptyList());
+        properties = new SongChangeFeedProperties();
+        properties.setGapTimeout(Duration.ofHours(1));
+        songChangeFeed = new SongChangeFeed(songChangeRepository, properties, new ObjectMapper());
+        songChangeFeed.start();
+    }
+
+    @After
+    public void tearDown() {
+        songChangeFeed.stop();
+    }
+
+    @Test
+    public void testFeedStartsAfterTheLastCommittedChange() {
+        assertThat(songChangeFeed.getLastId()).isEqualTo(10L);
+    }
+
+    @Test
+    public void testChangesAreFedInOrder() {
+        changesAfter(10L, change(11L), change(12L));
+
+        songChangeFeed.poll();
+
+        assertThat(songChangeFeed.getLastId()).isEqualTo(12L);
+    }
+
+    @Test
+    public void testMissingChangeIsWaitedFor() {
+        changesAfter(10L, change(11L), change(13L));
+
+        songChangeFeed.poll();
+        songChangeFeed.poll();
+
+        assertThat(songChangeFeed.getLastId()).isEqualTo(11L);
+    }
+
+    @Test
+    public void testMissingChangeIsSkippedAfterTheGapTimeout() {
+        properties.setGapTimeout(Duration.ZERO);
+        changesAfter(10L, change(12L));
+
+        songChangeFeed.poll();
+        assertThat(songChangeFeed.getLastId()).isEqualTo(10L);
+        songChangeFeed.poll();
+        assertThat(songChangeFeed.getLastId()).isEqualTo(12L);
+    }
+
+    @Test
+    public void testSkippedChangeCommittedLaterResetsTheSubscribers() {
+        properties.setGapTimeout(Duration.ZERO);
+        changesAfter(10L, change(12L));
+        songChangeFeed.poll();
+        songChangeFeed.poll();
+        assertThat(songChangeFeed.getLastId()).isEqualTo(12L);
+        songChangeFeed.subscribe(12L);
+
+        when(songChangeRepository.findExistingIds(Collections.singletonList(11L)))
+                .thenReturn(Collections.singletonList(11L));
+        songChangeFeed.poll();
+        assertThat(songChangeFeed.getLateChanges()).isEqualTo(1);
+
+        songChangeFeed.poll();
+        verify(songChangeRepository, times(1)).findExistingIds(any());
+        assertThat(songChangeFeed.getLateChanges()).isEqualTo(1);
+    }
+
+    @Test
+    public void testSkippedIdIsNotCheckedAfterTheLateChangeTimeout() {
+        properties.setGapTimeout(Duration.ZERO);
+        properties.setLateChangeTimeout(Duration.ZERO);
+        changesAfter(10L, change(12L));
+        songChangeFeed.poll();
+        songChangeFeed.poll();
+
+        songChangeFeed.poll();
+
+        verify(songChangeRepository, never()).findExistingIds(any());
+    }
+
+    @Test
+    public void testSubscribersAreCounted() {
+        songChangeFeed.subscribe(null);
+        songChangeFeed.subscribe(5L);
+
+        assertThat(songChangeFeed.getSubscribers()).isEqualTo(2);
+    }
+
+    private void changesAfter(long id, SongChange... changes) {
+        List<SongChange> rows = Arrays.asList(changes);
+        when(songChangeRepository.findChangesAfter(eq(id), any(Pageable.class))).thenReturn(rows);
+    }
+
+    private static SongChange change(long id) {
+        SongChange change = new SongChange();
+        change.setId(id);
+        change.setType(SongChangeType.UPDATED);
+        change.setSongId(1L);
+        change.setPayload("{\"id\":1,\"title\":\"Power\"}");
+        return change;
+    }
+}
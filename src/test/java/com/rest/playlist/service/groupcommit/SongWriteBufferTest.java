@@ -0,0 +1,124 @@
+package com.rest.playlist.service.groupcommit;
+
+import com.rest.playlist.model.Song;
+import com.rest.playlist.service.ISongService;
+import com.rest.playlist.web.exception.GatewayTimeoutException;
+import com.rest.playlist.web.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class SongWriteBufferTest {
+
+    private final AtomicLong ids = new AtomicLong();
+    private ISongService songService;
+    private PlatformTransactionManager transactionManager;
+    private SongWriteBuffer songWriteBuffer;
+    private final ExecutorService callers = Executors.newFixedThreadPool(10);
+    private final CountDownLatch slowSong = new CountDownLatch(1);
+
+    @Before
+    public void setup() {
+        songService = mock(ISongService.class);
+        when(songService.createSong(any(Song.class))).thenAnswer(invocation -> {
+            Song song = invocation.getArgument(0);
+            song.setId(ids.incrementAndGet());
+            if ("Slow".equals(song.getTitle())) {
+                slowSong.await();
+            }
+            if ("Bad".equals(song.getTitle())) {
+                throw new IllegalArgumentException("bad song");
+            }
+            return song;
+        });
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        songWriteBuffer = new SongWriteBuffer(songService, new TransactionTemplate(transactionManager), 100, 10,
+                Duration.ofMillis(500), Duration.ofMillis(100), Duration.ofSeconds(5), new SimpleMeterRegistry());
+    }
+
+    @After
+    public void tearDown() {
+        slowSong.countDown();
+        songWriteBuffer.stop();
+        callers.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentCreationsAreCommittedTogether() {
+        songWriteBuffer.start();
+
+        List<CompletableFuture<Song>> created = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            created.add(CompletableFuture.supplyAsync(() -> songWriteBuffer.write(song("Song")), callers));
+        }
+
+        created.forEach(future -> assertThat(future.join().getId()).isNotNull());
+        verify(transactionManager, atMost(2)).commit(any());
+    }
+
+    @Test
+    public void testFailedSongDoesNotFailItsGroup() {
+        songWriteBuffer.start();
+
+        CompletableFuture<Song> good = CompletableFuture.supplyAsync(() -> songWriteBuffer.write(song("Good")), callers);
+        CompletableFuture<Song> bad = CompletableFuture.supplyAsync(() -> songWriteBuffer.write(song("Bad")), callers);
+
+        assertThat(good.join().getTitle()).isEqualTo("Good");
+        assertThatThrownBy(bad::join).isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testCreationIsRejectedWhenTheWriterIsStopped() {
+        assertThatThrownBy(() -> songWriteBuffer.write(song("Song"))).isInstanceOf(ServiceUnavailableException.class);
+    }
+
+    @Test
+    public void testTimedOutSongIsTakenBackOrAnsweredAsUnknown() throws Exception {
+        songWriteBuffer = new SongWriteBuffer(songService, new TransactionTemplate(transactionManager), 100, 1,
+                Duration.ZERO, Duration.ofMillis(100), Duration.ofMillis(300), new SimpleMeterRegistry());
+        songWriteBuffer.start();
+
+        CompletableFuture<Song> slow = CompletableFuture.supplyAsync(() -> songWriteBuffer.write(song("Slow")), callers);
+        while (ids.get() == 0) {
+            Thread.sleep(10);
+        }
+        assertThatThrownBy(() -> songWriteBuffer.write(song("Waiting"))).isInstanceOf(ServiceUnavailableException.class);
+        assertThat(songWriteBuffer.getBuffered()).isZero();
+        assertThatThrownBy(slow::join).hasCauseInstanceOf(GatewayTimeoutException.class);
+
+        slowSong.countDown();
+        verify(songService, never()).createSong(argThat(song -> "Waiting".equals(song.getTitle())));
+    }
+
+    private static Song song(String title) {
+        Song song = new Song();
+        song.setTitle(title);
+        return song;
+    }
+}
@@ -0,0 +1,118 @@
+package com.rest.playlist.service.invalidation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rest.playlist.enums.SongChangeType;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.service.SongIdFilter;
+import com.rest.playlist.service.SongServiceImpl;
+import com.rest.playlist.service.changes.SongChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InvalidationBusTest {
+
+    private LoopbackInvalidationTransport transport;
+    private Node first;
+    private Node second;
+
+    @Before
+    public void setup() {
+        transport = new LoopbackInvalidationTransport();
+        first = new Node(transport);
+        second = new Node(transport);
+    }
+
+    @After
+    public void tearDown() {
+        first.bus.stop();
+        second.bus.stop();
+    }
+
+    @Test
+    public void testUpdateEvictsTheSongOnTheOtherNodes() {
+        first.songs.put(1L, new Song());
+        second.songs.put(1L, new Song());
+
+        first.bus.onSongChanged(event(SongChangeType.UPDATED, 1L, 5L));
+        first.bus.flush();
+
+        assertThat(second.songs.get(1L)).isNull();
+        assertThat(first.songs.get(1L)).isNotNull();
+    }
+
+    @Test
+    public void testCreateAndDeleteUpdateTheIdFilterOfTheOtherNodes() {
+        first.bus.onSongChanged(event(SongChangeType.CREATED, 200L, 5L));
+        first.bus.onSongChanged(event(SongChangeType.DELETED, 2L, 6L));
+        first.bus.flush();
+
+        assertThat(second.songIdFilter.isAbsent(200L)).isFalse();
+        assertThat(second.songIdFilter.isAbsent(2L)).isTrue();
+    }
+
+    @Test
+    public void testOlderVersionIsIgnored() {
+        second.bus.receive(message(new Invalidation(SongChangeType.UPDATED, 1L, 7L, System.currentTimeMillis())));
+        second.songs.put(1L, new Song());
+
+        second.bus.receive(message(new Invalidation(SongChangeType.DELETED, 1L, 6L, System.currentTimeMillis())));
+
+        assertThat(second.songs.get(1L)).isNotNull();
+        assertThat(second.songIdFilter.isAbsent(1L)).isFalse();
+    }
+
+    @Test
+    public void testLostMessagesClearTheCache() {
+        second.songs.put(1L, new Song());
+
+        second.bus.invalidateAll();
+
+        assertThat(second.songs.get(1L)).isNull();
+    }
+
+    private static SongChangedEvent event(SongChangeType type, long songId, long changeId) {
+        SongChangedEvent event = new SongChangedEvent(type, songId, null);
+        event.setChangeId(changeId);
+        return event;
+    }
+
+    private static String message(Invalidation invalidation) {
+        InvalidationBatch batch = new InvalidationBatch();
+        batch.setNode("another-node");
+        batch.getInvalidations().add(invalidation);
+        try {
+            return new ObjectMapper().writeValueAsString(batch);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class Node {
+
+        private final SongIdFilter songIdFilter = new SongIdFilter();
+        private final Cache songs;
+        private final InvalidationBus bus;
+
+        private Node(InvalidationTransport transport) {
+            ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(SongServiceImpl.SONG_CACHE);
+            songs = cacheManager.getCache(SongServiceImpl.SONG_CACHE);
+            Roaring64Bitmap ids = new Roaring64Bitmap();
+            ids.addLong(1L);
+            ids.addLong(2L);
+            songIdFilter.completeLoad(ids, 100L);
+            // the scheduled flush never runs, the tests flush
+            bus = new InvalidationBus(transport, new ObjectMapper(), cacheManager, songIdFilter, null, null,
+                    Duration.ofHours(1), 80, 1000, new SimpleMeterRegistry());
+            bus.start();
+        }
+    }
+}
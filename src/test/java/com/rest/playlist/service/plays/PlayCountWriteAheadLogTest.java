@@ -0,0 +1,183 @@
+package com.rest.playlist.service.plays;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+public class PlayCountWriteAheadLogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private PlayCounters counters;
+    private Path directory;
+
+    @Before
+    public void setup() {
+        counters = new PlayCounters();
+        directory = folder.getRoot().toPath();
+    }
+
+    @Test
+    public void testDrainTakesEachPlayOnce() {
+        counters.add(1L, 2);
+        counters.add(2L, 1);
+        assertThat(counters.drain()).containsOnly(entry(1L, 2L), entry(2L, 1L));
+
+        counters.add(1L, 1);
+        assertThat(counters.drain()).containsOnly(entry(1L, 1L));
+        assertThat(counters.getPending()).isZero();
+    }
+
+    @Test
+    public void testRestoredPlaysAreDrainedAgain() {
+        counters.add(1L, 2);
+        Map<Long, Long> failed = counters.drain();
+        counters.add(1L, 1);
+        counters.restore(failed);
+
+        assertThat(counters.getPending(1L)).isEqualTo(3);
+        assertThat(counters.drain()).containsOnly(entry(1L, 3L));
+    }
+
+    @Test
+    public void testUnknownSongsAreRemovedOnceFlushed() {
+        counters.add(1L, 2);
+        counters.add(2L, 1);
+        Map<Long, Long> drained = counters.drain();
+        counters.add(2L, 1);
+
+        drained.keySet().forEach(counters::removeFlushed);
+
+        assertThat(counters.getSongs()).isEqualTo(1);
+        assertThat(counters.drain()).containsOnly(entry(2L, 1L));
+        counters.removeFlushed(2L);
+        assertThat(counters.getSongs()).isZero();
+        assertThat(counters.getPending()).isZero();
+    }
+
+    @Test
+    public void testRemovedSongIsNotRestored() {
+        counters.add(1L, 2);
+        Map<Long, Long> failed = counters.drain();
+        counters.remove(1L);
+        counters.restore(failed);
+
+        assertThat(counters.getSongs()).isZero();
+        assertThat(counters.getPending(1L)).isZero();
+        assertThat(counters.drain()).isEmpty();
+    }
+
+    @Test
+    public void testUncommittedPlaysAreReplayed() throws IOException {
+        PlayCountWriteAheadLog log = new PlayCountWriteAheadLog(directory, 64);
+        assertThat(log.open()).isEmpty();
+        record(log, 1L, 1L, 2L);
+        assertThat(log.rotate(counters::drain, counters::restore)).containsOnly(entry(1L, 2L), entry(2L, 1L));
+        record(log, 3L);
+        log.sync();
+        log.close();
+
+        assertThat(new PlayCountWriteAheadLog(directory, 64).open()).containsOnly(entry(1L, 2L), entry(2L, 1L), entry(3L, 1L));
+    }
+
+    @Test
+    public void testCommittedSegmentsAreDeleted() throws IOException {
+        PlayCountWriteAheadLog log = new PlayCountWriteAheadLog(directory, 64);
+        log.open();
+        record(log, 1L, 2L);
+        log.rotate(counters::drain, counters::restore);
+        log.commit();
+        log.close();
+
+        assertThat(new PlayCountWriteAheadLog(directory, 64).open()).isEmpty();
+        assertThat(segments()).hasSize(2);
+    }
+
+    @Test
+    public void testTornRecordIsIgnored() throws IOException {
+        PlayCountWriteAheadLog log = new PlayCountWriteAheadLog(directory, 64);
+        log.open();
+        record(log, 7L);
+        log.close();
+        Files.write(segments().get(0), new byte[]{0, 0, 0}, StandardOpenOption.APPEND);
+
+        assertThat(new PlayCountWriteAheadLog(directory, 64).open()).containsOnly(entry(7L, 1L));
+    }
+
+    @Test
+    public void testDirectoryIsLockedByOneInstance() throws IOException {
+        PlayCountWriteAheadLog log = new PlayCountWriteAheadLog(directory, 64);
+        log.open();
+
+        assertThatThrownBy(() -> new PlayCountWriteAheadLog(directory, 64).open())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("used by another instance");
+        log.close();
+        assertThat(new PlayCountWriteAheadLog(directory, 64).open()).isEmpty();
+    }
+
+    @Test
+    public void testConcurrentAppendsAreLoggedAtTheCutOfTheirDrain() throws Exception {
+        PlayCountWriteAheadLog log = new PlayCountWriteAheadLog(directory, 64, 4);
+        log.open();
+        int threads = 8;
+        int plays = 5_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> appenders = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long songId = t % 3;
+            appenders.add(executor.submit(() -> record(log, LongStream.range(0, plays).map(i -> songId).toArray())));
+        }
+        long drained = 0;
+        while (appenders.stream().anyMatch(appender -> !appender.isDone())) {
+            log.sync();
+            drained += total(log.rotate(counters::drain, counters::restore));
+            log.commit();
+        }
+        for (Future<?> appender : appenders) {
+            appender.get();
+        }
+        executor.shutdown();
+        log.sync();
+        log.close();
+
+        assertThat(drained + total(new PlayCountWriteAheadLog(directory, 64).open())).isEqualTo((long) threads * plays);
+        assertThat(drained + counters.getPending()).isEqualTo((long) threads * plays);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".wal")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static long total(Map<Long, Long> plays) {
+        return plays.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    private void record(PlayCountWriteAheadLog log, long... songIds) {
+        for (long songId : songIds) {
+            log.append(songId, () -> counters.add(songId, 1));
+        }
+    }
+}
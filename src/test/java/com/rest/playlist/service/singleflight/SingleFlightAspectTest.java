@@ -0,0 +1,75 @@
+package com.rest.playlist.service.singleflight;
+
+import com.rest.playlist.jdbc.QueryDeadline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SingleFlightAspectTest {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger executions = new AtomicInteger();
+    private final AtomicReference<QueryDeadline.Scope> deadlineOfTheSharedCall = new AtomicReference<>();
+    private SongLoader loader;
+
+    @Before
+    public void setup() {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new SongLoader());
+        factory.addAspect(new SingleFlightAspect(new SingleFlightGroup(new SimpleMeterRegistry()), null));
+        loader = factory.getProxy();
+    }
+
+    @Test
+    public void testCollapsedCallersKeepTheirOwnDeadline() throws Exception {
+        // the leader declares a short deadline : it does not apply to the shared call
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> load(Duration.ofMillis(50)));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<String> patient = CompletableFuture.supplyAsync(() -> load(Duration.ofSeconds(5)));
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> load(Duration.ofMillis(100))).isInstanceOf(QueryTimeoutException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(2));
+
+        Thread.sleep(100);
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("song");
+        assertThat(patient.get(5, TimeUnit.SECONDS)).isEqualTo("song");
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(deadlineOfTheSharedCall.get()).isNull();
+    }
+
+    private String load(Duration deadline) {
+        try (QueryDeadline.Scope ignored = QueryDeadline.open(deadline, QueryDeadline.REQUEST)) {
+            return loader.load("song-1");
+        }
+    }
+
+    public class SongLoader {
+
+        @SingleFlight
+        public String load(String key) {
+            executions.incrementAndGet();
+            deadlineOfTheSharedCall.set(QueryDeadline.current());
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "song";
+        }
+    }
+}
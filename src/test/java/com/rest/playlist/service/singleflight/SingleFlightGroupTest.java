@@ -0,0 +1,85 @@
+package com.rest.playlist.service.singleflight;
+
+import com.rest.playlist.web.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertThrows;
+
+public class SingleFlightGroupTest {
+
+    private MeterRegistry meterRegistry;
+    private SingleFlightGroup group;
+
+    @Before
+    public void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        group = new SingleFlightGroup(meterRegistry);
+    }
+
+    @Test
+    public void testConcurrentIdenticalCallsAreCollapsed() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+
+        CompletableFuture<Object> leader = CompletableFuture.supplyAsync(() -> execute("song-1", () -> {
+            executions.incrementAndGet();
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "song";
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Object> follower = CompletableFuture.supplyAsync(() -> execute("song-1", () -> {
+            executions.incrementAndGet();
+            return "other";
+        }));
+        while (count("collapsed") < 1) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("song");
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("song");
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(count("executed")).isEqualTo(1);
+    }
+
+    @Test
+    public void testSequentialCallsAreExecuted() throws Throwable {
+        assertThat(group.execute("getSongById", "song-1", () -> "first")).isEqualTo("first");
+        assertThat(group.execute("getSongById", "song-1", () -> "second")).isEqualTo("second");
+        assertThat(count("executed")).isEqualTo(2);
+    }
+
+    @Test
+    public void testExceptionIsRethrown() {
+        ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class,
+                () -> group.execute("getSongById", "song-4000", () -> {
+                    throw new ResourceNotFoundException("Not found song with id = 4000");
+                }));
+        assertThat(ex.getMessage()).isEqualTo("Not found song with id = 4000");
+    }
+
+    private Object execute(Object key, SingleFlightGroup.Call call) {
+        try {
+            return group.execute("getSongById", key, call);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private double count(String result) {
+        return meterRegistry.find("playlist.singleflight.calls").tag("result", result).counters().stream()
+                .mapToDouble(counter -> counter.count()).sum();
+    }
+}
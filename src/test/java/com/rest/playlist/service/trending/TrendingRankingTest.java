@@ -0,0 +1,95 @@
+package com.rest.playlist.service.trending;
+
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.enums.TrendingWindow;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class TrendingRankingTest {
+
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+
+    private TrendingRanking ranking;
+    private long now;
+
+    @Before
+    public void setup() {
+        now = 1_700_000_000_000L;
+        ranking = new TrendingRanking(3, now);
+    }
+
+    @Test
+    public void testSongsAreRankedByCategory() {
+        ranking.add(1L, SongCategory.JAZZ, 5, now);
+        ranking.add(2L, SongCategory.POP, 7, now);
+        ranking.add(3L, SongCategory.JAZZ, 2, now);
+
+        assertThat(ids(ranking.top(SongCategory.JAZZ, TrendingWindow.ALL, 10, now))).containsExactly(1L, 3L);
+        assertThat(ids(ranking.top(null, TrendingWindow.ALL, 2, now))).containsExactly(2L, 1L);
+    }
+
+    @Test
+    public void testOlderPlaysWeighLess() {
+        ranking.add(1L, SongCategory.JAZZ, 10, now);
+        ranking.add(2L, SongCategory.JAZZ, 4, now + 3 * HOUR);
+
+        assertThat(ids(ranking.top(null, TrendingWindow.HOUR, 10, now + 3 * HOUR))).containsExactly(2L, 1L);
+        assertThat(ids(ranking.top(null, TrendingWindow.WEEK, 10, now + 3 * HOUR))).containsExactly(1L, 2L);
+        assertThat(ranking.top(null, TrendingWindow.HOUR, 1, now + 4 * HOUR).get(0).getScore())
+                .isCloseTo(4 * Math.exp(-1), within(1e-9));
+    }
+
+    @Test
+    public void testNewSongInheritsTheScoreOfTheEvictedOne() {
+        ranking.add(1L, SongCategory.POP, 9, now);
+        ranking.add(2L, SongCategory.POP, 8, now);
+        ranking.add(3L, SongCategory.POP, 2, now);
+        ranking.add(4L, SongCategory.POP, 1, now);
+
+        List<TrendingSong> top = ranking.top(SongCategory.POP, TrendingWindow.ALL, 10, now);
+        assertThat(ids(top)).containsExactly(1L, 2L, 4L);
+        assertThat(top.get(2).getScore()).isEqualTo(3);
+    }
+
+    @Test
+    public void testWeightsAreRescaledBeforeOverflow() {
+        ranking.add(1L, SongCategory.JAZZ, 1, now);
+        long later = now + 1000 * HOUR;
+        ranking.add(2L, SongCategory.JAZZ, 1, later);
+
+        List<TrendingSong> top = ranking.top(null, TrendingWindow.HOUR, 10, later);
+        assertThat(ids(top)).containsExactly(2L, 1L);
+        assertThat(top.get(0).getScore()).isCloseTo(1, within(1e-9));
+    }
+
+    @Test
+    public void testSnapshotRoundTrip() throws IOException {
+        ranking.add(1L, SongCategory.JAZZ, 5, now);
+        ranking.add(2L, SongCategory.CLASSICAL, 3, now);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ranking.writeTo(new DataOutputStream(bytes));
+
+        TrendingRanking restored = new TrendingRanking(3, now + HOUR);
+        restored.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), now + HOUR);
+
+        assertThat(ids(restored.top(SongCategory.CLASSICAL, TrendingWindow.DAY, 10, now + HOUR))).containsExactly(2L);
+        assertThat(restored.top(null, TrendingWindow.HOUR, 1, now + HOUR).get(0).getScore())
+                .isCloseTo(5 * Math.exp(-1), within(1e-9));
+    }
+
+    private static List<Long> ids(List<TrendingSong> songs) {
+        return songs.stream().map(TrendingSong::getSongId).collect(Collectors.toList());
+    }
+}
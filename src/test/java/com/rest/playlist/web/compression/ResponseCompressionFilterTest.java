@@ -0,0 +1,127 @@
+package com.rest.playlist.web.compression;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rest.playlist.enums.SongCategory;
+import com.rest.playlist.model.Song;
+import com.rest.playlist.repository.SongRepository;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "playlist.compression.response-cache.enabled=true",
+        "playlist.compression.response-cache.paths=/api/songs/category/*",
+        "playlist.compression.min-response-size=300B"})
+@AutoConfigureMockMvc
+@RunWith(SpringRunner.class)
+public class ResponseCompressionFilterTest {
+
+    private static final String PAGE = "/api/songs/category/CLASSICAL";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SongRepository songRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    public void testPageIsCompressedAndCachedUntilWrite() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            songRepository.saveAndFlush(song("Symphony No. " + i + " in D minor, Op. 125 Choral"));
+        }
+
+        MockHttpServletResponse first = getPage();
+        assertThat(first.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(first.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(gunzip(first.getContentAsByteArray())).contains("Symphony No. 2");
+
+        // written behind the api : the cached page is served
+        songRepository.saveAndFlush(song("Written behind the api"));
+        assertThat(getPage().getContentAsByteArray()).isEqualTo(first.getContentAsByteArray());
+
+        mockMvc.perform(post("/api/songs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(song("Written through the api"))))
+                .andExpect(status().isCreated());
+        assertThat(gunzip(getPage().getContentAsByteArray())).contains("Written through the api");
+    }
+
+    @Test
+    public void testUnlistedEndpointIsNotCached() throws Exception {
+        Song song = songRepository.saveAndFlush(song("Air"));
+        mockMvc.perform(get("/api/songs/{id}/plays", song.getId())).andExpect(status().isOk());
+
+        // a play keeps the response cache : a cached count would stay at 0
+        mockMvc.perform(post("/api/songs/{id}/plays", song.getId())).andExpect(status().isAccepted());
+        MockHttpServletResponse response = mockMvc.perform(get("/api/songs/{id}/plays", song.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertThat(response.getContentAsString()).contains("\"playCount\":1");
+    }
+
+    @Test
+    public void testSmallResponseIsNotCompressed() throws Exception {
+        Song song = songRepository.saveAndFlush(song("Air"));
+
+        MockHttpServletResponse response = mockMvc.perform(get("/api/songs/{id}", song.getId())
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getContentAsString()).contains("\"title\":\"Air\"");
+    }
+
+    @Test
+    public void testNegotiateEncoding() {
+        assertThat(ContentEncoding.negotiate(null, true)).isEqualTo(ContentEncoding.IDENTITY);
+        assertThat(ContentEncoding.negotiate("gzip, deflate", true)).isEqualTo(ContentEncoding.GZIP);
+        assertThat(ContentEncoding.negotiate("br;q=0, gzip", true)).isEqualTo(ContentEncoding.GZIP);
+        assertThat(ContentEncoding.negotiate("gzip;q=0", true)).isEqualTo(ContentEncoding.IDENTITY);
+        assertThat(ContentEncoding.negotiate("br, gzip", false)).isEqualTo(ContentEncoding.GZIP);
+        assertThat(ContentEncoding.negotiate("br, gzip", true))
+                .isEqualTo(ContentEncoding.brotliAvailable() ? ContentEncoding.BROTLI : ContentEncoding.GZIP);
+    }
+
+    private MockHttpServletResponse getPage() throws Exception {
+        return mockMvc.perform(get(PAGE).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+    }
+
+    private static Song song(String title) {
+        Song song = new Song();
+        song.setTitle(title);
+        song.setDescription("Vienna Philharmonic, Karl Bohm, DG");
+        song.setCategory(SongCategory.CLASSICAL);
+        song.setDuration("65:12");
+        song.setArtistName("Ludwig van Beethoven");
+        return song;
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return StreamUtils.copyToString(input, StandardCharsets.UTF_8);
+        }
+    }
+}
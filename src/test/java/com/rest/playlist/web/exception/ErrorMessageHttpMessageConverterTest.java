@@ -0,0 +1,58 @@
+package com.rest.playlist.web.exception;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.util.Collections;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ErrorMessageHttpMessageConverterTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ErrorMessageHttpMessageConverter converter = new ErrorMessageHttpMessageConverter(objectMapper);
+
+    @Test
+    public void testNotFoundMessageIsWrittenLikeTheObjectMapper() throws Exception {
+        ErrorMessage message = ErrorMessage.builder()
+                .statusCode(404)
+                .timeStamp(new Date())
+                .message("Not found song with id = 4000")
+                .description("uri=/api/songs/4000")
+                .build();
+
+        assertThat(write(message)).isEqualTo(objectMapper.writeValueAsString(message));
+    }
+
+    @Test
+    public void testValidationMessageIsWrittenLikeTheObjectMapper() throws Exception {
+        ErrorMessage message = ErrorMessage.builder()
+                .statusCode(400)
+                .timeStamp(new Date())
+                .message("Validation failed")
+                .description("uri=/api/songs")
+                .fieldErrors(Collections.singletonList(FieldError.builder()
+                        .objectName("song")
+                        .field("title")
+                        .message("NotBlank: titre ne doit pas être null ou vide")
+                        .build()))
+                .build();
+
+        assertThat(write(message)).isEqualTo(objectMapper.writeValueAsString(message));
+    }
+
+    @Test
+    public void testStacklessException() {
+        assertThat(new ResourceNotFoundException("Not found song with id = 4000").getStackTrace()).isEmpty();
+    }
+
+    private String write(ErrorMessage message) throws Exception {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        converter.write(message, MediaType.APPLICATION_JSON, outputMessage);
+        return outputMessage.getBodyAsString();
+    }
+}
@@ -0,0 +1,80 @@
+package com.rest.playlist.web.exception;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a 404 in the service and exception handler layers, before and after the stackless exception
+ * and the streaming error converter. The exception is thrown under a stack as deep as a request
+ * served by Tomcat, the Spring filters, the MVC dispatcher and the service proxies (benchmark parameter).
+ *
+ * mvn -Pbenchmark -DskipTests test -Dbenchmark.main=com.rest.playlist.benchmark.JmhRunner -Dexec.args=NotFoundPathBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotFoundPathBenchmark {
+
+    @Param({"150"})
+    private int stackDepth;
+
+    private ObjectMapper objectMapper;
+    private ErrorMessageHttpMessageConverter converter;
+
+    @Setup
+    public void setup() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        converter = new ErrorMessageHttpMessageConverter(objectMapper);
+    }
+
+    @Benchmark
+    public byte[] before() throws IOException {
+        try {
+            throwAt(stackDepth, true);
+            return null;
+        } catch (RuntimeException e) {
+            return objectMapper.writeValueAsBytes(errorMessage(e));
+        }
+    }
+
+    @Benchmark
+    public byte[] after() throws IOException {
+        try {
+            throwAt(stackDepth, false);
+            return null;
+        } catch (RuntimeException e) {
+            MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+            converter.write(errorMessage(e), MediaType.APPLICATION_JSON, outputMessage);
+            return outputMessage.getBodyAsBytes();
+        }
+    }
+
+    private static ErrorMessage errorMessage(RuntimeException e) {
+        return ErrorMessage.builder()
+                .statusCode(404)
+                .timeStamp(new Date())
+                .message(e.getMessage())
+                .description("uri=/api/songs/4000")
+                .build();
+    }
+
+    private static void throwAt(int depth, boolean fullStack) {
+        if (depth > 0) {
+            throwAt(depth - 1, fullStack);
+            return;
+        }
+        throw fullStack
+                ? new RuntimeException("Not found song with id = 4000")
+                : new ResourceNotFoundException("Not found song with id = 4000");
+    }
+}
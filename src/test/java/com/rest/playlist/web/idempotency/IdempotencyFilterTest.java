@@ -0,0 +1,156 @@
+package com.rest.playlist.web.idempotency;
+
+import com.rest.playlist.repository.IdempotencyRecordRepository;
+import com.rest.playlist.repository.SongRepository;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@RunWith(SpringRunner.class)
+public class IdempotencyFilterTest {
+
+    private static final String SONG = "{\"title\":\"For The Lover That I Lost\",\"description\":\"Live At Abbey Road Studios\","
+            + "\"category\":\"POP\",\"duration\":\"3:01\",\"artistName\":\"Sam Smith\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SongRepository songRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Test
+    public void testRetryReplaysTheFirstResponse() throws Exception {
+        String key = UUID.randomUUID().toString();
+        long songs = songRepository.count();
+
+        String created = mockMvc.perform(post("/api/songs").header(IdempotencyFilter.IDEMPOTENCY_KEY, key)
+                        .contentType(MediaType.APPLICATION_JSON).content(SONG))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyFilter.IDEMPOTENT_REPLAYED))
+                .andReturn().getResponse().getContentAsString();
+        String replayed = mockMvc.perform(post("/api/songs").header(IdempotencyFilter.IDEMPOTENCY_KEY, key)
+                        .contentType(MediaType.APPLICATION_JSON).content(SONG))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyFilter.IDEMPOTENT_REPLAYED, "true"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(replayed).isEqualTo(created);
+        assertThat(songRepository.count()).isEqualTo(songs + 1);
+        assertThat(idempotencyRecordRepository.findById(key)).hasValueSatisfying(record ->
+                assertThat(record.getStatus()).isEqualTo(201));
+    }
+
+    @Test
+    public void testKeyReusedForAnotherRequestGets422() throws Exception {
+        String key = UUID.randomUUID().toString();
+        mockMvc.perform(post("/api/songs").header(IdempotencyFilter.IDEMPOTENCY_KEY, key)
+                        .contentType(MediaType.APPLICATION_JSON).content(SONG))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(post("/api/songs").header(IdempotencyFilter.IDEMPOTENCY_KEY, key)
+                        .contentType(MediaType.APPLICATION_JSON).content(SONG.replace("Sam Smith", "Adele")))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    public void testEndpointIsMatchedOnTheDispatchedPath() throws Exception {
+        String key = UUID.randomUUID().toString();
+        long songs = songRepository.count();
+
+        mockMvc.perform(post("/api/songs;x=1").header(IdempotencyFilter.IDEMPOTENCY_KEY, key)
+                        .contentType(MediaType.APPLICATION_JSON).content(SONG))
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyFilter.IDEMPOTENT_REPLAYED));
+        mockMvc.perform(post("/api/songs").header(IdempotencyFilter.IDEMPOTENCY_KEY, key)
+                        .contentType(MediaType.APPLICATION_JSON).content(SONG))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyFilter.IDEMPOTENT_REPLAYED, "true"));
+
+        assertThat(songRepository.count()).isEqualTo(songs + 1);
+    }
+
+    @Test
+    public void testBodyLargerThanMaxRequestSizeGets413() throws Exception {
+        String key = UUID.randomUUID().toString();
+        long songs = songRepository.count();
+
+        mockMvc.perform(post("/api/songs").header(IdempotencyFilter.IDEMPOTENCY_KEY, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(SONG.replace("Live At Abbey Road Studios", "x".repeat(1024 * 1024))))
+                .andExpect(status().isPayloadTooLarge());
+
+        assertThat(songRepository.count()).isEqualTo(songs);
+        assertThat(idempotencyRecordRepository.findById(key)).isEmpty();
+    }
+
+    @Test
+    public void testRequestsWithoutKeyAreExecutedEachTime() throws Exception {
+        long songs = songRepository.count();
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/songs").contentType(MediaType.APPLICATION_JSON).content(SONG))
+                    .andExpect(status().isCreated());
+        }
+
+        assertThat(songRepository.count()).isEqualTo(songs + 2);
+    }
+
+    @Test
+    public void testCachedBodyIsReadByAReadListener() throws Exception {
+        IdempotencyFilter.CachedBodyRequest request = new IdempotencyFilter.CachedBodyRequest(
+                new MockHttpServletRequest(), SONG.getBytes(StandardCharsets.UTF_8));
+        ServletInputStream input = request.getInputStream();
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        List<String> events = new ArrayList<>();
+
+        input.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                events.add("data");
+                byte[] buffer = new byte[16];
+                int length;
+                while (input.isReady() && (length = input.read(buffer)) != -1) {
+                    read.write(buffer, 0, length);
+                }
+            }
+
+            @Override
+            public void onAllDataRead() {
+                events.add("end");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                events.add("error");
+            }
+        });
+
+        assertThat(events).containsExactly("data", "end");
+        assertThat(read.toString(StandardCharsets.UTF_8)).isEqualTo(SONG);
+    }
+}
@@ -0,0 +1,184 @@
+package com.rest.playlist.web.limit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rest.playlist.config.RequestLimitProperties;
+import com.rest.playlist.web.exception.ErrorResponseWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "playlist.limits.enabled=true",
+        "playlist.limits.groups[0].name=listing",
+        "playlist.limits.groups[0].endpoints=GET /api/songs/category/**",
+        "playlist.limits.groups[0].rate-per-second=0.1",
+        "playlist.limits.groups[0].burst=2",
+        "playlist.limits.groups[1].name=lookup",
+        "playlist.limits.groups[1].endpoints=GET /api/songs/*",
+        "playlist.limits.groups[1].max-concurrent=1"})
+@AutoConfigureMockMvc
+@RunWith(SpringRunner.class)
+public class RequestLimitTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RequestLimiter requestLimiter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void testClientOverItsRateGets429() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/songs/category/JAZZ").with(remoteAddr("10.1.0.7")).header("X-Client-Id", "scraper-" + i))
+                    .andExpect(status().isOk());
+        }
+        // a new client header does not give a new bucket, the client is not a trusted proxy
+        mockMvc.perform(get("/api/songs/category/JAZZ").with(remoteAddr("10.1.0.7")).header("X-Client-Id", "scraper-2"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+                .andExpect(jsonPath("statusCode").value(429));
+
+        // the other clients keep their own rate
+        mockMvc.perform(get("/api/songs/category/JAZZ").with(remoteAddr("10.1.0.8")))
+                .andExpect(status().isOk());
+        assertThat(meterRegistry.get("playlist.limits.rejections").tag("group", "listing").tag("reason", "rate")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void testClientHeaderIsTrustedFromTrustedProxiesOnly() {
+        RequestLimitProperties properties = new RequestLimitProperties();
+        properties.setTrustedProxies(Arrays.asList("192.168.1.10", "10.20.0.0/16"));
+        RequestLimiter limiter = new RequestLimiter(properties, meterRegistry);
+
+        assertThat(limiter.clientKey(request("192.168.1.10", "mobile"))).isEqualTo("client:mobile");
+        assertThat(limiter.clientKey(request("10.20.3.4", "mobile"))).isEqualTo("client:mobile");
+        assertThat(limiter.clientKey(request("10.21.3.4", "mobile"))).isEqualTo("address:10.21.3.4");
+        assertThat(limiter.clientKey(request("192.168.1.10", null))).isEqualTo("address:192.168.1.10");
+
+        MockHttpServletRequest authenticated = request("10.21.3.4", "mobile");
+        authenticated.setUserPrincipal(() -> "alice");
+        assertThat(limiter.clientKey(authenticated)).isEqualTo("user:alice");
+    }
+
+    @Test
+    public void testSaturatedBulkheadGets503() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/songs/1");
+        RequestLimiter.Group lookup = requestLimiter.match(request);
+        assertThat(lookup.getName()).isEqualTo("lookup");
+
+        assertThat(lookup.tryEnterBulkhead()).isTrue();
+        try {
+            mockMvc.perform(get("/api/songs/1"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        } finally {
+            lookup.exitBulkhead();
+        }
+    }
+
+    @Test
+    public void testExemptedEndpointSkipsTheBulkheadOfItsGroup() throws Exception {
+        RequestLimitProperties.Group write = new RequestLimitProperties.Group();
+        write.setName("write");
+        write.setEndpoints(Arrays.asList("POST /api/songs/**", "PUT /api/songs/**"));
+        write.setMaxConcurrent(1);
+        RequestLimitProperties properties = new RequestLimitProperties();
+        properties.setGroups(Collections.singletonList(write));
+        RequestLimiter limiter = new RequestLimiter(properties, Collections.singletonList("POST /api/songs"),
+                new SimpleMeterRegistry());
+        BulkheadFilter filter = new BulkheadFilter(limiter, new ErrorResponseWriter(new ObjectMapper()));
+
+        RequestLimiter.Group group = limiter.match(new MockHttpServletRequest("PUT", "/api/songs/1"));
+        assertThat(group.tryEnterBulkhead()).isTrue();
+        try {
+            MockHttpServletResponse created = new MockHttpServletResponse();
+            MockFilterChain createChain = new MockFilterChain();
+            filter.doFilter(new MockHttpServletRequest("POST", "/api/songs;x=1"), created, createChain);
+            assertThat(createChain.getRequest()).isNotNull();
+
+            MockHttpServletResponse updated = new MockHttpServletResponse();
+            MockFilterChain updateChain = new MockFilterChain();
+            filter.doFilter(new MockHttpServletRequest("PUT", "/api/songs/1"), updated, updateChain);
+            assertThat(updateChain.getRequest()).isNull();
+            assertThat(updated.getStatus()).isEqualTo(503);
+        } finally {
+            group.exitBulkhead();
+        }
+    }
+
+    @Test
+    public void testTokenBucket() {
+        TokenBucket bucket = new TokenBucket(1, 2);
+        assertThat(bucket.tryConsume()).isZero();
+        assertThat(bucket.tryConsume()).isZero();
+        assertThat(bucket.tryConsume()).isPositive().isLessThanOrEqualTo(1_000_000_000L);
+    }
+
+    @Test
+    public void testEndpointsAreMatchedOnTheDispatchedPath() {
+        RequestLimitProperties.Group listing = new RequestLimitProperties.Group();
+        listing.setName("listing");
+        listing.setEndpoints(Collections.singletonList("GET /api/songs"));
+        RequestLimitProperties.Group lookup = new RequestLimitProperties.Group();
+        lookup.setName("lookup");
+        lookup.setEndpoints(Collections.singletonList("GET /api/songs/*"));
+        RequestLimitProperties properties = new RequestLimitProperties();
+        properties.setGroups(Arrays.asList(listing, lookup));
+        RequestLimiter limiter = new RequestLimiter(properties, meterRegistry);
+
+        for (String uri : Arrays.asList("/api/songs", "/api/songs;x=1", "/api/%73ongs", "/api/songs/")) {
+            assertThat(limiter.match(new MockHttpServletRequest("GET", uri)).getName()).as(uri).isEqualTo("listing");
+        }
+        for (String uri : Arrays.asList("/api/songs/1;jsessionid=2", "/api/song%73/1", "/api/songs/1/")) {
+            assertThat(limiter.match(new MockHttpServletRequest("GET", uri)).getName()).as(uri).isEqualTo("lookup");
+        }
+    }
+
+    @Test
+    public void testUnmatchedRequestIsNotLimited() {
+        RequestLimitProperties properties = new RequestLimitProperties();
+        properties.setGroups(Collections.emptyList());
+        assertThat(new RequestLimiter(properties, meterRegistry).match(new MockHttpServletRequest("GET", "/api/songs")))
+                .isNull();
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr, String clientId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/songs/category/JAZZ");
+        request.setRemoteAddr(remoteAddr);
+        if (clientId != null) {
+            request.addHeader("X-Client-Id", clientId);
+        }
+        return request;
+    }
+
+    private static RequestPostProcessor remoteAddr(String remoteAddr) {
+        return request -> {
+            request.setRemoteAddr(remoteAddr);
+            return request;
+        };
+    }
+}